@@ -1,7 +1,9 @@
 package application;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -11,12 +13,13 @@ import java.util.Set;
  * Course:	   CS400.010
  * Due:		   11/19/21
  * 
- * Directed and unweighted graph implementation
+ * Directed and unweighted graph implementation. Users are kept in a map from their username,
+ * so looking a user up is O(1) expected instead of a scan of every user.
  */
 
 public class SocialGraph implements SocialGraphADT {
 	
-	private static Set<Person> users;
+	private Map<String, Person> users; // username -> user
 	private int numUsers;
 	private int numFriendships;
 	
@@ -24,7 +27,7 @@ public class SocialGraph implements SocialGraphADT {
 	 * Default no-argument constructor
 	 */ 
 	public SocialGraph() {
-		users = new HashSet<Person>();
+		users = new HashMap<String, Person>();
 		numUsers = 0;
 		numFriendships = 0;
 	}
@@ -53,7 +56,7 @@ public class SocialGraph implements SocialGraphADT {
 			throw new UserExistsException();
 		}		
 		Person p = new Person(user); 
-		users.add(p);
+		users.put(user, p);
 		numUsers++;
 	}
 
@@ -83,7 +86,7 @@ public class SocialGraph implements SocialGraphADT {
 		}		
 		Person p = getUser(user);
 		removeDirectFriends(p);
-		users.remove(p);
+		users.remove(user);
 		numUsers--;
 	}
 
@@ -186,13 +189,7 @@ public class SocialGraph implements SocialGraphADT {
      * @return a Set<String> which contains all the users in the graph
      */
     public Set<Person> getAllUsers() {
-		Set<Person> set = new HashSet<Person>();
-		
-		for (Person p : users) {
-			set.add(p);
-		}
-		
-		return set;
+		return new HashSet<Person>(users.values());
 	}
 
     /**
@@ -243,9 +240,10 @@ public class SocialGraph implements SocialGraphADT {
 	 */
 	private void removeDirectFriends(Person user) {
 		
-		// We need to remove all references to the user from other user's friends list
-		for (Person p : users) {
-			if (p.friends.contains(user)) {
+		// Friendships are stored in both users' lists, so only the user's own friends can
+		// refer to the user
+		for (Person p : user.friends) {
+			if (p != user) { // a user can be their own friend
 				p.friends.remove(user);
 			}
 		}
@@ -258,13 +256,7 @@ public class SocialGraph implements SocialGraphADT {
 	 * @return true if there is a person with a matching username, or false otherwise
 	 */
 	public boolean hasUser(String username) {
-		
-		for (Person p : users) {
-			if (p.username.equals(username)) {
-				return true;
-			}
-		}
-		return false;
+		return username != null && users.containsKey(username);
 	}
 	
 	/**
@@ -275,12 +267,11 @@ public class SocialGraph implements SocialGraphADT {
 	 * @throws UserNotFoundException 
 	 */
 	private Person getUser(String username) throws UserNotFoundException {
-		for (Person p : users) {
-			if (p.username.equals(username)) {
-				return p;
-			}
+		Person p = username == null ? null : users.get(username);
+		if (p == null) {
+			throw new UserNotFoundException();
 		}
-		throw new UserNotFoundException();
+		return p;
 	}
 	
 	/**
@@ -297,4 +288,4 @@ public class SocialGraph implements SocialGraphADT {
 		
 		return false;
 	}	
-}
\ No newline at end of file
+}
\ No newline at end of file
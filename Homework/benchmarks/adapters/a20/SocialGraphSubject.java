@@ -0,0 +1,72 @@
+import application.FriendshipDoesNotExistException;
+import application.FriendshipExistsException;
+import application.IllegalNullUserException;
+import application.SocialGraph;
+import application.UserExistsException;
+import application.UserNotFoundException;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Lets ComplexityTest time the final project's SocialGraph. Element i is the user "user" + i,
+ * and every user is friends with the users before and after them.
+ */
+public class SocialGraphSubject implements ComplexitySubject {
+
+    private SocialGraph graph;
+    private String[] users;
+
+    @Override
+    public void build(int n) {
+        graph = new SocialGraph();
+        users = new String[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                users[i] = "user" + i;
+                graph.addUser(users[i]);
+            }
+            for (int i = 0; i + 1 < n; i++) {
+                graph.addFriendship(users[i], users[i + 1]);
+            }
+        } catch (IllegalNullUserException | UserExistsException | FriendshipExistsException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void run(String operation, int i) {
+        int n = users.length;
+        try {
+            switch (operation) {
+                case "hasUser":
+                    graph.hasUser(users[i]);
+                    break;
+                case "getFriendsOf":
+                    graph.getFriendsOf(users[i]);
+                    break;
+                case "addFriendship+removeFriendship":
+                    graph.addFriendship(users[i], users[(i + 2) % n]);
+                    graph.removeFriendship(users[i], users[(i + 2) % n]);
+                    break;
+                case "removeUser+addUser":
+                    graph.removeUser(users[i]);
+                    graph.addUser(users[i]);
+                    if (i > 0) {
+                        graph.addFriendship(users[i - 1], users[i]);
+                    }
+                    if (i + 1 < n) {
+                        graph.addFriendship(users[i], users[i + 1]);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException(operation);
+            }
+        } catch (IllegalNullUserException | UserNotFoundException | UserExistsException
+                | FriendshipExistsException | FriendshipDoesNotExistException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Lets ComplexityTest time p1's DS_My. Element i is the key "key" + i.
+ */
+public class DS_MySubject implements ComplexitySubject {
+
+    private DS_My ds;
+    private String[] keys;
+
+    @Override
+    public void build(int n) {
+        ds = new DS_My();
+        keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = "key" + i;
+            ds.insert(keys[i], "value");
+        }
+    }
+
+    @Override
+    public void run(String operation, int i) {
+        switch (operation) {
+            case "get":
+                ds.get(keys[i]);
+                break;
+            case "contains":
+                ds.contains(keys[i]);
+                break;
+            case "remove+insert":
+                ds.remove(keys[i]);
+                ds.insert(keys[i], "value");
+                break;
+            case "size":
+                ds.size();
+                break;
+            default:
+                throw new IllegalArgumentException(operation);
+        }
+    }
+
+}
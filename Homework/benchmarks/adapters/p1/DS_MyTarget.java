@@ -0,0 +1,27 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Lets ADTBenchmark drive p1's DS_My. Compiled together with p1's classes.
+ */
+public class DS_MyTarget implements BenchmarkTarget {
+
+    private final DS_My ds = new DS_My();
+
+    @Override
+    public void insert(String key, String value) {
+        ds.insert(key, value);
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return ds.remove(key);
+    }
+
+    @Override
+    public Object get(String key) {
+        return ds.get(key);
+    }
+
+}
@@ -0,0 +1,84 @@
+import java.util.Iterator;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Lets ComplexityTest time p2's BALST. Element i is the key "key" + i, inserted in a
+ * scrambled order so the tree isn't built from sorted input.
+ */
+public class BALSTSubject implements ComplexitySubject {
+
+    private static final int RANGE = 16;
+
+    private BALST<String, String> tree;
+    private String[] keys;
+
+    @Override
+    public void build(int n) {
+        tree = new BALST<>();
+        keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = "key" + i;
+        }
+        try {
+            // 7919 is prime, so stepping by it visits every index once when n isn't a multiple
+            for (int i = 0, j = 0; i < n; i++, j = (j + 7919) % n) {
+                tree.insert(keys[j], "value");
+            }
+            if (tree.numKeys() != n) {
+                throw new IllegalStateException("n is a multiple of 7919");
+            }
+        } catch (IllegalNullKeyException | DuplicateKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void run(String operation, int i) {
+        try {
+            switch (operation) {
+                case "get":
+                    tree.get(keys[i]);
+                    break;
+                case "contains":
+                    tree.contains(keys[i]);
+                    break;
+                case "remove+insert":
+                    tree.remove(keys[i]);
+                    tree.insert(keys[i], "value");
+                    break;
+                case "rank":
+                    tree.rank(keys[i]);
+                    break;
+                case "select":
+                    tree.select(i);
+                    break;
+                case "floorKey":
+                    tree.floorKey(keys[i]);
+                    break;
+                case "rangeIterator": // first RANGE keys from keys[i], at most all after it
+                    Iterator<String> range = tree.rangeIterator(keys[i], "key~");
+                    for (int k = 0; k < RANGE && range.hasNext(); k++) {
+                        range.next();
+                    }
+                    break;
+                case "getHeight":
+                    tree.getHeight();
+                    break;
+                case "getInOrderTraversal":
+                    tree.getInOrderTraversal();
+                    break;
+                case "getLevelOrderTraversal":
+                    tree.getLevelOrderTraversal();
+                    break;
+                default:
+                    throw new IllegalArgumentException(operation);
+            }
+        } catch (IllegalNullKeyException | KeyNotFoundException | DuplicateKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
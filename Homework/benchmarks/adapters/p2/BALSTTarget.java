@@ -0,0 +1,43 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Lets ADTBenchmark drive p2's BALST. Compiled together with p2's classes. BALST reports a
+ * missing key by throwing KeyNotFoundException, which get turns into null, so gets of
+ * absent keys include the cost of that exception.
+ */
+public class BALSTTarget implements BenchmarkTarget {
+
+    private final BALST<String, String> tree = new BALST<>();
+
+    @Override
+    public void insert(String key, String value) {
+        try {
+            tree.insert(key, value);
+        } catch (IllegalNullKeyException | DuplicateKeyException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean remove(String key) {
+        try {
+            return tree.remove(key);
+        } catch (IllegalNullKeyException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Object get(String key) {
+        try {
+            return tree.get(key);
+        } catch (KeyNotFoundException e) {
+            return null;
+        } catch (IllegalNullKeyException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
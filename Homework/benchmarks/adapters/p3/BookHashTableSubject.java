@@ -0,0 +1,52 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Lets ComplexityTest time p3's BookHashTable. Element i is the key "key" + i.
+ */
+public class BookHashTableSubject implements ComplexitySubject {
+
+    private static final Book BOOK = new Book("9780000000000", "author", "2021", "title", "eng",
+            "4.0", "paperback", "100");
+
+    private BookHashTable table;
+    private String[] keys;
+
+    @Override
+    public void build(int n) {
+        table = new BookHashTable();
+        keys = new String[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                keys[i] = "key" + i;
+                table.insert(keys[i], BOOK);
+            }
+        } catch (IllegalNullKeyException | DuplicateKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void run(String operation, int i) {
+        try {
+            switch (operation) {
+                case "get":
+                    table.get(keys[i]);
+                    break;
+                case "remove+insert":
+                    table.remove(keys[i]);
+                    table.insert(keys[i], BOOK);
+                    break;
+                case "numKeys":
+                    table.numKeys();
+                    break;
+                default:
+                    throw new IllegalArgumentException(operation);
+            }
+        } catch (IllegalNullKeyException | KeyNotFoundException | DuplicateKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Lets ADTBenchmark drive p3's BookHashTable. Compiled together with p3's classes. The table
+ * holds Books, so every key is stored with the same Book and the given String value is
+ * ignored. Like BALST, a missing key is reported with KeyNotFoundException.
+ */
+public class BookHashTableTarget implements BenchmarkTarget {
+
+    private static final Book BOOK = new Book("9780000000000", "author", "2021", "title", "eng",
+            "4.0", "paperback", "100");
+
+    private final BookHashTable table = new BookHashTable();
+
+    @Override
+    public void insert(String key, String value) {
+        try {
+            table.insert(key, BOOK);
+        } catch (IllegalNullKeyException | DuplicateKeyException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean remove(String key) {
+        try {
+            return table.remove(key);
+        } catch (IllegalNullKeyException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Object get(String key) {
+        try {
+            return table.get(key);
+        } catch (KeyNotFoundException e) {
+            return null;
+        } catch (IllegalNullKeyException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
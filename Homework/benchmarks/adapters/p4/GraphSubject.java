@@ -0,0 +1,57 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Lets ComplexityTest time p4's Graph. Element i is the vertex "v" + i, and the graph is a
+ * chain with an edge from every vertex to the next one, so every vertex has at most one
+ * dependency and one dependent.
+ */
+public class GraphSubject implements ComplexitySubject {
+
+    private Graph graph;
+    private String[] vertices;
+
+    @Override
+    public void build(int n) {
+        graph = new Graph();
+        vertices = new String[n];
+        for (int i = 0; i < n; i++) {
+            vertices[i] = "v" + i;
+            graph.addVertex(vertices[i]);
+        }
+        for (int i = 0; i + 1 < n; i++) {
+            graph.addEdge(vertices[i], vertices[i + 1]);
+        }
+    }
+
+    @Override
+    public void run(String operation, int i) {
+        int n = vertices.length;
+        switch (operation) {
+            case "addVertex": // already in the graph, so this is only the lookup
+                graph.addVertex(vertices[i]);
+                break;
+            case "addEdge+removeEdge":
+                graph.addEdge(vertices[i], vertices[(i + 2) % n]);
+                graph.removeEdge(vertices[i], vertices[(i + 2) % n]);
+                break;
+            case "getAdjacentVerticesOf":
+                graph.getAdjacentVerticesOf(vertices[i]);
+                break;
+            case "removeVertex+addVertex":
+                graph.removeVertex(vertices[i]);
+                graph.addVertex(vertices[i]);
+                if (i > 0) {
+                    graph.addEdge(vertices[i - 1], vertices[i]);
+                }
+                if (i + 1 < n) {
+                    graph.addEdge(vertices[i], vertices[i + 1]);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(operation);
+        }
+    }
+
+}
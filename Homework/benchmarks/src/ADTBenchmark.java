@@ -0,0 +1,372 @@
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Benchmark harness comparing the homework data structures: p1's DS_My, p2's BALST and p3's
+ * BookHashTable. Build and run it with "make bench" from this directory, or after "make":
+ *
+ *     java -Xmx3g -cp out/harness ADTBenchmark [target ...]
+ *
+ * where the optional targets are any of DS_My, BALST and BookHashTable.
+ *
+ * Workloads, each at 1e3, 1e4, 1e5 and 1e6 keys:
+ *     insert - fill an empty data structure with n keys in random order
+ *     remove - remove all n keys of a full data structure in a different random order
+ *     get    - look up present keys, for a fixed time
+ *     mixed  - 80% gets, 20% that remove the key if present or insert it if not
+ *
+ * get and mixed pick keys uniformly or from a Zipf distribution (exponent 0.99, hot keys
+ * spread through the key space). Each row reports throughput, average latency and the bytes
+ * allocated per operation and per second, measured with the JVM's per-thread allocation
+ * counter. Every measurement comes after WARMUP_ITERATIONS unmeasured iterations, so the
+ * JIT has compiled the hot paths first.
+ *
+ * Sizes a data structure can't reach in time, such as DS_My at 1e5 keys and up, are
+ * skipped: the next size's insert time is predicted from how fast it grew between the last
+ * two sizes, and skipped if more than ITERATION_BUDGET_NANOS.
+ */
+public class ADTBenchmark {
+
+    private static final String[] TARGET_NAMES = { "DS_My", "BALST", "BookHashTable" };
+    private static final String[] TARGET_DIRS = { "out/p1", "out/p2", "out/p3" };
+    private static final String[] TARGET_CLASSES = { "DS_MyTarget", "BALSTTarget", "BookHashTableTarget" };
+
+    private static final int[] SIZES = { 1000, 10000, 100000, 1000000 };
+    private static final double ZIPF_EXPONENT = 0.99;
+    private static final int STREAM_LENGTH = 1 << 20; // pre-drawn key indexes per distribution
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 3;
+    private static final long TIMED_ITERATION_NANOS = 300_000_000L; // length of get and mixed iterations
+    private static final long ITERATION_BUDGET_NANOS = 5_000_000_000L;
+    private static final String VALUE = "value";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile Object sink; // keeps results alive so the JIT can't drop the work
+
+    public static void main(String[] args) throws Exception {
+        boolean[] enabled = new boolean[TARGET_NAMES.length];
+        for (int t = 0; t < TARGET_NAMES.length; t++) {
+            enabled[t] = args.length == 0;
+            for (String arg : args) {
+                enabled[t] |= arg.equals(TARGET_NAMES[t]);
+            }
+        }
+
+        Class<?>[] targets = new Class<?>[TARGET_NAMES.length];
+        for (int t = 0; t < TARGET_NAMES.length; t++) {
+            // Each project in its own loader, so their same-named classes don't clash
+            URL[] path = { new File(TARGET_DIRS[t]).toURI().toURL() };
+            targets[t] = new URLClassLoader(path, ADTBenchmark.class.getClassLoader())
+                    .loadClass(TARGET_CLASSES[t]);
+        }
+
+        System.out.printf("%-14s%-8s%-9s%9s%14s%12s%10s%10s%n", "target", "work", "keys", "n",
+                "ops/s", "ns/op", "B/op", "MB/s");
+        long[] insertNanos = new long[TARGET_NAMES.length * SIZES.length];
+        for (int s = 0; s < SIZES.length; s++) {
+            Keys keys = new Keys(SIZES[s], new Random(400 + s));
+            for (int t = 0; t < TARGET_NAMES.length; t++) {
+                if (!enabled[t]) {
+                    continue;
+                }
+                String name = TARGET_NAMES[t];
+                if (predictedInsertNanos(insertNanos, t, s) > ITERATION_BUDGET_NANOS) {
+                    System.out.printf("%-14s%-8s%-9s%9d  skipped, too slow%n", name, "all", "-", SIZES[s]);
+                    continue;
+                }
+                Class<?> target = targets[t];
+                insertNanos[t * SIZES.length + s] = run(name, "insert", "-", SIZES[s],
+                        () -> measure(() -> newTarget(target), ds -> insert(ds, keys)));
+                if (insertNanos[t * SIZES.length + s] == 0) {
+                    continue; // can't even be filled
+                }
+                run(name, "remove", "-", SIZES[s],
+                        () -> measure(() -> fill(newTarget(target), keys), ds -> remove(ds, keys)));
+
+                BenchmarkTarget full = fill(newTarget(target), keys);
+                run(name, "get", "uniform", SIZES[s], () -> measure(() -> full, ds -> get(ds, keys, keys.uniform)));
+                run(name, "get", "zipf", SIZES[s], () -> measure(() -> full, ds -> get(ds, keys, keys.zipf)));
+
+                // Mixed iterations carry on from where the previous one left the data structure
+                run(name, "mixed", "uniform", SIZES[s], () -> {
+                    Mixed mixed = new Mixed(fill(newTarget(target), keys), keys, keys.uniform);
+                    return measure(() -> mixed, Mixed::run);
+                });
+                run(name, "mixed", "zipf", SIZES[s], () -> {
+                    Mixed mixed = new Mixed(fill(newTarget(target), keys), keys, keys.zipf);
+                    return measure(() -> mixed, Mixed::run);
+                });
+            }
+        }
+    }
+
+    /**
+     * Runs one workload and prints its row, or why it failed. A data structure that breaks
+     * under one workload still gets its other workloads measured.
+     *
+     * @return average nanoseconds per measured iteration, 0 if the workload failed
+     */
+    private static long run(String target, String work, String distribution, int n,
+            Supplier<Result> workload) {
+        try {
+            Result r = workload.get();
+            double seconds = r.nanos / 1e9;
+            System.out.printf("%-14s%-8s%-9s%9d%14.0f%12.1f%10.1f%10.1f%n", target, work, distribution,
+                    n, r.ops / seconds, r.nanos / (double) r.ops, r.bytes / (double) r.ops,
+                    r.bytes / seconds / 1e6);
+            return r.nanos / MEASURED_ITERATIONS;
+        } catch (RuntimeException e) {
+            System.out.printf("%-14s%-8s%-9s%9d  failed: %s%n", target, work, distribution, n, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Totals over the measured iterations of a workload
+     */
+    private static class Result {
+        private long ops;
+        private long nanos;
+        private long bytes;
+    }
+
+    /**
+     * Runs the warm-up iterations, then the measured ones. Each iteration first gets its
+     * data structure from setUp, which isn't measured, then runs the workload on it.
+     *
+     * @param setUp prepares the state for one iteration
+     * @param workload runs one iteration and returns the number of operations it did
+     * @return totals of the measured iterations
+     */
+    private static <T> Result measure(Supplier<T> setUp, ToLongFunction<T> workload) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = workload.applyAsLong(setUp.get());
+        }
+        Result result = new Result();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            T state = setUp.get();
+            System.gc();
+            long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+            long startNanos = System.nanoTime();
+            result.ops += workload.applyAsLong(state);
+            result.nanos += System.nanoTime() - startNanos;
+            result.bytes += THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+        }
+        return result;
+    }
+
+    /**
+     * Fills an empty target with all n keys
+     */
+    private static long insert(BenchmarkTarget ds, Keys keys) {
+        for (String key : keys.insertOrder) {
+            ds.insert(key, VALUE);
+        }
+        sink = ds;
+        return keys.insertOrder.length;
+    }
+
+    /**
+     * Removes all keys from a full target
+     */
+    private static long remove(BenchmarkTarget ds, Keys keys) {
+        boolean all = true;
+        for (String key : keys.removeOrder) {
+            all &= ds.remove(key);
+        }
+        if (!all) {
+            throw new IllegalStateException("a present key could not be removed");
+        }
+        return keys.removeOrder.length;
+    }
+
+    /**
+     * Looks up keys from the given stream until TIMED_ITERATION_NANOS have passed
+     */
+    private static long get(BenchmarkTarget ds, Keys keys, int[] stream) {
+        long ops = 0;
+        long found = 0;
+        long end = System.nanoTime() + TIMED_ITERATION_NANOS;
+        do {
+            // Check the time only every 256 lookups so it doesn't dominate fast ones
+            for (int i = 0; i < 256; i++) {
+                found += ds.get(keys.keys[stream[(int) (ops++ & (STREAM_LENGTH - 1))]]) != null ? 1 : 0;
+            }
+        } while (System.nanoTime() < end);
+        if (found != ops) {
+            throw new IllegalStateException("a present key was not found");
+        }
+        return ops;
+    }
+
+    /**
+     * The mixed workload on one data structure: 8 in 10 operations get a key from the
+     * stream, the others remove it if present and insert it if not
+     */
+    private static class Mixed {
+        private final BenchmarkTarget ds;
+        private final Keys keys;
+        private final int[] stream;
+        private final boolean[] present; // present[k] is true if keys.keys[k] is in ds
+        private int position; // next index into stream
+
+        private Mixed(BenchmarkTarget ds, Keys keys, int[] stream) {
+            this.ds = ds;
+            this.keys = keys;
+            this.stream = stream;
+            this.present = new boolean[keys.keys.length];
+            Arrays.fill(present, true);
+        }
+
+        /**
+         * Runs operations until TIMED_ITERATION_NANOS have passed
+         */
+        private long run() {
+            long ops = 0;
+            long end = System.nanoTime() + TIMED_ITERATION_NANOS;
+            do {
+                for (int i = 0; i < 256; i++, ops++) {
+                    int k = stream[position++ & (STREAM_LENGTH - 1)];
+                    if (i % 10 < 8) {
+                        sink = ds.get(keys.keys[k]);
+                    } else if (present[k]) {
+                        ds.remove(keys.keys[k]);
+                        present[k] = false;
+                    } else {
+                        ds.insert(keys.keys[k], VALUE);
+                        present[k] = true;
+                    }
+                }
+            } while (System.nanoTime() < end);
+            return ops;
+        }
+    }
+
+    /**
+     * @return ds after inserting all n keys
+     */
+    private static BenchmarkTarget fill(BenchmarkTarget ds, Keys keys) {
+        insert(ds, keys);
+        return ds;
+    }
+
+    /**
+     * @return a new empty data structure of the target class
+     */
+    private static BenchmarkTarget newTarget(Class<?> target) {
+        try {
+            return (BenchmarkTarget) target.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Predicts the time to insert SIZES[s] keys from the two sizes before it, assuming the
+     * time keeps growing by the same factor. With only one earlier size it assumes linear
+     * growth.
+     *
+     * @return predicted nanoseconds, 0 if there is nothing to go on yet
+     */
+    private static long predictedInsertNanos(long[] insertNanos, int t, int s) {
+        if (s == 0) {
+            return 0;
+        }
+        long last = insertNanos[t * SIZES.length + s - 1];
+        if (last == 0) {
+            return Long.MAX_VALUE; // the previous size was skipped or failed
+        }
+        double growth = SIZES[s] / (double) SIZES[s - 1];
+        if (s >= 2 && insertNanos[t * SIZES.length + s - 2] > 0) {
+            growth = Math.max(growth, last / (double) insertNanos[t * SIZES.length + s - 2]);
+        }
+        return (long) (last * growth);
+    }
+
+    /**
+     * The keys of one size and the orders and distributions they are used in, all made up
+     * front so generating them isn't measured
+     */
+    private static class Keys {
+        private final String[] keys; // the n keys
+        private final String[] insertOrder; // keys in random order
+        private final String[] removeOrder; // keys in a different random order
+        private final int[] uniform; // STREAM_LENGTH uniformly chosen indexes into keys
+        private final int[] zipf; // STREAM_LENGTH Zipf-distributed indexes into keys
+
+        private Keys(int n, Random random) {
+            keys = new String[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = "key" + i;
+            }
+            insertOrder = shuffled(keys, random);
+            removeOrder = shuffled(keys, random);
+
+            uniform = new int[STREAM_LENGTH];
+            for (int i = 0; i < STREAM_LENGTH; i++) {
+                uniform[i] = random.nextInt(n);
+            }
+
+            // Rank r is drawn with probability proportional to 1 / (r + 1)^ZIPF_EXPONENT, and
+            // ranks are mapped to keys through a random permutation so the hot keys are
+            // scattered instead of being the first ones inserted
+            double[] cdf = new double[n];
+            double total = 0;
+            for (int r = 0; r < n; r++) {
+                total += 1 / Math.pow(r + 1, ZIPF_EXPONENT);
+                cdf[r] = total;
+            }
+            int[] keyOfRank = permutation(n, random);
+            zipf = new int[STREAM_LENGTH];
+            for (int i = 0; i < STREAM_LENGTH; i++) {
+                double u = random.nextDouble() * total;
+                int lo = 0;
+                int hi = n - 1;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (cdf[mid] < u) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                zipf[i] = keyOfRank[lo];
+            }
+        }
+
+        private static String[] shuffled(String[] keys, Random random) {
+            int[] order = permutation(keys.length, random);
+            String[] result = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                result[i] = keys[order[i]];
+            }
+            return result;
+        }
+
+        private static int[] permutation(int n, Random random) {
+            int[] p = new int[n];
+            for (int i = 0; i < n; i++) {
+                p[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = p[i];
+                p[i] = p[j];
+                p[j] = tmp;
+            }
+            return p;
+        }
+    }
+}
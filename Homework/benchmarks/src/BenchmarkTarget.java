@@ -0,0 +1,25 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * The operations ADTBenchmark needs from a data structure. The homework projects each have
+ * their own DataStructureADT and exception classes with the same names, so they can't share
+ * a class path. Instead every project gets a small adapter in adapters/ that implements this
+ * interface on top of its own classes, and ADTBenchmark loads each project in its own class
+ * loader.
+ *
+ * Adapters must have a public no-arg constructor that creates an empty data structure.
+ */
+public interface BenchmarkTarget {
+
+    // Adds the key,value pair, throws a RuntimeException if key is already present
+    void insert(String key, String value);
+
+    // Removes key, returns false if it wasn't present
+    boolean remove(String key);
+
+    // Returns the value of key, or null if it isn't present
+    Object get(String key);
+
+}
@@ -0,0 +1,23 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * A data structure as ComplexityTest sees it: something that can be built at any size and
+ * that has named operations to time on it. Like BenchmarkTarget, every project implements
+ * this in its own adapter in adapters/, compiled with that project's classes.
+ *
+ * Adapters must have a public no-arg constructor.
+ */
+public interface ComplexitySubject {
+
+    // Replaces the current instance with a new one holding n elements, named by index
+    // from 0 to n - 1
+    void build(int n);
+
+    // Runs the named operation once on element i of the current instance. The instance
+    // must hold the same elements afterwards, so an operation that adds or removes one also
+    // undoes it. Throws IllegalArgumentException for an unknown operation.
+    void run(String operation, int i);
+
+}
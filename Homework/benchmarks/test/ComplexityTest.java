@@ -0,0 +1,231 @@
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Checks that operations on every project's data structure grow no faster than their
+ * documented bound. Each operation is timed at doubling sizes, and the growth exponent is the
+ * slope of log(time per operation) against log(n), fitted by least squares. The test fails if
+ * the exponent is more than TOLERANCE above the bound, e.g. when a lookup meant to be O(1)
+ * starts scanning a list. A log n factor is counted as exponent 0: over these sizes it only
+ * adds about 0.15 to the slope.
+ *
+ * Each operation is warmed up at the largest size before any size is timed, otherwise the
+ * small sizes run less optimized code and flatten the slope. The sizes are then timed in
+ * PASSES rounds and each keeps its fastest time, so one stall can't bend the fit. test00
+ * checks the harness itself on a pointer chase that is linear by construction: if that
+ * doesn't come out within BASELINE_TOLERANCE of n^1, the slopes of the other tests don't
+ * mean anything either.
+ *
+ * Run with "make test" after "make all" so every project is compiled into out/.
+ */
+public class ComplexityTest {
+
+    private static final int MIN_LOG_N = 9;
+    private static final int MAX_LOG_N = 14;
+    private static final double TOLERANCE = 0.5;
+    private static final int PASSES = 3;
+    private static final int TRIALS = 3;
+    private static final long MIN_BATCH_NANOS = 2_000_000L;
+    private static final long WARM_UP_NANOS = 200_000_000L;
+    private static final double BASELINE_TOLERANCE = 0.2;
+
+    @Test
+    void test00_linear_baseline_measures_as_linear() {
+        double exponent = exponent("baseline", new LinearBaseline(), "scan");
+        if (Math.abs(exponent - 1) > BASELINE_TOLERANCE) {
+            fail(String.format("a linear scan measured as n^%.2f, timings are unreliable",
+                    exponent));
+        }
+    }
+
+    @Test
+    void test01_DS_My_operations_grow_no_faster_than_documented() throws Exception {
+        ComplexitySubject ds = subject("out/p1", "DS_MySubject");
+        assertGrowth("DS_My", ds, "size", 0);
+        assertGrowth("DS_My", ds, "get", 1);
+        assertGrowth("DS_My", ds, "contains", 1);
+        assertGrowth("DS_My", ds, "remove+insert", 1);
+    }
+
+    @Test
+    void test02_BALST_operations_grow_no_faster_than_documented() throws Exception {
+        ComplexitySubject tree = subject("out/p2", "BALSTSubject");
+        assertGrowth("BALST", tree, "get", 0);
+        assertGrowth("BALST", tree, "contains", 0);
+        assertGrowth("BALST", tree, "remove+insert", 0);
+        assertGrowth("BALST", tree, "getHeight", 0);
+        assertGrowth("BALST", tree, "rank", 0);
+        assertGrowth("BALST", tree, "select", 0);
+        assertGrowth("BALST", tree, "floorKey", 0);
+        assertGrowth("BALST", tree, "rangeIterator", 0); // O(log n + k) with fixed k
+        assertGrowth("BALST", tree, "getInOrderTraversal", 1);
+        assertGrowth("BALST", tree, "getLevelOrderTraversal", 1);
+    }
+
+    @Test
+    void test03_BookHashTable_operations_grow_no_faster_than_documented() throws Exception {
+        ComplexitySubject table = subject("out/p3", "BookHashTableSubject");
+        assertGrowth("BookHashTable", table, "numKeys", 0);
+        assertGrowth("BookHashTable", table, "get", 0);
+        assertGrowth("BookHashTable", table, "remove+insert", 0);
+    }
+
+    @Test
+    void test04_Graph_operations_grow_no_faster_than_documented() throws Exception {
+        ComplexitySubject graph = subject("out/p4", "GraphSubject");
+        assertGrowth("Graph", graph, "addVertex", 0);
+        assertGrowth("Graph", graph, "addEdge+removeEdge", 0);
+        assertGrowth("Graph", graph, "getAdjacentVerticesOf", 0);
+        // Edges are only stored with their source, so removing a vertex scans every vertex
+        assertGrowth("Graph", graph, "removeVertex+addVertex", 1);
+    }
+
+    @Test
+    void test05_SocialGraph_operations_grow_no_faster_than_documented() throws Exception {
+        ComplexitySubject graph = subject("out/a20", "SocialGraphSubject");
+        assertGrowth("SocialGraph", graph, "hasUser", 0);
+        assertGrowth("SocialGraph", graph, "getFriendsOf", 0);
+        assertGrowth("SocialGraph", graph, "addFriendship+removeFriendship", 0);
+        assertGrowth("SocialGraph", graph, "removeUser+addUser", 0);
+    }
+
+    // ------ Private Helper Methods ------ \\
+
+    // Loads a project's subject in its own class loader, since the projects share class names
+    private static ComplexitySubject subject(String dir, String className) throws Exception {
+        URL[] path = { new File(dir).toURI().toURL() };
+        ClassLoader loader = new URLClassLoader(path, ComplexityTest.class.getClassLoader());
+        return (ComplexitySubject) loader.loadClass(className).getConstructor().newInstance();
+    }
+
+    private static void assertGrowth(String name, ComplexitySubject subject, String operation,
+            int bound) {
+        double exponent = exponent(name, subject, operation);
+        if (exponent > bound + TOLERANCE) {
+            fail(String.format("%s %s grew as n^%.2f, documented bound O(n^%d)", name,
+                    operation, exponent, bound));
+        }
+    }
+
+    // Fitted growth exponent of an operation over the sizes 2^MIN_LOG_N to 2^MAX_LOG_N
+    private static double exponent(String name, ComplexitySubject subject, String operation) {
+        int sizes = MAX_LOG_N - MIN_LOG_N + 1;
+        double[] logN = new double[sizes];
+        double[] logT = new double[sizes];
+        warmUp(subject, operation, 1 << MAX_LOG_N);
+        for (int s = 0; s < sizes; s++) {
+            logN[s] = Math.log(1 << (MIN_LOG_N + s));
+            logT[s] = Double.MAX_VALUE;
+        }
+        // Every pass times every size, so a stall such as a recompile or a burst of GC only
+        // spoils one pass of one size instead of every trial of it
+        for (int pass = 0; pass < PASSES; pass++) {
+            for (int s = 0; s < sizes; s++) {
+                double nanos = nanosPerOperation(subject, operation, 1 << (MIN_LOG_N + s));
+                logT[s] = Math.min(logT[s], Math.log(nanos));
+            }
+        }
+        double exponent = slope(logN, logT);
+        System.out.printf("%s %s: n^%.2f%n", name, operation, exponent);
+        return exponent;
+    }
+
+    // Runs the operation at size n until WARM_UP_NANOS have passed, so the JIT has compiled
+    // it with the loop trip counts of a large instance before anything is timed
+    private static void warmUp(ComplexitySubject subject, String operation, int n) {
+        subject.build(n);
+        int[] elements = new int[1024];
+        Random random = new Random(n);
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = random.nextInt(n);
+        }
+        long total = 0;
+        for (int reps = 1; total < WARM_UP_NANOS; reps = Math.min(reps * 2, 1 << 20)) {
+            total += runBatch(subject, operation, elements, reps);
+        }
+    }
+
+    // Fastest time per operation over TRIALS batches. A batch runs the operation on random
+    // elements, and is doubled until it takes MIN_BATCH_NANOS so timer resolution doesn't matter.
+    private static double nanosPerOperation(ComplexitySubject subject, String operation, int n) {
+        subject.build(n);
+        Random random = new Random(n);
+        int[] elements = new int[1024];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = random.nextInt(n);
+        }
+        int reps = 1;
+        while (runBatch(subject, operation, elements, reps) < MIN_BATCH_NANOS) {
+            reps *= 2;
+        }
+        long best = Long.MAX_VALUE;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            best = Math.min(best, runBatch(subject, operation, elements, reps));
+        }
+        return (double) best / reps;
+    }
+
+    private static long runBatch(ComplexitySubject subject, String operation, int[] elements,
+            int reps) {
+        long start = System.nanoTime();
+        for (int r = 0; r < reps; r++) {
+            subject.run(operation, elements[r & (elements.length - 1)]);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static double slope(double[] x, double[] y) {
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < x.length; i++) {
+            meanX += x[i] / x.length;
+            meanY += y[i] / y.length;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < x.length; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+            variance += (x[i] - meanX) * (x[i] - meanX);
+        }
+        return covariance / variance;
+    }
+
+    // Linear by construction: "scan" follows a cycle through all n slots of an array, so the
+    // work is n dependent loads the JIT can't vectorize or skip. The cycle goes in index
+    // order so every load hits the cache and the time per load doesn't depend on n.
+    private static class LinearBaseline implements ComplexitySubject {
+        private int[] next = new int[0];
+        private int sink; // keeps the JIT from dropping the scan
+
+        @Override
+        public void build(int n) {
+            next = new int[n];
+            for (int i = 0; i < n; i++) {
+                next[i] = (i + 1) % n;
+            }
+        }
+
+        @Override
+        public void run(String operation, int i) {
+            if (!operation.equals("scan")) {
+                throw new IllegalArgumentException(operation);
+            }
+            int slot = i;
+            for (int k = 0; k < next.length; k++) {
+                slot = next[slot];
+            }
+            sink += slot;
+        }
+    }
+
+}
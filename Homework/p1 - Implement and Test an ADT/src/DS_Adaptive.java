@@ -0,0 +1,335 @@
+import java.util.ConcurrentModificationException;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a DS that changes its layout with its size. Both layouts use the same
+ * two parallel arrays of keys and values, so there are no node objects in either one.
+ *
+ * - Flat: while there are at most FLAT_MAX pairs, they are packed at the front of the
+ *   arrays and found with a linear scan. For a handful of keys this touches one or two
+ *   cache lines and beats hashing.
+ * - Hashed: once more pairs are inserted, the arrays become an open-addressing hash table
+ *   with linear probing, so operations stay O(1) expected however large the DS grows.
+ *
+ * A hashed DS shrinks its table as pairs are removed and goes back to the flat layout once
+ * it falls below FLAT_MIN pairs. FLAT_MIN is lower than FLAT_MAX so that a DS hovering
+ * around the threshold doesn't switch layouts on every insert and remove.
+ */
+public class DS_Adaptive implements DataStructureADT< String, String > {
+
+	// Most pairs kept in the flat layout, one more switches to the hashed layout
+	static final int FLAT_MAX = 8;
+
+	// Fewest pairs kept in the hashed layout, one fewer switches back to the flat layout
+	static final int FLAT_MIN = 4;
+
+	// Marks a hashed slot whose pair was removed. Compared by identity, never equal to a key.
+	private static final String DELETED = new String("<deleted>");
+
+	// Inner class - fail-fast cursor over the arrays in slot order, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<String, String> {
+		private int index; // slot the cursor is on, -1 before the first pair
+		private boolean on; // whether the cursor is on a pair
+		private int expectedModCount; // modCount when the cursor was last reset
+
+		/**
+		 * Cursor constructor, positioned before the first pair
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			int end = hashed ? keys.length : numElements;
+			do {
+				index = Math.min(index + 1, end);
+			} while (index < end && (keys[index] == null || keys[index] == DELETED));
+			on = index < end;
+			return on;
+		}
+
+		@Override
+		public String key() {
+			return keys[on()];
+		}
+
+		@Override
+		public String value() {
+			return values[on()];
+		}
+
+		@Override
+		public void reset() {
+			index = -1;
+			on = false;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * @return the slot the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a pair
+		 */
+		private int on() {
+			if (!on) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return index;
+		}
+	}
+
+	// Private Fields of the class
+	private String[] keys; // flat: packed in [0, numElements). hashed: slot keys or null/DELETED
+	private String[] values;
+	private int numElements; // number of pairs
+	private boolean hashed; // which layout keys and values are in
+	private int usedSlots; // hashed only: live plus DELETED slots
+	private int modCount; // number of structural modifications, for cursors
+
+	/**
+	 * Construct a new, empty DS_Adaptive in the flat layout.
+	 */
+	public DS_Adaptive() {
+		this.keys = new String[FLAT_MAX];
+		this.values = new String[FLAT_MAX];
+		this.numElements = 0;
+		this.hashed = false;
+		this.usedSlots = 0;
+		this.modCount = 0;
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(String key, String value) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+		if (indexOf(key) >= 0) {
+			throw new RuntimeException("duplicate key");
+		}
+		modCount++;
+
+		if (!hashed && numElements < FLAT_MAX) {
+			keys[numElements] = key;
+			values[numElements] = value;
+			numElements++;
+			return;
+		}
+
+		// Promote when the flat layout is full, grow when the table is half used
+		if (!hashed || (usedSlots + 1) * 2 > keys.length) {
+			rehash(tableSizeFor(numElements + 1));
+		}
+		putHashed(key, value);
+		numElements++;
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int i = indexOf(key);
+		if (i < 0) {
+			return false;
+		}
+		numElements--;
+		modCount++;
+
+		if (!hashed) {
+			// Fill the hole with the last pair to keep the flat layout packed
+			keys[i] = keys[numElements];
+			values[i] = values[numElements];
+			keys[numElements] = null;
+			values[numElements] = null;
+			return true;
+		}
+
+		keys[i] = DELETED;
+		values[i] = null;
+
+		// Demote when small again, shrink when the table is mostly empty
+		if (numElements < FLAT_MIN) {
+			demote();
+		} else if (numElements * 8 < keys.length) {
+			rehash(tableSizeFor(numElements));
+		}
+		return true;
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public String get(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int i = indexOf(key);
+		return i < 0 ? null : values[i];
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(String key) {
+		return key != null && indexOf(key) >= 0;
+	}
+
+	@Override
+	// Returns the number of elements in the data structure
+	public int size() {
+		return this.numElements;
+	}
+
+	/**
+	 * Used by tests to check which layout the pairs are in.
+	 *
+	 * @return true if in the hashed layout, false if in the flat layout
+	 */
+	boolean isHashed() {
+		return hashed;
+	}
+
+	@Override
+	// Returns a cursor over the pairs in array order, insertion order while flat
+	public DataStructureCursor<String, String> cursor() {
+		return new Cursor();
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Finds the array index of key in whichever layout is in use
+	 *
+	 * @param K the non-null key to search for
+	 * @return index of K in keys, or -1 if K is not present
+	 */
+	private int indexOf(String K) {
+		if (!hashed) {
+			for (int i = 0; i < numElements; i++) {
+				if (keys[i].equals(K)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		int mask = keys.length - 1;
+		int i = hash(K) & mask;
+
+		// Removed slots are skipped, only an empty slot ends the probe
+		for (String slot = keys[i]; slot != null; slot = keys[i]) {
+			if (slot != DELETED && slot.equals(K)) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Puts a pair that is known to be absent into the hash table, reusing the first
+	 * removed slot on its probe path if there is one
+	 *
+	 * @param key key to put
+	 * @param value value of key
+	 */
+	private void putHashed(String key, String value) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (keys[i] != null && keys[i] != DELETED) {
+			i = (i + 1) & mask;
+		}
+		if (keys[i] == null) {
+			usedSlots++;
+		}
+		keys[i] = key;
+		values[i] = value;
+	}
+
+	/**
+	 * Moves every pair into a new hash table of the given size, switching to the hashed
+	 * layout if not in it already. Removed slots are dropped.
+	 *
+	 * @param slots number of slots in the new table, a power of two
+	 */
+	private void rehash(int slots) {
+		String[] oldKeys = keys;
+		String[] oldValues = values;
+		int oldLength = hashed ? oldKeys.length : numElements;
+
+		keys = new String[slots];
+		values = new String[slots];
+		hashed = true;
+		usedSlots = 0;
+
+		for (int i = 0; i < oldLength; i++) {
+			if (oldKeys[i] != null && oldKeys[i] != DELETED) {
+				putHashed(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * Packs the remaining pairs of the hash table into a flat layout
+	 */
+	private void demote() {
+		String[] oldKeys = keys;
+		String[] oldValues = values;
+
+		keys = new String[FLAT_MAX];
+		values = new String[FLAT_MAX];
+		hashed = false;
+		usedSlots = 0;
+
+		int n = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null && oldKeys[i] != DELETED) {
+				keys[n] = oldKeys[i];
+				values[n] = oldValues[i];
+				n++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the smallest power of two table that holds n pairs at most half full
+	 *
+	 * @param n number of pairs
+	 * @return number of slots
+	 */
+	private static int tableSizeFor(int n) {
+		int slots = 4 * FLAT_MAX;
+		while (slots < 2 * n) {
+			slots *= 2;
+		}
+		return slots;
+	}
+
+	/**
+	 * Spreads the higher bits of the key's hash code into the lower bits
+	 *
+	 * @param K the key to hash
+	 * @return the spread hash code
+	 */
+	private static int hash(String K) {
+		int h = K.hashCode();
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,562 @@
+import java.lang.reflect.Array;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Asynchronous front end that lets any number of threads use any DS without locking it. The
+ * key space is split into shards by key hash like in DS_Striped, but instead of a lock each
+ * shard has one owner thread, the only thread that ever touches the shard's DS. The async
+ * methods put the operation on the shard's queue and return a CompletableFuture at once;
+ * the owner takes everything waiting in its queue, up to MAX_BATCH operations, applies the
+ * batch in order and completes the futures. Under load, one wake-up of the owner serves many
+ * callers, and callers never wait for each other the way they queue up behind a lock.
+ *
+ * The DataStructureADT methods are the async ones followed by join, and throw the same
+ * exceptions as any other DS. Operations on one key from one thread run in the order they
+ * were submitted. size() adds up sizes the owners publish after every operation, so it
+ * doesn't include operations still waiting in the queues.
+ *
+ * Futures are completed on the owner threads, so continuations attached with thenApply and
+ * similar also run there and hold up the shard; attach slow ones with the *Async variants.
+ *
+ * queueDepth, maxQueueDepth and the batch counters report how far the owners fall behind and
+ * how much batching is happening. close() stops the owner threads.
+ *
+ * @param <K> The key must not be null and must be Comparable.
+ * @param <V> The data value associated with a given key.
+ */
+public class DS_Async<K extends Comparable<K>, V> implements DataStructureADT<K, V>, AutoCloseable {
+
+	// Kinds of operations
+	private enum Kind {
+		INSERT, REMOVE, GET, CONTAINS, COPY, STOP
+	}
+
+	// Inner class - queued operation and the future it completes
+	private static final class Op {
+		private final Kind kind;
+		private final Object key;
+		private final Object value;
+		private final CompletableFuture<Object> future;
+
+		/**
+		 * Op constructor
+		 *
+		 * @param kind what to do
+		 * @param key key to do it with, null for COPY and STOP
+		 * @param value value to insert, or null
+		 */
+		private Op(Kind kind, Object key, Object value) {
+			this.kind = kind;
+			this.key = key;
+			this.value = value;
+			this.future = new CompletableFuture<>();
+		}
+	}
+
+	// Inner class - one shard: its DS, queue and owner thread
+	private final class Shard implements Runnable {
+		private final DataStructureADT<K, V> ds; // only touched by owner
+		private final BlockingQueue<Op> queue = new LinkedBlockingQueue<>();
+		private final Thread owner;
+		private volatile int size; // ds.size() after the last operation
+
+		/**
+		 * Shard constructor, starts the owner thread
+		 *
+		 * @param ds empty DS backing the shard
+		 * @param number shard number, for the thread name
+		 */
+		private Shard(DataStructureADT<K, V> ds, int number) {
+			this.ds = ds;
+			this.owner = new Thread(this, "DS_Async-shard-" + number);
+			this.owner.setDaemon(true); // don't keep the JVM alive if close is never called
+			this.owner.start();
+		}
+
+		@Override
+		// Owner loop: apply batches until a STOP operation comes through
+		public void run() {
+			Op[] batch = new Op[MAX_BATCH];
+			boolean stopped = false;
+			while (!stopped) {
+				try {
+					batch[0] = queue.take();
+				} catch (InterruptedException e) {
+					continue; // only close stops the owner
+				}
+				int n = 1;
+				Op op;
+				while (n < MAX_BATCH && (op = queue.poll()) != null) {
+					batch[n++] = op;
+				}
+				record(n, n + queue.size());
+
+				for (int i = 0; i < n; i++) {
+					if (batch[i].kind == Kind.STOP) {
+						stopped = true;
+					} else {
+						apply(batch[i]);
+					}
+					batch[i] = null;
+				}
+			}
+
+			// Fail whatever was submitted while closing
+			Op op;
+			while ((op = queue.poll()) != null) {
+				op.future.completeExceptionally(new IllegalStateException("closed"));
+			}
+		}
+
+		/**
+		 * Applies one operation to the DS and completes its future
+		 *
+		 * @param op operation other than STOP
+		 */
+		@SuppressWarnings("unchecked")
+		private void apply(Op op) {
+			Object result = null;
+			Throwable failure = null;
+			try {
+				switch (op.kind) {
+					case INSERT:
+						ds.insert((K) op.key, (V) op.value);
+						break;
+					case REMOVE:
+						result = ds.remove((K) op.key);
+						break;
+					case GET:
+						result = ds.get((K) op.key);
+						break;
+					case COPY:
+						result = copy();
+						break;
+					default:
+						result = ds.contains((K) op.key);
+				}
+				size = ds.size(); // publish before the caller can see the future complete
+			} catch (Throwable e) {
+				// Even an Error must not kill the owner, or every later caller waits forever
+				failure = e;
+			}
+
+			if (failure == null) {
+				op.future.complete(result);
+			} else {
+				op.future.completeExceptionally(failure);
+			}
+		}
+
+		/**
+		 * Copies every entry of the DS, on the owner thread
+		 *
+		 * @return keys in element 0 and their values in element 1
+		 */
+		private Object[][] copy() {
+			Object[][] entries = new Object[2][ds.size()];
+			DataStructureCursor<K, V> cursor = ds.cursor();
+			for (int i = 0; cursor.next(); i++) {
+				entries[0][i] = cursor.key();
+				entries[1][i] = cursor.value();
+			}
+			return entries;
+		}
+	}
+
+	// Inner class - cursor over copies of the shards, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<K, V> {
+		private int shard; // shard whose copy is being walked
+		private Object[][] entries; // copy of that shard, null before it is taken
+		private int index; // index of the entry in the copy, -1 before the first
+
+		/**
+		 * Cursor constructor, positioned before the first entry
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			while (shard < shards.length) {
+				if (entries == null) {
+					entries = (Object[][]) await(submit(shards[shard], Kind.COPY, null, null));
+					index = -1;
+				}
+				if (++index < entries[0].length) {
+					return true;
+				}
+				shard++;
+				entries = null;
+			}
+			return false;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public K key() {
+			return (K) on()[0][index];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V value() {
+			return (V) on()[1][index];
+		}
+
+		@Override
+		public void reset() {
+			shard = 0;
+			entries = null;
+		}
+
+		/**
+		 * @return the copy holding the entry the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on an entry
+		 */
+		private Object[][] on() {
+			if (entries == null || index < 0) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return entries;
+		}
+	}
+
+	// Most operations an owner applies per wake-up
+	public static final int MAX_BATCH = 256;
+
+	// Buckets of the batch size histogram, bucket i counts sizes in [2^i, 2^(i+1))
+	private static final int HISTOGRAM_BUCKETS = 32 - Integer.numberOfLeadingZeros(MAX_BATCH);
+
+	// Private Fields of the class
+	private final Shard[] shards; // length is a power of two
+	private final int shardShift; // 32 - log2(shards.length)
+	private final AtomicLongArray batchSizes; // histogram of batch sizes
+	private final AtomicLongArray totals; // batches, operations, max batch size, max queue depth
+	private volatile boolean closed;
+
+	/**
+	 * Construct a new, empty DS_Async and start its owner threads.
+	 *
+	 * @param numShards number of shards, each with its own owner thread, rounded up to a
+	 *            power of two
+	 * @param factory creates the empty DS backing each shard, which doesn't need to be
+	 *            thread-safe
+	 * @throws IllegalArgumentException if numShards is less than 1
+	 */
+	@SuppressWarnings("unchecked")
+	public DS_Async(int numShards, Supplier<? extends DataStructureADT<K, V>> factory) {
+		if (numShards < 1) {
+			throw new IllegalArgumentException("need at least one shard");
+		}
+		int n = Integer.highestOneBit(numShards);
+		if (n < numShards) {
+			n <<= 1;
+		}
+
+		shardShift = 32 - Integer.numberOfTrailingZeros(n);
+		batchSizes = new AtomicLongArray(HISTOGRAM_BUCKETS);
+		totals = new AtomicLongArray(4);
+		shards = (Shard[]) Array.newInstance(Shard.class, n); // no generic array creation
+		for (int i = 0; i < n; i++) {
+			shards[i] = new Shard(factory.get(), i);
+		}
+	}
+
+	/**
+	 * Queues an insert of the key,value pair.
+	 *
+	 * @param key key to insert
+	 * @param value value to insert, may be null
+	 * @return a future completed once the pair is inserted, or completed exceptionally with
+	 *         RuntimeException("duplicate key") if key is already in the data structure
+	 * @throws IllegalArgumentException("null key") if key is null
+	 * @throws IllegalStateException if close has been called
+	 */
+	@SuppressWarnings("unchecked")
+	public CompletableFuture<Void> insertAsync(K key, V value) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+		return (CompletableFuture<Void>) submit(shards[shardFor(key)], Kind.INSERT, key, value);
+	}
+
+	/**
+	 * Queues a remove of the key.
+	 *
+	 * @param key key to remove
+	 * @return a future of whether the key was found and removed
+	 * @throws IllegalArgumentException("null key") if key is null
+	 * @throws IllegalStateException if close has been called
+	 */
+	@SuppressWarnings("unchecked")
+	public CompletableFuture<Boolean> removeAsync(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+		return (CompletableFuture<Boolean>) submit(shards[shardFor(key)], Kind.REMOVE, key, null);
+	}
+
+	/**
+	 * Queues a lookup of the key.
+	 *
+	 * @param key key to look up
+	 * @return a future of the value associated with the key, or null if not found
+	 * @throws IllegalArgumentException("null key") if key is null
+	 * @throws IllegalStateException if close has been called
+	 */
+	@SuppressWarnings("unchecked")
+	public CompletableFuture<V> getAsync(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+		return (CompletableFuture<V>) submit(shards[shardFor(key)], Kind.GET, key, null);
+	}
+
+	/**
+	 * Queues a check for the key.
+	 *
+	 * @param key key to look for
+	 * @return a future of whether key is in the data structure, already complete with
+	 *         false if key is null
+	 * @throws IllegalStateException if close has been called
+	 */
+	@SuppressWarnings("unchecked")
+	public CompletableFuture<Boolean> containsAsync(K key) {
+		if (key == null) {
+			return CompletableFuture.completedFuture(false);
+		}
+		return (CompletableFuture<Boolean>) submit(shards[shardFor(key)], Kind.CONTAINS, key, null);
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(K key, V value) {
+		await(insertAsync(key, value));
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(K key) {
+		return await(removeAsync(key));
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public V get(K key) {
+		return await(getAsync(key));
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(K key) {
+		return await(containsAsync(key));
+	}
+
+	@Override
+	// Returns a cursor that copies each shard on its owner thread when it reaches the shard,
+	// so it sees every operation on that shard queued before then and none after
+	// The cursor never fails, since it only reads the copies
+	// Throws IllegalStateException from next if close has been called
+	public DataStructureCursor<K, V> cursor() {
+		return new Cursor();
+	}
+
+	@Override
+	// Returns the number of elements in the data structure, not counting queued operations
+	public int size() {
+		int size = 0;
+		for (Shard shard : shards) {
+			size += shard.size;
+		}
+		return size;
+	}
+
+	/**
+	 * Stops accepting operations, lets the owners finish what was queued before and waits
+	 * for them to exit. Operations racing with close may fail with IllegalStateException.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		for (Shard shard : shards) {
+			shard.queue.add(new Op(Kind.STOP, null, null));
+		}
+		boolean interrupted = false;
+		for (Shard shard : shards) {
+			while (shard.owner.isAlive()) {
+				try {
+					shard.owner.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return number of shards, numShards rounded up to a power of two
+	 */
+	public int shards() {
+		return shards.length;
+	}
+
+	/**
+	 * @return operations currently waiting in all queues, not counting batches being applied
+	 */
+	public int queueDepth() {
+		int depth = 0;
+		for (Shard shard : shards) {
+			depth += shard.queue.size();
+		}
+		return depth;
+	}
+
+	/**
+	 * @return most operations one shard had waiting when its owner started a batch
+	 */
+	public long maxQueueDepth() {
+		return totals.get(3);
+	}
+
+	/**
+	 * @return number of batches applied so far
+	 */
+	public long batches() {
+		return totals.get(0);
+	}
+
+	/**
+	 * @return number of operations applied so far in all batches
+	 */
+	public long batchedOperations() {
+		return totals.get(1);
+	}
+
+	/**
+	 * @return mean operations per batch, or 0 if there were none
+	 */
+	public double meanBatchSize() {
+		long batches = totals.get(0);
+		return batches == 0 ? 0 : totals.get(1) / (double) batches;
+	}
+
+	/**
+	 * @return size of the largest batch so far, at most MAX_BATCH
+	 */
+	public long maxBatchSize() {
+		return totals.get(2);
+	}
+
+	/**
+	 * @return histogram of batch sizes, element i counts batches of 2^i to 2^(i+1) - 1
+	 *         operations
+	 */
+	public long[] batchSizeHistogram() {
+		long[] histogram = new long[HISTOGRAM_BUCKETS];
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = batchSizes.get(i);
+		}
+		return histogram;
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Queues an operation on a shard, the one owning its key unless it has none
+	 *
+	 * @return the operation's future
+	 * @throws IllegalStateException if close has been called
+	 */
+	private CompletableFuture<?> submit(Shard shard, Kind kind, K key, V value) {
+		if (closed) {
+			throw new IllegalStateException("closed");
+		}
+		Op op = new Op(kind, key, value);
+		shard.queue.add(op);
+		// If close ran meanwhile, the owner may already be gone, take the op back and fail it
+		if (closed && shard.queue.remove(op)) {
+			op.future.completeExceptionally(new IllegalStateException("closed"));
+		}
+		return op.future;
+	}
+
+	/**
+	 * Updates the batch metrics, called by an owner for every batch
+	 *
+	 * @param size operations in the batch
+	 * @param depth operations waiting when the batch was taken, including the batch
+	 */
+	private void record(int size, int depth) {
+		batchSizes.incrementAndGet(31 - Integer.numberOfLeadingZeros(size));
+		totals.incrementAndGet(0);
+		totals.addAndGet(1, size);
+		raise(2, size);
+		raise(3, depth);
+	}
+
+	/**
+	 * Raises totals[i] to at least value
+	 */
+	private void raise(int i, long value) {
+		long max;
+		while ((max = totals.get(i)) < value && !totals.compareAndSet(i, max, value)) {
+			// retry
+		}
+	}
+
+	/**
+	 * Picks the shard from the top bits of a multiplicative hash, see DS_Striped.stripeFor
+	 *
+	 * @param K the non-null key
+	 * @return the shard K belongs to
+	 */
+	private int shardFor(K K) {
+		// With one shard the shift is 32, which Java treats as 0, so mask it away
+		return ((K.hashCode() * 0x9E3779B9) >>> shardShift) & (shards.length - 1);
+	}
+
+	/**
+	 * Waits for an operation, rethrowing the exception it failed with
+	 *
+	 * @param future future of the operation
+	 * @return its result
+	 */
+	private static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
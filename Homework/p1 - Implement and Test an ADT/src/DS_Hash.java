@@ -0,0 +1,352 @@
+import java.util.AbstractMap;
+import java.util.ConcurrentModificationException;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a DS using a hash table with separate chaining. Each bucket is a singly
+ * linked list of key-value pairs. Unlike DS_My, insert, remove, get and contains only walk
+ * the one bucket the key hashes to, so each operation is O(1) expected instead of O(n).
+ *
+ * Cursors and spliterators visit buckets in index order. A spliterator splits by halving its
+ * range of buckets, so parallel streams divide the table without copying anything.
+ */
+public class DS_Hash implements DataStructureADT< String, String > {
+
+	// Inner class - singly linked list node holding a key-value pair in a bucket
+	private static class Node {
+		private final String key;
+		private final int hash;
+		private String value;
+		private Node next;
+
+		/**
+		 * Node constructor
+		 *
+		 * @param K key
+		 * @param V value
+		 * @param hash cached hash code of K, so rehashing doesn't recompute it
+		 */
+		private Node(String K, String V, int hash) {
+			this.key = K;
+			this.value = V;
+			this.hash = hash;
+			this.next = null;
+		}
+	}
+
+	// Inner class - cursor walking the buckets in index order, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<String, String> {
+		private int index; // bucket of curr
+		private Node curr; // node the cursor is on, null before the first or after the last
+		private boolean started; // whether next has been called since the last reset
+		private int expectedModCount; // modCount when the cursor was last reset
+
+		/**
+		 * Cursor constructor, positioned before the first node
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!started) {
+				started = true;
+				index = -1;
+			} else if (curr != null) {
+				curr = curr.next;
+			}
+			// Move on to the next non-empty bucket
+			while (curr == null && index + 1 < table.length) {
+				curr = table[++index];
+			}
+			return curr != null;
+		}
+
+		@Override
+		public String key() {
+			return on().key;
+		}
+
+		@Override
+		public String value() {
+			return on().value;
+		}
+
+		@Override
+		public void reset() {
+			curr = null;
+			started = false;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * @return the node the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a node
+		 */
+		private Node on() {
+			if (curr == null) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return curr;
+		}
+	}
+
+	// Inner class - spliterator over the buckets in [index, fence)
+	private class BucketSpliterator implements Spliterator<Map.Entry<String, String>> {
+		private int index; // next bucket to start
+		private final int fence; // one past the last bucket
+		private Node curr; // next node to visit in bucket index - 1, or null
+		private final int expectedModCount; // modCount when the table was split
+		private long estimate; // estimated number of entries left
+
+		/**
+		 * BucketSpliterator constructor
+		 *
+		 * @param index first bucket
+		 * @param fence one past the last bucket
+		 * @param expectedModCount modCount of the table when the traversal started
+		 * @param estimate estimated number of entries in the buckets
+		 */
+		private BucketSpliterator(int index, int fence, int expectedModCount, long estimate) {
+			this.index = index;
+			this.fence = fence;
+			this.expectedModCount = expectedModCount;
+			this.estimate = estimate;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Map.Entry<String, String>> action) {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			while (curr == null && index < fence) {
+				curr = table[index++];
+			}
+			if (curr == null) {
+				return false;
+			}
+			Node node = curr;
+			curr = curr.next;
+			action.accept(new AbstractMap.SimpleImmutableEntry<>(node.key, node.value));
+			return true;
+		}
+
+		@Override
+		public Spliterator<Map.Entry<String, String>> trySplit() {
+			// Only split before starting a bucket, the prefix gets the lower half
+			int mid = (index + fence) >>> 1;
+			if (curr != null || mid <= index) {
+				return null;
+			}
+			int start = index;
+			index = mid;
+			estimate >>>= 1;
+			return new BucketSpliterator(start, mid, expectedModCount, estimate);
+		}
+
+		@Override
+		public long estimateSize() {
+			return estimate;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+	}
+
+	// The initial number of buckets in the table
+	private static final int DEFAULT_CAPACITY = 16;
+
+	// The ratio of elements/buckets at which the table is expanded
+	private static final double LOAD_FACTOR_THRESHOLD = 0.75;
+
+	// Private Fields of the class
+	private Node[] table; // buckets, length is always a power of two
+	private int numElements; // number of elements in table
+	private int threshold; // numElements at which the table is expanded
+	private int modCount; // number of structural modifications, for cursors and spliterators
+
+	/**
+	 * Construct a new DS_Hash with an empty table.
+	 */
+	public DS_Hash() {
+		this.table = new Node[DEFAULT_CAPACITY];
+		this.numElements = 0;
+		this.threshold = (int) (DEFAULT_CAPACITY * LOAD_FACTOR_THRESHOLD);
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(String key, String value) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int hash = hash(key);
+		int i = indexFor(hash, table.length);
+
+		// Walk the bucket only to detect a duplicate key
+		for (Node curr = table[i]; curr != null; curr = curr.next) {
+			if (curr.hash == hash && curr.key.equals(key)) {
+				throw new RuntimeException("duplicate key");
+			}
+		}
+
+		// Insert at head of the bucket
+		Node newNode = new Node(key, value, hash);
+		newNode.next = table[i];
+		table[i] = newNode;
+		this.modCount++;
+
+		if (++this.numElements > threshold) {
+			resize();
+		}
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int hash = hash(key);
+		int i = indexFor(hash, table.length);
+
+		// Unlink the node by pointing its predecessor (or the bucket) at its successor
+		Node prev = null;
+		for (Node curr = table[i]; curr != null; prev = curr, curr = curr.next) {
+			if (curr.hash == hash && curr.key.equals(key)) {
+				if (prev == null) {
+					table[i] = curr.next;
+				} else {
+					prev.next = curr.next;
+				}
+				this.numElements--;
+				this.modCount++;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public String get(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		Node node = find(key);
+		return node == null ? null : node.value;
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(String key) {
+		return key != null && find(key) != null;
+	}
+
+	@Override
+	// Returns the number of elements in the table
+	public int size() {
+		return this.numElements;
+	}
+
+	@Override
+	// Returns a cursor over the table, bucket by bucket
+	public DataStructureCursor<String, String> cursor() {
+		return new Cursor();
+	}
+
+	@Override
+	// Returns a spliterator over the table that splits by ranges of buckets
+	public Spliterator<Map.Entry<String, String>> spliterator() {
+		return new BucketSpliterator(0, table.length, modCount, numElements);
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Finds the node containing the specified key by walking only its bucket
+	 *
+	 * @param K the non-null string key to search for
+	 * @return the node containing K, or null if K is not present
+	 */
+	private Node find(String K) {
+		int hash = hash(K);
+		for (Node curr = table[indexFor(hash, table.length)]; curr != null; curr = curr.next) {
+			if (curr.hash == hash && curr.key.equals(K)) {
+				return curr;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Doubles the number of buckets and relinks every node into the new table. Nodes
+	 * are moved rather than re-inserted, so no duplicate checks or allocations happen.
+	 */
+	private void resize() {
+		Node[] oldTable = this.table;
+		Node[] newTable = new Node[oldTable.length * 2];
+
+		for (int i = 0; i < oldTable.length; i++) {
+			Node curr = oldTable[i];
+			while (curr != null) {
+				Node next = curr.next;
+				int j = indexFor(curr.hash, newTable.length);
+				curr.next = newTable[j];
+				newTable[j] = curr;
+				curr = next;
+			}
+		}
+
+		this.table = newTable;
+		this.threshold = (int) (newTable.length * LOAD_FACTOR_THRESHOLD);
+	}
+
+	/**
+	 * Spreads the higher bits of the key's hash code into the lower bits, since the
+	 * table index only uses the lower bits.
+	 *
+	 * @param K the key to hash
+	 * @return the spread hash code
+	 */
+	private static int hash(String K) {
+		int h = K.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the bucket index of a hash for a power of two table length
+	 *
+	 * @param hash the spread hash code
+	 * @param length the table length
+	 * @return index into the table
+	 */
+	private static int indexFor(int hash, int length) {
+		return hash & (length - 1);
+	}
+}
@@ -0,0 +1,385 @@
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Decorator that measures any DS while passing every call through to it. For each of
+ * insert, remove, get and contains it records how many calls were made, a histogram of
+ * how long they took and, if the DS can report them, how many key comparisons they made.
+ *
+ * The histograms are HDR-style: each power of two range of latencies is split into
+ * SUB_BUCKETS / 2 equal buckets, so any recorded latency is known to within about 3% from
+ * 1ns up to hours, in a fixed amount of memory. Recording is lock-free, a few atomic
+ * increments per operation. snapshot() copies the numbers without stopping anything, and
+ * snapshotAndReset() also starts a new interval without losing operations recorded while
+ * it runs.
+ *
+ * Timing is what costs: System.nanoTime() keeps the CPU from overlapping one call's cache
+ * misses with the next one's, which can make a 30ns lookup take 10 times as long. To leave
+ * the recorder on in production, pass sampleEvery > 1 so only about one call in
+ * sampleEvery is timed. Call and comparison counts are still exact, and the percentiles
+ * and mean of a random sample estimate the real ones.
+ *
+ * Comparison counts come from a supplier of the wrapped DS's running total, such as
+ * DS_My::comparisons. Each operation is charged the difference before and after it, which
+ * is exact as long as the DS isn't used by several threads at once.
+ *
+ * @param <K> The key must not be null and must be Comparable.
+ * @param <V> The data value associated with a given key.
+ */
+public class DS_Instrumented<K extends Comparable<K>, V> implements DataStructureADT<K, V> {
+
+	/**
+	 * The operations that are measured
+	 */
+	public enum Op {
+		INSERT, REMOVE, GET, CONTAINS
+	}
+
+	// Latencies below SUB_BUCKETS ns get a bucket each, above that every power of two
+	// range gets SUB_BUCKETS / 2 buckets
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int HALF = SUB_BUCKETS / 2;
+	private static final int NUM_BUCKETS = (63 - SUB_BUCKET_BITS) * HALF + SUB_BUCKETS;
+
+	private static final int NUM_OPS = Op.values().length;
+
+	// Private Fields of the class
+	private final DataStructureADT<K, V> ds; // the DS being measured
+	private final LongSupplier comparisons; // running total of ds's key comparisons, or null
+	private final int sampleEvery; // time about one call in sampleEvery
+	private final AtomicLongArray histograms; // NUM_BUCKETS counts per Op, by Op.ordinal()
+	private final AtomicLongArray totals; // per Op: calls, timed calls, nanoseconds, comparisons
+
+	/**
+	 * Construct a DS_Instrumented that doesn't count key comparisons.
+	 *
+	 * @param ds the DS to measure
+	 */
+	public DS_Instrumented(DataStructureADT<K, V> ds) {
+		this(ds, null);
+	}
+
+	/**
+	 * Construct a DS_Instrumented that also counts key comparisons.
+	 *
+	 * @param ds the DS to measure
+	 * @param comparisons returns the number of key comparisons ds has made so far, or null
+	 *            not to count them
+	 */
+	public DS_Instrumented(DataStructureADT<K, V> ds, LongSupplier comparisons) {
+		this(ds, comparisons, 1);
+	}
+
+	/**
+	 * Construct a DS_Instrumented that only times a random sample of calls.
+	 *
+	 * @param ds the DS to measure
+	 * @param comparisons returns the number of key comparisons ds has made so far, or null
+	 *            not to count them
+	 * @param sampleEvery time about one call in sampleEvery, 1 to time every call
+	 */
+	public DS_Instrumented(DataStructureADT<K, V> ds, LongSupplier comparisons, int sampleEvery) {
+		if (ds == null) {
+			throw new IllegalArgumentException("null data structure");
+		}
+		if (sampleEvery < 1) {
+			throw new IllegalArgumentException("sampleEvery must be at least 1");
+		}
+		this.ds = ds;
+		this.comparisons = comparisons;
+		this.sampleEvery = sampleEvery;
+		this.histograms = new AtomicLongArray(NUM_OPS * NUM_BUCKETS);
+		this.totals = new AtomicLongArray(NUM_OPS * 4);
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(K key, V value) {
+		long comparisonsBefore = comparisons();
+		boolean timed = sample();
+		long start = timed ? System.nanoTime() : 0;
+		try {
+			ds.insert(key, value);
+		} finally {
+			record(Op.INSERT, timed, start, comparisonsBefore);
+		}
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(K key) {
+		long comparisonsBefore = comparisons();
+		boolean timed = sample();
+		long start = timed ? System.nanoTime() : 0;
+		try {
+			return ds.remove(key);
+		} finally {
+			record(Op.REMOVE, timed, start, comparisonsBefore);
+		}
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public V get(K key) {
+		long comparisonsBefore = comparisons();
+		boolean timed = sample();
+		long start = timed ? System.nanoTime() : 0;
+		try {
+			return ds.get(key);
+		} finally {
+			record(Op.GET, timed, start, comparisonsBefore);
+		}
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(K key) {
+		long comparisonsBefore = comparisons();
+		boolean timed = sample();
+		long start = timed ? System.nanoTime() : 0;
+		try {
+			return ds.contains(key);
+		} finally {
+			record(Op.CONTAINS, timed, start, comparisonsBefore);
+		}
+	}
+
+	@Override
+	// Returns the number of elements in the data structure
+	public int size() {
+		return ds.size();
+	}
+
+	@Override
+	// Returns the wrapped DS's cursor, iteration is not measured
+	public DataStructureCursor<K, V> cursor() {
+		return ds.cursor();
+	}
+
+	@Override
+	// Returns the wrapped DS's spliterator, iteration is not measured
+	public Spliterator<Map.Entry<K, V>> spliterator() {
+		return ds.spliterator();
+	}
+
+	/**
+	 * @return a copy of everything recorded so far
+	 */
+	public Snapshot snapshot() {
+		return copy(false);
+	}
+
+	/**
+	 * Copies everything recorded so far and starts over from zero. Each counter is read and
+	 * cleared in one atomic step, so an operation that finishes meanwhile is counted either
+	 * in this snapshot or in the next one, never lost.
+	 *
+	 * @return a copy of everything recorded since construction or the last reset
+	 */
+	public Snapshot snapshotAndReset() {
+		return copy(true);
+	}
+
+	/**
+	 * Immutable copy of the recorded numbers. Latencies are in nanoseconds.
+	 */
+	public static final class Snapshot {
+		private final long[] histograms;
+		private final long[] totals;
+
+		private Snapshot(long[] histograms, long[] totals) {
+			this.histograms = histograms;
+			this.totals = totals;
+		}
+
+		/**
+		 * @param op the operation
+		 * @return number of calls of op, including ones that threw an exception
+		 */
+		public long count(Op op) {
+			return totals[op.ordinal() * 4];
+		}
+
+		/**
+		 * @param op the operation
+		 * @return number of calls of op that were timed, the same as count(op) unless
+		 *         timing is sampled
+		 */
+		public long timedCount(Op op) {
+			return totals[op.ordinal() * 4 + 1];
+		}
+
+		/**
+		 * @param op the operation
+		 * @return mean latency of the timed calls of op, or 0 if none were timed
+		 */
+		public double meanNanos(Op op) {
+			long count = timedCount(op);
+			return count == 0 ? 0 : totals[op.ordinal() * 4 + 2] / (double) count;
+		}
+
+		/**
+		 * @param op the operation
+		 * @return total key comparisons made by calls of op, 0 if they aren't counted
+		 */
+		public long comparisons(Op op) {
+			return totals[op.ordinal() * 4 + 3];
+		}
+
+		/**
+		 * @param op the operation
+		 * @return mean key comparisons per call of op, or 0 if it wasn't called
+		 */
+		public double comparisonsPerCall(Op op) {
+			long count = count(op);
+			return count == 0 ? 0 : comparisons(op) / (double) count;
+		}
+
+		/**
+		 * @param op the operation
+		 * @param percentile between 0 and 100, e.g. 50 for the median or 99.9
+		 * @return the latency that percentile of op's timed calls took at most, rounded up
+		 *         to the top of its histogram bucket, or 0 if none were timed
+		 */
+		public long percentileNanos(Op op, double percentile) {
+			if (percentile < 0 || percentile > 100) {
+				throw new IllegalArgumentException("percentile must be between 0 and 100");
+			}
+			long count = timedCount(op);
+			if (count == 0) {
+				return 0;
+			}
+			// The rank-th smallest latency, at least the first
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+			int offset = op.ordinal() * NUM_BUCKETS;
+			long seen = 0;
+			for (int b = 0; b < NUM_BUCKETS; b++) {
+				seen += histograms[offset + b];
+				if (seen >= rank) {
+					return highestInBucket(b);
+				}
+			}
+			return highestInBucket(NUM_BUCKETS - 1);
+		}
+
+		/**
+		 * @param op the operation
+		 * @return the longest timed latency of op, rounded up to the top of its bucket
+		 */
+		public long maxNanos(Op op) {
+			return percentileNanos(op, 100);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(String.format("%-10s%12s%12s%12s%12s%12s%14s%n", "op",
+					"count", "mean ns", "p50 ns", "p99 ns", "max ns", "comparisons"));
+			for (Op op : Op.values()) {
+				sb.append(String.format("%-10s%12d%12.1f%12d%12d%12d%14.1f%n", op, count(op), meanNanos(op),
+						percentileNanos(op, 50), percentileNanos(op, 99), maxNanos(op),
+						comparisonsPerCall(op)));
+			}
+			return sb.toString();
+		}
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * @return the wrapped DS's comparison total, or 0 if comparisons aren't counted
+	 */
+	private long comparisons() {
+		return comparisons == null ? 0 : comparisons.getAsLong();
+	}
+
+	/**
+	 * @return true if the next call should be timed
+	 */
+	private boolean sample() {
+		return sampleEvery == 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+	}
+
+	/**
+	 * Records one finished call
+	 *
+	 * @param op the operation that was called
+	 * @param timed true if the call was timed
+	 * @param start System.nanoTime() when the call started, if it was timed
+	 * @param comparisonsBefore comparisons() when the call started
+	 */
+	private void record(Op op, boolean timed, long start, long comparisonsBefore) {
+		int o = op.ordinal();
+		if (timed) {
+			long nanos = System.nanoTime() - start;
+			histograms.incrementAndGet(o * NUM_BUCKETS + bucketOf(nanos));
+			totals.incrementAndGet(o * 4 + 1);
+			totals.addAndGet(o * 4 + 2, nanos);
+		}
+		totals.incrementAndGet(o * 4);
+		if (comparisons != null) {
+			totals.addAndGet(o * 4 + 3, comparisons() - comparisonsBefore);
+		}
+	}
+
+	/**
+	 * @param reset true to clear each counter as it is copied
+	 * @return copy of all counters
+	 */
+	private Snapshot copy(boolean reset) {
+		long[] h = new long[histograms.length()];
+		for (int i = 0; i < h.length; i++) {
+			h[i] = reset ? histograms.getAndSet(i, 0) : histograms.get(i);
+		}
+		long[] t = new long[totals.length()];
+		for (int i = 0; i < t.length; i++) {
+			t[i] = reset ? totals.getAndSet(i, 0) : totals.get(i);
+		}
+		return new Snapshot(h, t);
+	}
+
+	/**
+	 * Finds the histogram bucket of a latency. Below SUB_BUCKETS every value has its own
+	 * bucket. Above it, a value whose highest set bit is bit SUB_BUCKET_BITS - 1 + e goes
+	 * into one of HALF buckets for that power of two, picked by the bits below the highest.
+	 *
+	 * @param nanos the latency, negative values count as 0
+	 * @return the bucket index, from 0 to NUM_BUCKETS - 1
+	 */
+	static int bucketOf(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) Math.max(0, nanos);
+		}
+		int e = (63 - Long.numberOfLeadingZeros(nanos)) - (SUB_BUCKET_BITS - 1);
+		return e * HALF + (int) (nanos >>> e);
+	}
+
+	/**
+	 * @param bucket a bucket index
+	 * @return the largest latency that goes into that bucket
+	 */
+	static long highestInBucket(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int e = bucket / HALF - 1;
+		long sub = bucket - e * HALF; // from HALF to SUB_BUCKETS - 1
+		return ((sub + 1) << e) - 1;
+	}
+}
@@ -0,0 +1,608 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a DS that persists its key-value pairs in two memory-mapped files, so a
+ * store can be closed and reopened later without reloading anything.
+ *
+ * The data file is an append-only log of UTF-8 records after a small header:
+ *
+ *     [int magic][int committed end][record][record]...
+ *     record = [int keyLength][int valueLength, -1 if null][key bytes][value bytes]
+ *
+ * The index file ("<data file>.idx") is an open-addressing hash table kept on disk:
+ *
+ *     [int magic][int number of slots][slot][slot]...
+ *     slot = [int record offset, 0 if empty, -1 if removed][int key hash]
+ *
+ * Reopening a store only maps the two files and counts the live slots, so it does no
+ * parsing and allocates nothing per entry.
+ *
+ * Writes are ordered so that a crash at any point leaves a consistent store. An insert
+ * first appends its record past the committed end, then moves the committed end, and only
+ * then publishes the record offset into its slot with a single aligned int write. A remove
+ * is a single int write that marks the slot removed. Growing the index writes a new index
+ * file and atomically renames it over the old one. Creating a store writes the index before
+ * the data header, and a data file whose header was never written is created again. When
+ * the store is durable (the default) each of those steps is also forced to disk, so the
+ * ordering survives a power loss and not only a crash of the JVM.
+ *
+ * Removed records stay in the data file. The store is limited to 2 GB of records. Cursors
+ * walk the index in slot order and, like get, decode new Strings for every key and value.
+ */
+public class DS_Mapped implements DataStructureADT< String, String >, AutoCloseable {
+
+	private static final int DATA_MAGIC = 0x44534d44; // "DSMD"
+	private static final int INDEX_MAGIC = 0x44534d49; // "DSMI"
+
+	private static final int HEADER_BYTES = 2 * Integer.BYTES;
+	private static final int SLOT_BYTES = 2 * Integer.BYTES;
+	private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+	// Slot offsets marking an empty or removed slot. Real offsets are always >= HEADER_BYTES.
+	private static final int EMPTY = 0;
+	private static final int DELETED = -1;
+
+	// Value length stored for a null value
+	private static final int NULL_VALUE = -1;
+
+	private static final int DEFAULT_DATA_BYTES = 1 << 16;
+	private static final int DEFAULT_INDEX_SLOTS = 1 << 10;
+
+	// Inner class - fail-fast cursor over the index in slot order, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<String, String> {
+		private int slot; // slot of the record the cursor is on, -1 before the first
+		private boolean on; // whether the cursor is on a record
+		private int expectedModCount; // modCount when the cursor was last reset
+
+		/**
+		 * Cursor constructor, positioned before the first record
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			checkOpen();
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			do {
+				slot = Math.min(slot + 1, slots);
+			} while (slot < slots && slotOffset(slot) <= EMPTY);
+			on = slot < slots;
+			return on;
+		}
+
+		@Override
+		public String key() {
+			return readKey(on());
+		}
+
+		@Override
+		public String value() {
+			return readValue(on());
+		}
+
+		@Override
+		public void reset() {
+			slot = -1;
+			on = false;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * @return offset of the record the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a record
+		 */
+		private int on() {
+			if (!on) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			checkOpen();
+			return slotOffset(slot);
+		}
+	}
+
+	// Private Fields of the class
+	private final Path dataPath;
+	private final Path indexPath;
+	private final boolean durable; // force every write to disk before the next step
+	private FileChannel dataChannel;
+	private FileChannel indexChannel;
+	private MappedByteBuffer data; // null once closed
+	private MappedByteBuffer index;
+	private int dataEnd; // committed end of the record log
+	private int slots; // number of slots in the index
+	private int numElements; // number of live pairs
+	private int usedSlots; // live plus removed slots, drives index resizing
+	private int modCount; // number of structural modifications, for cursors
+
+	/**
+	 * Opens the store at path, creating it if it doesn't exist. Every write is forced to
+	 * disk.
+	 *
+	 * @param path the data file; the index is kept next to it in path + ".idx"
+	 * @throws IOException if the files can't be created, read or mapped
+	 */
+	public DS_Mapped(Path path) throws IOException {
+		this(path, true);
+	}
+
+	/**
+	 * Opens the store at path, creating it if it doesn't exist.
+	 *
+	 * @param path the data file; the index is kept next to it in path + ".idx"
+	 * @param durable true to force every write to disk, false to only survive JVM crashes
+	 * @throws IOException if the files can't be created, read or mapped, or if they aren't
+	 * a store written by this class
+	 */
+	public DS_Mapped(Path path, boolean durable) throws IOException {
+		this.dataPath = path;
+		this.indexPath = Paths.get(path.toString() + ".idx");
+		this.durable = durable;
+
+		// A leftover temporary index means a crash happened mid-resize, the old one is intact
+		Files.deleteIfExists(tempIndexPath());
+
+		this.dataChannel = FileChannel.open(dataPath, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long size = dataChannel.size();
+			this.data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+			// A zero magic means a crash while the store was being created, before its header
+			// was written, so it holds nothing and is created again
+			if (size > 0 && (size < HEADER_BYTES || data.getInt(0) != 0)) {
+				if (size < HEADER_BYTES || data.getInt(0) != DATA_MAGIC) {
+					throw new IOException("not a DS_Mapped data file: " + dataPath);
+				}
+				this.dataEnd = data.getInt(Integer.BYTES);
+				openIndex();
+			} else {
+				// The index goes first: a data header without an index could never be reopened
+				DirectBuffers.release(createIndex(indexPath, DEFAULT_INDEX_SLOTS));
+				MappedByteBuffer empty = data;
+				this.data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+						Math.max(size, DEFAULT_DATA_BYTES));
+				DirectBuffers.release(empty);
+				this.dataEnd = HEADER_BYTES;
+				data.putInt(Integer.BYTES, dataEnd);
+				data.putInt(0, DATA_MAGIC);
+				force(data);
+				openIndex();
+			}
+		} catch (IOException | RuntimeException e) {
+			// Don't leak whatever was opened or mapped before the failure
+			try {
+				if (data == null) {
+					dataChannel.close();
+				} else {
+					close();
+				}
+			} catch (IOException | RuntimeException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(String key, String value) {
+		checkOpen();
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		int hash = hash(key);
+		if (findSlot(keyBytes, hash) >= 0) {
+			throw new RuntimeException("duplicate key");
+		}
+
+		try {
+			if ((usedSlots + 1) * 2 > slots) {
+				resizeIndex(numElements * 2 + 2 > slots ? slots * 2 : slots);
+			}
+
+			// 1. Append the record past the committed end, invisible to readers
+			byte[] valueBytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+			int length = RECORD_HEADER_BYTES + keyBytes.length + (valueBytes == null ? 0 : valueBytes.length);
+			ensureDataCapacity(length);
+			int offset = dataEnd;
+			data.putInt(offset, keyBytes.length);
+			data.putInt(offset + Integer.BYTES, valueBytes == null ? NULL_VALUE : valueBytes.length);
+			data.put(offset + RECORD_HEADER_BYTES, keyBytes);
+			if (valueBytes != null) {
+				data.put(offset + RECORD_HEADER_BYTES + keyBytes.length, valueBytes);
+			}
+
+			// 2. Commit the record by moving the end past it
+			dataEnd += length;
+			data.putInt(Integer.BYTES, dataEnd);
+			force(data);
+
+			// 3. Publish it in the index, the offset is written last
+			int i = hash & (slots - 1);
+			while (slotOffset(i) > EMPTY) {
+				i = (i + 1) & (slots - 1);
+			}
+			if (slotOffset(i) == EMPTY) {
+				usedSlots++;
+			}
+			index.putInt(slotPosition(i) + Integer.BYTES, hash);
+			index.putInt(slotPosition(i), offset);
+			force(index);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		numElements++;
+		modCount++;
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(String key) {
+		checkOpen();
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int slot = findSlot(key.getBytes(StandardCharsets.UTF_8), hash(key));
+		if (slot < 0) {
+			return false;
+		}
+
+		index.putInt(slotPosition(slot), DELETED);
+		force(index);
+		numElements--;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public String get(String key) {
+		checkOpen();
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int slot = findSlot(key.getBytes(StandardCharsets.UTF_8), hash(key));
+		return slot < 0 ? null : readValue(slotOffset(slot));
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(String key) {
+		checkOpen();
+		if (key == null) {
+			return false;
+		}
+		return findSlot(key.getBytes(StandardCharsets.UTF_8), hash(key)) >= 0;
+	}
+
+	@Override
+	// Returns the number of elements in the data structure
+	public int size() {
+		return this.numElements;
+	}
+
+	/**
+	 * Forces any outstanding writes to disk, unmaps both files and closes them. Calling
+	 * close more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if (data == null) {
+			return;
+		}
+		try {
+			if (index != null) {
+				index.force();
+				DirectBuffers.release(index);
+			}
+			data.force();
+			DirectBuffers.release(data);
+			if (indexChannel != null) {
+				indexChannel.close();
+			}
+			dataChannel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			data = null;
+			index = null;
+			modCount++;
+		}
+	}
+
+	@Override
+	// Returns a cursor over the pairs in index slot order
+	public DataStructureCursor<String, String> cursor() {
+		checkOpen();
+		return new Cursor();
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Finds the index slot of the record whose key matches
+	 *
+	 * @param keyBytes UTF-8 encoding of the key
+	 * @param hash spread hash of the key
+	 * @return the slot, or -1 if the key is not present
+	 */
+	private int findSlot(byte[] keyBytes, int hash) {
+		int mask = slots - 1;
+		int i = hash & mask;
+
+		// Removed slots are skipped, only an empty slot ends the probe
+		int offset;
+		while ((offset = slotOffset(i)) != EMPTY) {
+			if (offset > EMPTY && index.getInt(slotPosition(i) + Integer.BYTES) == hash
+					&& keyEquals(offset, keyBytes)) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares the key of the record at offset to keyBytes without copying it out
+	 *
+	 * @param offset record offset in the data file
+	 * @param keyBytes UTF-8 encoded key to compare against
+	 * @return true if the keys are byte for byte equal
+	 */
+	private boolean keyEquals(int offset, byte[] keyBytes) {
+		if (data.getInt(offset) != keyBytes.length) {
+			return false;
+		}
+		int start = offset + RECORD_HEADER_BYTES;
+		for (int i = 0; i < keyBytes.length; i++) {
+			if (data.get(start + i) != keyBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the key of the record at offset
+	 *
+	 * @param offset record offset in the data file
+	 * @return the key
+	 */
+	private String readKey(int offset) {
+		byte[] keyBytes = new byte[data.getInt(offset)];
+		data.get(offset + RECORD_HEADER_BYTES, keyBytes);
+		return new String(keyBytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decodes the value of the record at offset
+	 *
+	 * @param offset record offset in the data file
+	 * @return the value, or null if a null value was stored
+	 */
+	private String readValue(int offset) {
+		int keyLength = data.getInt(offset);
+		int valueLength = data.getInt(offset + Integer.BYTES);
+		if (valueLength == NULL_VALUE) {
+			return null;
+		}
+
+		byte[] valueBytes = new byte[valueLength];
+		data.get(offset + RECORD_HEADER_BYTES + keyLength, valueBytes);
+		return new String(valueBytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param i slot number
+	 * @return byte position of the slot in the index file
+	 */
+	private static int slotPosition(int i) {
+		return HEADER_BYTES + i * SLOT_BYTES;
+	}
+
+	/**
+	 * @param i slot number
+	 * @return record offset stored in the slot, EMPTY or DELETED
+	 */
+	private int slotOffset(int i) {
+		return index.getInt(slotPosition(i));
+	}
+
+	/**
+	 * Maps the index file and counts its live and removed slots. On failure the caller
+	 * must close the store.
+	 *
+	 * @throws IOException if the index is missing, can't be mapped or isn't an index file
+	 */
+	private void openIndex() throws IOException {
+		this.indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long size = indexChannel.size();
+		this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		if (size < HEADER_BYTES || index.getInt(0) != INDEX_MAGIC) {
+			throw new IOException("not a DS_Mapped index file: " + indexPath);
+		}
+		this.slots = index.getInt(Integer.BYTES);
+		if (Integer.bitCount(slots) != 1 || size < HEADER_BYTES + (long) slots * SLOT_BYTES) {
+			throw new IOException("not a DS_Mapped index file: " + indexPath);
+		}
+
+		this.numElements = 0;
+		this.usedSlots = 0;
+		for (int i = 0; i < slots; i++) {
+			int offset = slotOffset(i);
+			if (offset != EMPTY) {
+				usedSlots++;
+				if (offset > EMPTY) {
+					numElements++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes an empty index file with the given number of slots
+	 *
+	 * @param path where to write it
+	 * @param numSlots number of slots, a power of two
+	 * @return the mapped index, the caller must release it
+	 * @throws IOException if the file can't be written
+	 */
+	private MappedByteBuffer createIndex(Path path, int numSlots) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer newIndex = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					slotPosition(numSlots));
+			newIndex.putInt(0, INDEX_MAGIC);
+			newIndex.putInt(Integer.BYTES, numSlots);
+			force(newIndex);
+			return newIndex;
+		}
+	}
+
+	/**
+	 * Rebuilds the index with the given number of slots in a temporary file, then
+	 * atomically renames it over the current index. Removed slots are dropped.
+	 *
+	 * @param numSlots new number of slots, a power of two
+	 * @throws IOException if the new index can't be written or renamed
+	 */
+	private void resizeIndex(int numSlots) throws IOException {
+		Path tempPath = tempIndexPath();
+		MappedByteBuffer newIndex = createIndex(tempPath, numSlots);
+
+		int mask = numSlots - 1;
+		for (int j = 0; j < slots; j++) {
+			int offset = slotOffset(j);
+			if (offset > EMPTY) {
+				int hash = index.getInt(slotPosition(j) + Integer.BYTES);
+				int i = hash & mask;
+				while (newIndex.getInt(slotPosition(i)) != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				newIndex.putInt(slotPosition(i) + Integer.BYTES, hash);
+				newIndex.putInt(slotPosition(i), offset);
+			}
+		}
+		force(newIndex);
+
+		// Rename the new index into place while the old one is still mapped, so a failure
+		// leaves this store on the old index. The new mapping stays valid across the rename.
+		FileChannel newChannel = null;
+		try {
+			newChannel = FileChannel.open(tempPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			Files.move(tempPath, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | RuntimeException e) {
+			if (newChannel != null) {
+				newChannel.close();
+			}
+			DirectBuffers.release(newIndex);
+			Files.deleteIfExists(tempPath);
+			throw e;
+		}
+
+		// Only release the old index once the new one is in use
+		MappedByteBuffer oldIndex = index;
+		FileChannel oldChannel = indexChannel;
+		index = newIndex;
+		indexChannel = newChannel;
+		slots = numSlots;
+		usedSlots = numElements; // removed slots were dropped
+		DirectBuffers.release(oldIndex);
+		oldChannel.close();
+	}
+
+	/**
+	 * Doubles the mapping of the data file until length more bytes fit past the end
+	 *
+	 * @param length number of bytes about to be appended
+	 * @throws IOException if the file can't be extended or remapped
+	 */
+	private void ensureDataCapacity(int length) throws IOException {
+		if ((long) dataEnd + length <= data.capacity()) {
+			return;
+		}
+
+		long newCapacity = data.capacity();
+		while (newCapacity < (long) dataEnd + length) {
+			newCapacity *= 2;
+		}
+		if (newCapacity > Integer.MAX_VALUE) {
+			throw new IOException("data file is full: " + dataPath);
+		}
+
+		// Map the larger buffer before releasing the old one, so a failure leaves data usable
+		force(data);
+		MappedByteBuffer oldData = data;
+		data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+		DirectBuffers.release(oldData);
+	}
+
+	/**
+	 * @return path of the index being written during a resize
+	 */
+	private Path tempIndexPath() {
+		return Paths.get(indexPath.toString() + ".tmp");
+	}
+
+	/**
+	 * Forces buffer to disk if this store is durable
+	 *
+	 * @param buffer a mapping of the data or index file
+	 */
+	private void force(MappedByteBuffer buffer) {
+		if (durable) {
+			buffer.force();
+		}
+	}
+
+	/**
+	 * Spreads the higher bits of the key's hash code into the lower bits
+	 *
+	 * @param K the key to hash
+	 * @return the spread hash code
+	 */
+	private static int hash(String K) {
+		int h = K.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @throws IllegalStateException if close() has been called
+	 */
+	private void checkOpen() {
+		if (data == null) {
+			throw new IllegalStateException("closed");
+		}
+	}
+}
@@ -1,3 +1,5 @@
+import java.util.ConcurrentModificationException;
+
 /**
  * @author Wilson Tjoeng
  * tjoeng@wisc.edu
@@ -5,6 +7,11 @@
  * Due: 9/30/21 
  *
  * Implementation of a DS using a doubly linked list where each node holds a key-value pair.
+ * 
+ * A list can be made self-organizing by constructing it with an Order other than INSERTION.
+ * Then get and contains move the key they find toward the head, so frequently looked up keys
+ * are found after fewer comparisons. Lookups then modify the list, so a self-organizing list
+ * must not be read by several threads at once, even if nothing else writes to it.
  */
 public class DS_My implements DataStructureADT< String, String > {
 	
@@ -28,16 +35,99 @@ public class DS_My implements DataStructureADT< String, String > {
 			this.prev = null;
 		}
 	}
+	
+	// Inner class - cursor walking the list from head, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<String, String> {
+		private Node curr; // node the cursor is on, null before the first or after the last
+		private boolean started; // whether next has been called since the last reset
+		private int expectedModCount; // modCount when the cursor was last reset
+		
+		/**
+		 * Cursor constructor, positioned before the first node
+		 */
+		private Cursor() {
+			reset();
+		}
+		
+		@Override
+		public boolean next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!started) {
+				started = true;
+				curr = head;
+			} else if (curr != null) {
+				curr = curr.next;
+			}
+			return curr != null;
+		}
+		
+		@Override
+		public String key() {
+			return on().key;
+		}
+		
+		@Override
+		public String value() {
+			return on().value;
+		}
+		
+		@Override
+		public void reset() {
+			curr = null;
+			started = false;
+			expectedModCount = modCount;
+		}
+		
+		/**
+		 * @return the node the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a node
+		 */
+		private Node on() {
+			if (curr == null) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return curr;
+		}
+	}
+	
+	/**
+	 * How a list reorders itself when get or contains finds a key.
+	 */
+	public enum Order {
+		INSERTION, // never reorder, keys stay in the order they were inserted
+		MOVE_TO_FRONT, // move the key found to the head of the list
+		TRANSPOSE // swap the key found with the key before it
+	}
+	
     // Private Fields of the class
 	private int numElements; // number of elements in list
 	private Node head; // start of linked list
+	private long comparisons; // number of key comparisons made so far
+	private final Order order; // how lookups reorder the list
+	private int modCount; // number of structural modifications, including reorders, for cursors
 	
 	/**
-	 * Construct a new DS_My list with a null head node.
+	 * Construct a new DS_My list with a null head node that keeps keys in insertion order.
 	 */
     public DS_My() {
+    	this(Order.INSERTION);
+    }
+    
+	/**
+	 * Construct a new DS_My list with a null head node that reorders itself on lookups.
+	 * 
+	 * @param order how get and contains reorder the list
+	 * @throws IllegalArgumentException if order is null
+	 */
+    public DS_My(Order order) {
+    	if (order == null) {
+    		throw new IllegalArgumentException("null order");
+    	}
     	numElements = 0;
     	head = null;
+    	this.order = order;
     }
 
 	@Override
@@ -47,14 +137,15 @@ public class DS_My implements DataStructureADT< String, String > {
     // If key is already in data structure, throws RuntimeException("duplicate key");
     // can accept and insert null values
 	public void insert(String key, String value) {
-		if (this.contains(key)) {
-			throw new RuntimeException("duplicate key");
-		}
-		
 		if (key == null) {
 			throw new IllegalArgumentException("null key");
 		}
 		
+		// Not contains, so checking for a duplicate doesn't reorder the list
+		if (find(key) != null) {
+			throw new RuntimeException("duplicate key");
+		}
+		
 		Node newNode = new Node(key,value);
 		
 		// Insert new node at head if empty or end of list if not
@@ -67,6 +158,7 @@ public class DS_My implements DataStructureADT< String, String > {
 			
 		}
 		this.numElements++;
+		this.modCount++;
 	}
 
 	@Override
@@ -79,31 +171,12 @@ public class DS_My implements DataStructureADT< String, String > {
 			throw new IllegalArgumentException("null key");
 		}
 		
-		
-		if (!this.contains(key) || this.size() == 0) {
-			return false;
-		}
-		
 		Node curr = find(key);
-		
-		// Delete head if found in beginning
-		if (this.head.key.equals(curr.key)) {
-			this.head = this.head.next;
-			// Update previous pointer if needed 
-			if (this.size() > 1) {
-				this.head.prev = null;
-			}
-			// Node is found after
-			// Delete node by linking previous to next and next to previous
-		} else {
-			curr.prev.next = curr.next;
-			// If deleting tail, then stop here
-			if (curr.next != null) {
-				curr.next.prev = curr.prev;
-			}
+		if (curr == null) {
+			return false;
 		}
 		
-		this.numElements--;
+		unlink(curr);
 		return true;
 	}
 
@@ -117,20 +190,16 @@ public class DS_My implements DataStructureADT< String, String > {
 			throw new IllegalArgumentException("null key");
 		}
 		
-		// If key is not found
-		if (!contains(key)) {
-			return null;
-		}
-		
-		// Else find node and return value
-		return find(key).value;
+		// Find node in a single pass and return value, or null if key is not found
+		Node curr = lookup(key);
+		return curr == null ? null : curr.value;
 	}
 
 	@Override
     // Returns true if the key is in the data structure
     // Returns false if key is null or not present
 	public boolean contains(String key) {
-		if (key == null || find(key) == null) {
+		if (key == null || lookup(key) == null) {
 			return false;
 		}
 
@@ -142,7 +211,118 @@ public class DS_My implements DataStructureADT< String, String > {
 	public int size() {
 		return this.numElements;
 	}
+	
+	@Override
+	// Inserts every keys[i],values[i] pair at end of list, in order
+	// Hashes the batch once, checks it against every node in a single pass over the list,
+	// which also finds the last node, then links the whole batch after it
+	// If the arrays differ in length or a key is null, throws IllegalArgumentException
+	// If a key is already in list or appears twice in keys, throws RuntimeException("duplicate key")
+	// Nothing is inserted if an exception is thrown
+	public void insertAll(String[] keys, String[] values) {
+		checkBatch(keys, values);
+		int[] table = probeTable(keys, true);
+		
+		Node last = null;
+		for (Node curr = this.head; curr != null; curr = curr.next) {
+			this.comparisons++;
+			if (indexOf(table, keys, curr.key) >= 0) {
+				throw new RuntimeException("duplicate key");
+			}
+			last = curr;
+		}
+		
+		for (int i = 0; i < keys.length; i++) {
+			Node newNode = new Node(keys[i], values[i]);
+			if (last == null) {
+				this.head = newNode;
+			} else {
+				last.next = newNode;
+				newNode.prev = last;
+			}
+			last = newNode;
+		}
+		this.numElements += keys.length;
+		this.modCount++;
+	}
+	
+	@Override
+	// Stores the value associated with keys[i] in values[i], or null if keys[i] is not found
+	// Hashes the batch once, then walks the list once, stopping when every key is found
+	// Does not reorder a self-organizing list
+	// If the arrays differ in length or a key is null, throws IllegalArgumentException
+	public void getAll(String[] keys, String[] values) {
+		checkBatch(keys, values);
+		int[] table = probeTable(keys, false);
+		int remaining = distinct(table);
+		
+		// Fill in the first occurrence of every key
+		for (int i = 0; i < values.length; i++) {
+			values[i] = null;
+		}
+		for (Node curr = this.head; curr != null && remaining > 0; curr = curr.next) {
+			this.comparisons++;
+			int i = indexOf(table, keys, curr.key);
+			if (i >= 0) {
+				values[i] = curr.value;
+				remaining--;
+			}
+		}
+		
+		// Then copy it to later occurrences
+		for (int i = 0; i < keys.length; i++) {
+			int first = indexOf(table, keys, keys[i]);
+			if (first != i) {
+				values[i] = values[first];
+			}
+		}
+	}
+	
+	@Override
+	// Removes every key in keys that is found and decreases size accordingly
+	// Returns an array where element i is true if keys[i] was removed, only the first
+	// occurrence of a key that appears twice is reported
+	// Hashes the batch once, then walks the list once, stopping when every key is removed
+	// If a key is null, throws IllegalArgumentException("null key") and nothing is removed
+	public boolean[] removeAll(String[] keys) {
+		checkBatch(keys, keys);
+		int[] table = probeTable(keys, false);
+		int remaining = distinct(table);
+		
+		boolean[] removed = new boolean[keys.length];
+		Node curr = this.head;
+		while (curr != null && remaining > 0) {
+			this.comparisons++;
+			Node next = curr.next;
+			int i = indexOf(table, keys, curr.key);
+			if (i >= 0) {
+				unlink(curr);
+				removed[i] = true;
+				remaining--;
+			}
+			curr = next;
+		}
+		
+		return removed;
+	}
     
+	/**
+	 * Total number of key comparisons made by this list, for instrumentation such as
+	 * DS_Instrumented. Not part of the DataStructureADT interface.
+	 *
+	 * @return number of keys compared against a search key since construction
+	 */
+	long comparisons() {
+		return this.comparisons;
+	}
+	
+	@Override
+	// Returns a cursor over the list from head to tail
+	// A self-organizing list is reordered by get and contains, which also fails the cursor
+	public DataStructureCursor<String, String> cursor() {
+		return new Cursor();
+	}
+
 	// ------ Private Helper Methods ------ \\
 	
 	/**
@@ -174,10 +354,168 @@ public class DS_My implements DataStructureADT< String, String > {
 		
 		// Loop through nodes until node with key matches K
 		Node curr = this.head;
-		while (curr != null && !curr.key.equals(K)) {
+		while (curr != null) {
+			this.comparisons++;
+			if (curr.key.equals(K)) {
+				break;
+			}
 			curr = curr.next;
 		}
 		
 		return curr;
 	}
+	
+	/**
+	 * Removes a node from the list and decreases size
+	 * 
+	 * @param curr node in this list
+	 */
+	private void unlink(Node curr) {
+		// Delete head if found in beginning
+		if (curr == this.head) {
+			this.head = this.head.next;
+			// Update previous pointer if needed 
+			if (this.head != null) {
+				this.head.prev = null;
+			}
+			// Node is found after
+			// Delete node by linking previous to next and next to previous
+		} else {
+			curr.prev.next = curr.next;
+			// If deleting tail, then stop here
+			if (curr.next != null) {
+				curr.next.prev = curr.prev;
+			}
+		}
+		
+		this.numElements--;
+		this.modCount++;
+	}
+	
+	/**
+	 * Checks the arguments of a batch operation before anything is changed
+	 * 
+	 * @param keys keys of the batch
+	 * @param values array that goes with keys
+	 * @throws IllegalArgumentException if the arrays differ in length or a key is null
+	 */
+	private static void checkBatch(String[] keys, String[] values) {
+		if (keys.length != values.length) {
+			throw new IllegalArgumentException("keys and values differ in length");
+		}
+		for (String key : keys) {
+			if (key == null) {
+				throw new IllegalArgumentException("null key");
+			}
+		}
+	}
+	
+	/**
+	 * Builds an open addressing hash table of the keys of a batch. Each slot holds the index
+	 * of a key in keys plus one, or 0 if empty, and only the first occurrence of a key is
+	 * stored. The table is at most half full, so a lookup probes about two slots.
+	 * 
+	 * @param keys non-null keys of the batch
+	 * @param rejectDuplicates whether a key appearing twice is an error
+	 * @return the table
+	 * @throws RuntimeException("duplicate key") if rejectDuplicates and a key appears twice
+	 */
+	private static int[] probeTable(String[] keys, boolean rejectDuplicates) {
+		int capacity = 2;
+		while (capacity < 2 * keys.length) {
+			capacity <<= 1;
+		}
+		
+		int[] table = new int[capacity];
+		for (int i = 0; i < keys.length; i++) {
+			int slot = slotOf(table, keys, keys[i]);
+			if (table[slot] == 0) {
+				table[slot] = i + 1;
+			} else if (rejectDuplicates) {
+				throw new RuntimeException("duplicate key");
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * @param table table built by probeTable
+	 * @return number of distinct keys in table
+	 */
+	private static int distinct(int[] table) {
+		int count = 0;
+		for (int slot : table) {
+			if (slot != 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * @param table table built by probeTable from keys
+	 * @param keys keys of the batch
+	 * @param K key to look up
+	 * @return index of the first occurrence of K in keys, or -1 if K is not in keys
+	 */
+	private static int indexOf(int[] table, String[] keys, String K) {
+		return table[slotOf(table, keys, K)] - 1;
+	}
+	
+	/**
+	 * Linear probing from the slot K hashes to
+	 * 
+	 * @return the slot holding K, or the empty slot where K would go
+	 */
+	private static int slotOf(int[] table, String[] keys, String K) {
+		int mask = table.length - 1;
+		int h = K.hashCode();
+		int slot = (h ^ (h >>> 16)) & mask;
+		while (table[slot] != 0 && !keys[table[slot] - 1].equals(K)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	/**
+	 * Finds the node containing the specified key, then moves it toward the head as
+	 * configured by this list's order
+	 * 
+	 * @param K the string key value to search for in the list
+	 * @return the node containing K after reordering, or null if not found
+	 */
+	private Node lookup(String K) {
+		Node curr = find(K);
+		if (curr == null || curr == this.head) {
+			return curr;
+		}
+		
+		switch (this.order) {
+			case MOVE_TO_FRONT:
+				this.modCount++;
+				// Unlink node, then relink it before head
+				curr.prev.next = curr.next;
+				if (curr.next != null) {
+					curr.next.prev = curr.prev;
+				}
+				curr.prev = null;
+				curr.next = this.head;
+				this.head.prev = curr;
+				this.head = curr;
+				return curr;
+			case TRANSPOSE:
+				this.modCount++;
+				// Swap pairs rather than nodes, no node is referenced outside the list
+				Node prev = curr.prev;
+				String prevKey = prev.key;
+				String prevValue = prev.value;
+				prev.key = curr.key;
+				prev.value = curr.value;
+				curr.key = prevKey;
+				curr.value = prevValue;
+				return prev;
+			default:
+				return curr;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,466 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ConcurrentModificationException;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a DS that keeps its key-value pairs off the Java heap. Each pair is
+ * written as a UTF-8 record into a direct ByteBuffer (the arena):
+ *
+ *     [int keyLength][int valueLength, -1 if null][key bytes][value bytes]
+ *
+ * Records are found through an open-addressing hash index made of two primitive int
+ * arrays, one holding record offsets and one holding key hashes. Storing a pair therefore
+ * allocates no heap objects at all, and the garbage collector only ever sees three
+ * arrays no matter how many pairs are stored. Removed records are left in the arena as
+ * dead bytes and the arena is compacted once more than half of it is dead.
+ *
+ * The arena is freed explicitly by close(). A closed DS_OffHeap throws
+ * IllegalStateException on every operation, including next on its cursors. Like get, a
+ * cursor decodes a new String from the arena for every key and value it returns.
+ */
+public class DS_OffHeap implements DataStructureADT< String, String >, AutoCloseable {
+
+	// Slot markers in the offset index. Real offsets are never negative.
+	private static final int EMPTY = -1;
+	private static final int DELETED = -2;
+
+	// Record header is the key length followed by the value length
+	private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+	// Value length stored for a null value
+	private static final int NULL_VALUE = -1;
+
+	private static final int DEFAULT_ARENA_BYTES = 1 << 16;
+	private static final int DEFAULT_INDEX_SLOTS = 16;
+
+	// Inner class - fail-fast cursor over the index in slot order, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<String, String> {
+		private int slot; // slot of the record the cursor is on, -1 before the first
+		private boolean on; // whether the cursor is on a record
+		private int expectedModCount; // modCount when the cursor was last reset
+
+		/**
+		 * Cursor constructor, positioned before the first record
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			checkOpen();
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			do {
+				slot = Math.min(slot + 1, offsets.length);
+			} while (slot < offsets.length && offsets[slot] < 0);
+			on = slot < offsets.length;
+			return on;
+		}
+
+		@Override
+		public String key() {
+			return readKey(on());
+		}
+
+		@Override
+		public String value() {
+			return readValue(on());
+		}
+
+		@Override
+		public void reset() {
+			slot = -1;
+			on = false;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * @return offset of the record the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a record
+		 */
+		private int on() {
+			if (!on) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			checkOpen();
+			return offsets[slot];
+		}
+	}
+
+	// Private Fields of the class
+	private ByteBuffer arena; // direct buffer holding all records, null once closed
+	private int arenaEnd; // offset where the next record is written
+	private int deadBytes; // bytes of removed records still in the arena
+	private int[] offsets; // record offset per slot, or EMPTY/DELETED
+	private int[] hashes; // key hash per slot, valid only when offsets[i] >= 0
+	private int numElements; // number of live pairs
+	private int usedSlots; // live plus DELETED slots, drives index resizing
+	private int modCount; // number of structural modifications, for cursors
+
+	/**
+	 * Construct a new, empty DS_OffHeap.
+	 */
+	public DS_OffHeap() {
+		this.arena = ByteBuffer.allocateDirect(DEFAULT_ARENA_BYTES);
+		this.arenaEnd = 0;
+		this.deadBytes = 0;
+		this.offsets = newIndex(DEFAULT_INDEX_SLOTS);
+		this.hashes = new int[DEFAULT_INDEX_SLOTS];
+		this.numElements = 0;
+		this.usedSlots = 0;
+		this.modCount = 0;
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(String key, String value) {
+		checkOpen();
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		int hash = hash(key);
+		if (findSlot(keyBytes, hash) >= 0) {
+			throw new RuntimeException("duplicate key");
+		}
+
+		// Grow the index before probing for a free slot so the probe always ends
+		if ((usedSlots + 1) * 2 > offsets.length) {
+			rehash(numElements * 2 + 2 > offsets.length ? offsets.length * 2 : offsets.length);
+		}
+
+		int offset = appendRecord(keyBytes, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+
+		int mask = offsets.length - 1;
+		int i = hash & mask;
+		while (offsets[i] >= 0) {
+			i = (i + 1) & mask;
+		}
+		if (offsets[i] == EMPTY) {
+			usedSlots++;
+		}
+		offsets[i] = offset;
+		hashes[i] = hash;
+		numElements++;
+		modCount++;
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(String key) {
+		checkOpen();
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int slot = findSlot(key.getBytes(StandardCharsets.UTF_8), hash(key));
+		if (slot < 0) {
+			return false;
+		}
+
+		deadBytes += recordLength(offsets[slot]);
+		offsets[slot] = DELETED;
+		numElements--;
+		modCount++;
+
+		if (deadBytes > arenaEnd / 2 && deadBytes > DEFAULT_ARENA_BYTES) {
+			compact();
+		}
+		return true;
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public String get(String key) {
+		checkOpen();
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int slot = findSlot(key.getBytes(StandardCharsets.UTF_8), hash(key));
+		return slot < 0 ? null : readValue(offsets[slot]);
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(String key) {
+		checkOpen();
+		if (key == null) {
+			return false;
+		}
+		return findSlot(key.getBytes(StandardCharsets.UTF_8), hash(key)) >= 0;
+	}
+
+	@Override
+	// Returns the number of elements in the data structure
+	public int size() {
+		return this.numElements;
+	}
+
+	/**
+	 * Returns the number of bytes of direct memory currently reserved by this data
+	 * structure. This includes dead bytes of removed pairs that have not been compacted
+	 * away yet, and is 0 once the data structure is closed.
+	 *
+	 * @return off-heap bytes in use
+	 */
+	public long offHeapBytesInUse() {
+		return arena == null ? 0 : arena.capacity();
+	}
+
+	/**
+	 * Frees the off-heap arena immediately instead of waiting for the garbage collector.
+	 * Calling close more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if (arena == null) {
+			return;
+		}
+		DirectBuffers.release(arena);
+		arena = null;
+		offsets = null;
+		hashes = null;
+		numElements = 0;
+		modCount++;
+	}
+
+	@Override
+	// Returns a cursor over the pairs in index slot order
+	public DataStructureCursor<String, String> cursor() {
+		checkOpen();
+		return new Cursor();
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Finds the index slot of the record whose key matches
+	 *
+	 * @param keyBytes UTF-8 encoding of the key
+	 * @param hash spread hash of the key
+	 * @return the slot, or -1 if the key is not present
+	 */
+	private int findSlot(byte[] keyBytes, int hash) {
+		int mask = offsets.length - 1;
+		int i = hash & mask;
+
+		// Tombstones are skipped, only an empty slot ends the probe
+		while (offsets[i] != EMPTY) {
+			if (offsets[i] >= 0 && hashes[i] == hash && keyEquals(offsets[i], keyBytes)) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares the key of the record at offset to keyBytes without copying it out
+	 *
+	 * @param offset record offset in the arena
+	 * @param keyBytes UTF-8 encoded key to compare against
+	 * @return true if the keys are byte for byte equal
+	 */
+	private boolean keyEquals(int offset, byte[] keyBytes) {
+		if (arena.getInt(offset) != keyBytes.length) {
+			return false;
+		}
+		int start = offset + HEADER_BYTES;
+		for (int i = 0; i < keyBytes.length; i++) {
+			if (arena.get(start + i) != keyBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the key of the record at offset
+	 *
+	 * @param offset record offset in the arena
+	 * @return the key
+	 */
+	private String readKey(int offset) {
+		byte[] keyBytes = new byte[arena.getInt(offset)];
+		arena.get(offset + HEADER_BYTES, keyBytes);
+		return new String(keyBytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decodes the value of the record at offset
+	 *
+	 * @param offset record offset in the arena
+	 * @return the value, or null if a null value was stored
+	 */
+	private String readValue(int offset) {
+		int keyLength = arena.getInt(offset);
+		int valueLength = arena.getInt(offset + Integer.BYTES);
+		if (valueLength == NULL_VALUE) {
+			return null;
+		}
+
+		byte[] valueBytes = new byte[valueLength];
+		arena.get(offset + HEADER_BYTES + keyLength, valueBytes);
+		return new String(valueBytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a record at the end of the arena, growing the arena if needed
+	 *
+	 * @param keyBytes UTF-8 encoded key
+	 * @param valueBytes UTF-8 encoded value, or null
+	 * @return offset of the new record
+	 */
+	private int appendRecord(byte[] keyBytes, byte[] valueBytes) {
+		int length = HEADER_BYTES + keyBytes.length + (valueBytes == null ? 0 : valueBytes.length);
+		ensureArenaCapacity(length);
+
+		int offset = arenaEnd;
+		arena.putInt(offset, keyBytes.length);
+		arena.putInt(offset + Integer.BYTES, valueBytes == null ? NULL_VALUE : valueBytes.length);
+		arena.put(offset + HEADER_BYTES, keyBytes);
+		if (valueBytes != null) {
+			arena.put(offset + HEADER_BYTES + keyBytes.length, valueBytes);
+		}
+		arenaEnd += length;
+		return offset;
+	}
+
+	/**
+	 * Returns the total length in bytes of the record at offset
+	 *
+	 * @param offset record offset in the arena
+	 * @return header plus key plus value length
+	 */
+	private int recordLength(int offset) {
+		int valueLength = arena.getInt(offset + Integer.BYTES);
+		return HEADER_BYTES + arena.getInt(offset) + (valueLength == NULL_VALUE ? 0 : valueLength);
+	}
+
+	/**
+	 * Doubles the arena until length more bytes fit, copying the records over and
+	 * freeing the old arena right away.
+	 *
+	 * @param length number of bytes about to be appended
+	 */
+	private void ensureArenaCapacity(int length) {
+		if (arenaEnd + length <= arena.capacity()) {
+			return;
+		}
+
+		long newCapacity = arena.capacity();
+		while (newCapacity < (long) arenaEnd + length) {
+			newCapacity *= 2;
+		}
+		if (newCapacity > Integer.MAX_VALUE) {
+			throw new RuntimeException("off-heap arena is full");
+		}
+
+		ByteBuffer newArena = ByteBuffer.allocateDirect((int) newCapacity);
+		newArena.put(0, arena, 0, arenaEnd);
+		DirectBuffers.release(arena);
+		arena = newArena;
+	}
+
+	/**
+	 * Copies only the live records into a fresh arena and points the index at their
+	 * new offsets, freeing the dead bytes of removed records.
+	 */
+	private void compact() {
+		int liveBytes = arenaEnd - deadBytes;
+		int capacity = DEFAULT_ARENA_BYTES;
+		while (capacity < liveBytes) {
+			capacity *= 2;
+		}
+
+		ByteBuffer newArena = ByteBuffer.allocateDirect(capacity);
+		int end = 0;
+		for (int i = 0; i < offsets.length; i++) {
+			if (offsets[i] >= 0) {
+				int length = recordLength(offsets[i]);
+				newArena.put(end, arena, offsets[i], length);
+				offsets[i] = end;
+				end += length;
+			}
+		}
+
+		DirectBuffers.release(arena);
+		arena = newArena;
+		arenaEnd = end;
+		deadBytes = 0;
+	}
+
+	/**
+	 * Rebuilds the index with the given number of slots, dropping all tombstones
+	 *
+	 * @param slots new number of slots, a power of two
+	 */
+	private void rehash(int slots) {
+		int[] oldOffsets = offsets;
+		int[] oldHashes = hashes;
+		offsets = newIndex(slots);
+		hashes = new int[slots];
+
+		int mask = slots - 1;
+		for (int j = 0; j < oldOffsets.length; j++) {
+			if (oldOffsets[j] >= 0) {
+				int i = oldHashes[j] & mask;
+				while (offsets[i] != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				offsets[i] = oldOffsets[j];
+				hashes[i] = oldHashes[j];
+			}
+		}
+		usedSlots = numElements;
+	}
+
+	/**
+	 * @param slots number of slots
+	 * @return an offset index with every slot EMPTY
+	 */
+	private static int[] newIndex(int slots) {
+		int[] index = new int[slots];
+		for (int i = 0; i < slots; i++) {
+			index[i] = EMPTY;
+		}
+		return index;
+	}
+
+	/**
+	 * Spreads the higher bits of the key's hash code into the lower bits
+	 *
+	 * @param K the key to hash
+	 * @return the spread hash code
+	 */
+	private static int hash(String K) {
+		int h = K.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @throws IllegalStateException if close() has been called
+	 */
+	private void checkOpen() {
+		if (arena == null) {
+			throw new IllegalStateException("closed");
+		}
+	}
+}
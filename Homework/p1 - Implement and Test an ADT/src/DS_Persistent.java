@@ -0,0 +1,490 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a DS using a persistent hash array mapped trie, so that snapshot() is O(1)
+ * and readers never block writers. Nodes are never changed once built: insert and remove copy
+ * the path from the root to the key they change, O(log32 size) small arrays, and share every
+ * other node with the previous version. The newest version is published with a compare-and-set
+ * on an AtomicReference, so writers never lock either; a writer that loses the race to
+ * another writer simply rebuilds its path on top of the winner's version.
+ *
+ * snapshot() returns a read-only DS_Persistent holding on to the current version. It can be
+ * read and iterated from any thread while writers keep going, and always sees exactly the
+ * entries present when it was taken. A version no snapshot or cursor refers to anymore is
+ * ordinary garbage, so the garbage collector reclaims old versions without any bookkeeping.
+ *
+ * The trie branches on 5 bits of the key's hash code per level. Keys whose whole hash codes
+ * are equal end up together in a collision node below the last level.
+ *
+ * @param <K> The key must not be null and must be Comparable.
+ * @param <V> The data value associated with a given key.
+ */
+public class DS_Persistent<K extends Comparable<K>, V> implements DataStructureADT<K, V> {
+
+	// Inner class - immutable key-value pair
+	private static final class Leaf {
+		private final Object key;
+		private final Object value;
+		private final int hash; // key.hashCode()
+
+		/**
+		 * Leaf constructor
+		 *
+		 * @param key key
+		 * @param value value
+		 * @param hash key.hashCode()
+		 */
+		private Leaf(Object key, Object value, int hash) {
+			this.key = key;
+			this.value = value;
+			this.hash = hash;
+		}
+	}
+
+	// Inner class - immutable trie node with one slot for every bit set in bitmap, in order
+	// of bit position. A slot is a Leaf, a Branch one level down or a Collision.
+	private static final class Branch {
+		private final int bitmap;
+		private final Object[] slots;
+
+		/**
+		 * Branch constructor
+		 *
+		 * @param bitmap bit i is set if some slot holds keys whose hash has i at this level
+		 * @param slots one slot per set bit, not copied
+		 */
+		private Branch(int bitmap, Object[] slots) {
+			this.bitmap = bitmap;
+			this.slots = slots;
+		}
+	}
+
+	// Inner class - immutable group of leaves whose hashes are equal, only below the last level
+	private static final class Collision {
+		private final int hash;
+		private final Leaf[] leaves;
+
+		/**
+		 * Collision constructor
+		 *
+		 * @param hash hash of every leaf
+		 * @param leaves at least two leaves, not copied
+		 */
+		private Collision(int hash, Leaf[] leaves) {
+			this.hash = hash;
+			this.leaves = leaves;
+		}
+	}
+
+	// Inner class - one version of the data structure
+	private static final class Version {
+		private final Branch root;
+		private final int size;
+
+		/**
+		 * Version constructor
+		 *
+		 * @param root root of the trie
+		 * @param size number of leaves in the trie
+		 */
+		private Version(Branch root, int size) {
+			this.root = root;
+			this.size = size;
+		}
+	}
+
+	// Inner class - cursor walking one version depth first, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<K, V> {
+		// One array of slots and the next position in it per level, reused on every walk
+		private final Object[][] stack = new Object[MAX_LEVELS + 1][];
+		private final int[] positions = new int[MAX_LEVELS + 1];
+		private int depth; // top of the stack, -1 when done
+		private Leaf curr; // leaf the cursor is on, null before the first or after the last
+
+		/**
+		 * Cursor constructor, positioned before the first entry of the current version
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			while (depth >= 0) {
+				Object[] slots = stack[depth];
+				if (positions[depth] == slots.length) {
+					depth--;
+					continue;
+				}
+				Object slot = slots[positions[depth]++];
+				if (slot instanceof Leaf) {
+					curr = (Leaf) slot;
+					return true;
+				}
+				depth++;
+				stack[depth] = slot instanceof Branch ? ((Branch) slot).slots : ((Collision) slot).leaves;
+				positions[depth] = 0;
+			}
+			curr = null;
+			return false;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public K key() {
+			return (K) on().key;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V value() {
+			return (V) on().value;
+		}
+
+		@Override
+		// Moves back before the first entry of the version that is current now
+		public void reset() {
+			stack[0] = current.get().root.slots;
+			positions[0] = 0;
+			depth = 0;
+			curr = null;
+		}
+
+		/**
+		 * @return the leaf the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a leaf
+		 */
+		private Leaf on() {
+			if (curr == null) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return curr;
+		}
+	}
+
+	// Bits of the hash consumed per level, and the mask selecting them
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	// Levels of Branches, at shifts 0, 5, ..., 30; Collisions sit below the last one
+	private static final int MAX_LEVELS = (32 + BITS - 1) / BITS;
+
+	private static final Version EMPTY = new Version(new Branch(0, new Object[0]), 0);
+
+	// Private Fields of the class
+	private final AtomicReference<Version> current; // newest version
+	private final boolean readOnly; // true for snapshots
+
+	/**
+	 * Construct a new, empty DS_Persistent.
+	 */
+	public DS_Persistent() {
+		this(EMPTY, false);
+	}
+
+	/**
+	 * Construct a DS_Persistent starting at a version
+	 *
+	 * @param version first version
+	 * @param readOnly whether insert and remove are rejected
+	 */
+	private DS_Persistent(Version version, boolean readOnly) {
+		this.current = new AtomicReference<>(version);
+		this.readOnly = readOnly;
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	// If this is a snapshot, throws UnsupportedOperationException("snapshot")
+	public void insert(K key, V value) {
+		checkWritable();
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		Leaf leaf = new Leaf(key, value, key.hashCode());
+		while (true) {
+			Version version = current.get();
+			Branch root = put(version.root, 0, leaf); // throws on a duplicate
+			if (current.compareAndSet(version, new Version(root, version.size + 1))) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	// If this is a snapshot, throws UnsupportedOperationException("snapshot")
+	public boolean remove(K key) {
+		checkWritable();
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int hash = key.hashCode();
+		while (true) {
+			Version version = current.get();
+			Object root = remove(version.root, 0, key, hash);
+			if (root == version.root) {
+				return false;
+			}
+			if (current.compareAndSet(version, new Version((Branch) root, version.size - 1))) {
+				return true;
+			}
+		}
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	@SuppressWarnings("unchecked")
+	public V get(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		Leaf leaf = find(current.get().root, key);
+		return leaf == null ? null : (V) leaf.value;
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(K key) {
+		return key != null && find(current.get().root, key) != null;
+	}
+
+	@Override
+	// Returns the number of elements in the data structure
+	public int size() {
+		return current.get().size;
+	}
+
+	@Override
+	// Returns a cursor over the version current when it was created or last reset
+	// The cursor never fails, since that version can't change
+	public DataStructureCursor<K, V> cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Returns an immutable view of every entry present now. Taking a snapshot is O(1), the
+	 * view shares every node with this data structure, and later writes to this data structure
+	 * don't show up in it.
+	 *
+	 * @return a read-only DS_Persistent whose insert and remove throw
+	 *         UnsupportedOperationException
+	 */
+	public DS_Persistent<K, V> snapshot() {
+		return readOnly ? this : new DS_Persistent<>(current.get(), true);
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * @throws UnsupportedOperationException if this is a snapshot
+	 */
+	private void checkWritable() {
+		if (readOnly) {
+			throw new UnsupportedOperationException("snapshot");
+		}
+	}
+
+	/**
+	 * Finds the leaf with the specified key by following its hash down the trie
+	 *
+	 * @param root root of the version to search
+	 * @param key non-null key
+	 * @return the leaf holding key, or null if not present
+	 */
+	private static Leaf find(Branch root, Object key) {
+		int hash = key.hashCode();
+		Branch node = root;
+		for (int shift = 0; ; shift += BITS) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((node.bitmap & bit) == 0) {
+				return null;
+			}
+			Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+			if (slot instanceof Branch) {
+				node = (Branch) slot;
+				continue;
+			}
+			if (slot instanceof Leaf) {
+				Leaf leaf = (Leaf) slot;
+				return leaf.hash == hash && leaf.key.equals(key) ? leaf : null;
+			}
+			for (Leaf leaf : ((Collision) slot).leaves) {
+				if (leaf.key.equals(key)) {
+					return leaf;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a copy of node with leaf added, sharing every node not on leaf's path
+	 *
+	 * @param node branch at the given shift
+	 * @param shift how far leaf's hash is shifted to get its index at this level
+	 * @param leaf leaf to add
+	 * @return the new branch
+	 * @throws RuntimeException("duplicate key") if leaf's key is already below node
+	 */
+	private static Branch put(Branch node, int shift, Leaf leaf) {
+		int bit = 1 << ((leaf.hash >>> shift) & MASK);
+		int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+		// Free slot, insert the leaf there
+		if ((node.bitmap & bit) == 0) {
+			Object[] slots = new Object[node.slots.length + 1];
+			System.arraycopy(node.slots, 0, slots, 0, index);
+			slots[index] = leaf;
+			System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+			return new Branch(node.bitmap | bit, slots);
+		}
+
+		// Occupied slot, replace it with one that also holds the leaf
+		Object slot = node.slots[index];
+		Object replacement;
+		if (slot instanceof Branch) {
+			replacement = put((Branch) slot, shift + BITS, leaf);
+		} else if (slot instanceof Leaf) {
+			Leaf old = (Leaf) slot;
+			if (old.hash == leaf.hash && old.key.equals(leaf.key)) {
+				throw new RuntimeException("duplicate key");
+			}
+			replacement = join(old, leaf, shift + BITS);
+		} else {
+			Leaf[] leaves = ((Collision) slot).leaves;
+			for (Leaf old : leaves) {
+				if (old.key.equals(leaf.key)) {
+					throw new RuntimeException("duplicate key");
+				}
+			}
+			Leaf[] grown = new Leaf[leaves.length + 1];
+			System.arraycopy(leaves, 0, grown, 0, leaves.length);
+			grown[leaves.length] = leaf;
+			replacement = new Collision(leaf.hash, grown);
+		}
+
+		Object[] slots = node.slots.clone();
+		slots[index] = replacement;
+		return new Branch(node.bitmap, slots);
+	}
+
+	/**
+	 * Builds the smallest subtrie holding two leaves that share a slot at the level above
+	 *
+	 * @param a one leaf
+	 * @param b the other leaf, with a different key
+	 * @param shift shift of the level the subtrie starts at
+	 * @return a Branch, or a Collision if every bit of the hashes has been used
+	 */
+	private static Object join(Leaf a, Leaf b, int shift) {
+		if (shift >= 32) {
+			return new Collision(a.hash, new Leaf[] { a, b });
+		}
+		int indexA = (a.hash >>> shift) & MASK;
+		int indexB = (b.hash >>> shift) & MASK;
+		if (indexA == indexB) {
+			return new Branch(1 << indexA, new Object[] { join(a, b, shift + BITS) });
+		}
+		Object[] slots = indexA < indexB ? new Object[] { a, b } : new Object[] { b, a };
+		return new Branch((1 << indexA) | (1 << indexB), slots);
+	}
+
+	/**
+	 * Returns a copy of node without key. Below the root, a branch left with a single leaf is
+	 * replaced by that leaf and an empty branch by null, so the trie stays as shallow as if the
+	 * key had never been inserted.
+	 *
+	 * @param node branch at the given shift
+	 * @param shift how far key's hash is shifted to get its index at this level
+	 * @param key non-null key to remove
+	 * @param hash key.hashCode()
+	 * @return node itself if key isn't below it, else the Branch, Leaf or null replacing it
+	 */
+	private static Object remove(Branch node, int shift, Object key, int hash) {
+		int bit = 1 << ((hash >>> shift) & MASK);
+		if ((node.bitmap & bit) == 0) {
+			return node;
+		}
+		int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+		Object slot = node.slots[index];
+		Object replacement;
+		if (slot instanceof Branch) {
+			replacement = remove((Branch) slot, shift + BITS, key, hash);
+			if (replacement == slot) {
+				return node;
+			}
+		} else if (slot instanceof Leaf) {
+			Leaf leaf = (Leaf) slot;
+			if (leaf.hash != hash || !leaf.key.equals(key)) {
+				return node;
+			}
+			replacement = null;
+		} else {
+			replacement = removeFromCollision((Collision) slot, key);
+			if (replacement == slot) {
+				return node;
+			}
+		}
+
+		if (replacement != null) {
+			// A branch with a single leaf collapses into that leaf
+			if (shift > 0 && node.slots.length == 1 && replacement instanceof Leaf) {
+				return replacement;
+			}
+			Object[] slots = node.slots.clone();
+			slots[index] = replacement;
+			return new Branch(node.bitmap, slots);
+		}
+
+		// Drop the slot
+		if (shift > 0 && node.slots.length == 1) {
+			return null;
+		}
+		if (shift > 0 && node.slots.length == 2 && node.slots[1 - index] instanceof Leaf) {
+			return node.slots[1 - index];
+		}
+		Object[] slots = new Object[node.slots.length - 1];
+		System.arraycopy(node.slots, 0, slots, 0, index);
+		System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+		return new Branch(node.bitmap & ~bit, slots);
+	}
+
+	/**
+	 * @param collision collision that may hold key
+	 * @param key non-null key to remove
+	 * @return collision itself if key isn't in it, else a smaller Collision or the one Leaf left
+	 */
+	private static Object removeFromCollision(Collision collision, Object key) {
+		Leaf[] leaves = collision.leaves;
+		for (int i = 0; i < leaves.length; i++) {
+			if (leaves[i].key.equals(key)) {
+				if (leaves.length == 2) {
+					return leaves[1 - i];
+				}
+				Leaf[] shrunk = new Leaf[leaves.length - 1];
+				System.arraycopy(leaves, 0, shrunk, 0, i);
+				System.arraycopy(leaves, i + 1, shrunk, i, shrunk.length - i);
+				return new Collision(collision.hash, shrunk);
+			}
+		}
+		return collision;
+	}
+}
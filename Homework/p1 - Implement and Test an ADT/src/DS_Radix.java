@@ -0,0 +1,492 @@
+import java.util.ConcurrentModificationException;
+import java.util.function.BiConsumer;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a DS using a radix tree (compressed trie). Each edge is labelled with a
+ * run of characters and a key is spelled out by the labels on the path from the root to
+ * its node, so keys that share a prefix share the nodes and characters of that prefix.
+ * Keys are never stored whole.
+ *
+ * insert, remove, get and contains follow one path down from the root, comparing each
+ * character of the key at most once, so they take O(key length) time no matter how many
+ * keys are stored. Children are kept sorted by the first character of their label, which
+ * also means forEachWithPrefix and cursors visit keys in sorted order.
+ */
+public class DS_Radix implements DataStructureADT< String, String > {
+
+	// Inner class - tree node, reached from its parent through an edge labelled label
+	private static class Node {
+		private char[] label;
+		private Node[] children; // sorted by label[0], only [0, numChildren) used
+		private int numChildren;
+		private boolean hasValue; // true if the path to this node spells a key
+		private String value;
+
+		/**
+		 * Node constructor
+		 *
+		 * @param label characters on the edge from the parent to this node
+		 */
+		private Node(char[] label) {
+			this.label = label;
+			this.children = null;
+			this.numChildren = 0;
+			this.hasValue = false;
+			this.value = null;
+		}
+	}
+
+	// Inner class - fail-fast cursor walking the tree in sorted order, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<String, String> {
+		private Node[] nodes = new Node[16]; // path from the root to the last node visited
+		private int[] nextChild = new int[16]; // nextChild[i] is the next child of nodes[i] to visit
+		private int[] pathLength = new int[16]; // pathLength[i] is the key length at nodes[i]
+		private int depth; // number of nodes on the path
+		private final StringBuilder path = new StringBuilder(); // key spelled out to the last node
+		private Node node; // node the cursor is on, null if not on a key
+		private boolean started; // whether next has been called since the last reset
+		private int expectedModCount; // modCount when the cursor was last reset
+
+		/**
+		 * Cursor constructor, positioned before the first key
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!started) {
+				started = true;
+				push(root);
+				if (root.hasValue) {
+					node = root;
+					return true;
+				}
+			}
+			while (depth > 0) {
+				int top = depth - 1;
+				if (nextChild[top] == nodes[top].numChildren) {
+					depth--;
+					continue;
+				}
+				Node child = nodes[top].children[nextChild[top]++];
+				path.setLength(pathLength[top]);
+				path.append(child.label);
+				push(child);
+				if (child.hasValue) {
+					node = child;
+					return true;
+				}
+			}
+			node = null;
+			return false;
+		}
+
+		@Override
+		// Keys aren't stored whole, so each call builds a new String
+		public String key() {
+			on();
+			return path.toString();
+		}
+
+		@Override
+		public String value() {
+			return on().value;
+		}
+
+		@Override
+		public void reset() {
+			depth = 0;
+			path.setLength(0);
+			node = null;
+			started = false;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Adds a node to the end of the path, with path holding its key
+		 */
+		private void push(Node next) {
+			if (depth == nodes.length) {
+				Node[] biggerNodes = new Node[depth * 2];
+				int[] biggerNextChild = new int[depth * 2];
+				int[] biggerPathLength = new int[depth * 2];
+				System.arraycopy(nodes, 0, biggerNodes, 0, depth);
+				System.arraycopy(nextChild, 0, biggerNextChild, 0, depth);
+				System.arraycopy(pathLength, 0, biggerPathLength, 0, depth);
+				nodes = biggerNodes;
+				nextChild = biggerNextChild;
+				pathLength = biggerPathLength;
+			}
+			nodes[depth] = next;
+			nextChild[depth] = 0;
+			pathLength[depth] = path.length();
+			depth++;
+		}
+
+		/**
+		 * @return the node the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a key
+		 */
+		private Node on() {
+			if (node == null) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return node;
+		}
+	}
+
+	private static final char[] NO_CHARS = new char[0];
+
+	// Private Fields of the class
+	private final Node root; // has an empty label; holds the empty key, if present
+	private int numElements; // number of keys in tree
+	private int modCount; // number of structural modifications, for cursors
+
+	/**
+	 * Construct a new, empty DS_Radix.
+	 */
+	public DS_Radix() {
+		root = new Node(NO_CHARS);
+		numElements = 0;
+		modCount = 0;
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(String key, String value) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		Node node = root;
+		int i = 0;
+		while (i < key.length()) {
+			int c = childIndex(node, key.charAt(i));
+
+			// No edge starts with the next character, hang the rest of the key off node
+			if (c < 0) {
+				Node leaf = new Node(key.substring(i).toCharArray());
+				setValue(leaf, value);
+				addChild(node, -(c + 1), leaf);
+				return;
+			}
+
+			Node child = node.children[c];
+			int matched = matchLength(child.label, key, i);
+			if (matched < child.label.length) {
+				// The key leaves the edge part way, split the edge where they differ
+				child = split(node, c, matched);
+			}
+			node = child;
+			i += matched;
+		}
+
+		// The key ends exactly at node, which is the root for the empty key
+		if (node.hasValue) {
+			throw new RuntimeException("duplicate key");
+		}
+		setValue(node, value);
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		// Walk down keeping the parent, so emptied nodes can be unlinked or merged
+		Node parent = null;
+		int indexInParent = -1;
+		Node node = root;
+		int i = 0;
+		while (i < key.length()) {
+			int c = childIndex(node, key.charAt(i));
+			if (c < 0) {
+				return false;
+			}
+			Node child = node.children[c];
+			if (!labelMatches(child.label, key, i)) {
+				return false;
+			}
+			parent = node;
+			indexInParent = c;
+			node = child;
+			i += child.label.length;
+		}
+
+		if (!node.hasValue) {
+			return false;
+		}
+		node.hasValue = false;
+		node.value = null;
+		numElements--;
+		modCount++;
+
+		if (node == root) {
+			return true;
+		}
+
+		// Keep the tree compressed: no empty leaves and no valueless single-child chains
+		if (node.numChildren == 0) {
+			removeChild(parent, indexInParent);
+			if (parent != root && !parent.hasValue && parent.numChildren == 1) {
+				mergeWithChild(parent);
+			}
+		} else if (node.numChildren == 1) {
+			mergeWithChild(node);
+		}
+		return true;
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public String get(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		Node node = find(key);
+		return node == null ? null : node.value;
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(String key) {
+		return key != null && find(key) != null;
+	}
+
+	@Override
+	// Returns the number of keys in the tree
+	public int size() {
+		return this.numElements;
+	}
+
+	/**
+	 * Passes every key that starts with prefix, and its value, to action in sorted key
+	 * order. Only the subtree under prefix is visited, so this takes O(prefix length + the
+	 * total length of the matching keys) regardless of how many other keys are stored.
+	 *
+	 * @param prefix the prefix to match, "" matches every key
+	 * @param action called once per matching key with the key and its value
+	 * @throws IllegalArgumentException if prefix is null
+	 */
+	public void forEachWithPrefix(String prefix, BiConsumer<? super String, ? super String> action) {
+		if (prefix == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		// Find the node whose path covers the prefix, which may end part way along an edge
+		StringBuilder path = new StringBuilder(prefix.length() + 16);
+		Node node = root;
+		int i = 0;
+		while (i < prefix.length()) {
+			int c = childIndex(node, prefix.charAt(i));
+			if (c < 0) {
+				return;
+			}
+			Node child = node.children[c];
+			int matched = matchLength(child.label, prefix, i);
+			if (matched < child.label.length && i + matched < prefix.length()) {
+				return; // prefix leaves the edge, nothing starts with it
+			}
+			path.append(child.label);
+			node = child;
+			i += child.label.length;
+		}
+
+		visit(node, path, action);
+	}
+
+	@Override
+	// Returns a cursor over the keys in sorted order
+	public DataStructureCursor<String, String> cursor() {
+		return new Cursor();
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Finds the node holding the given key
+	 *
+	 * @param K the non-null key to search for
+	 * @return the node holding K, or null if K is not present
+	 */
+	private Node find(String K) {
+		Node node = root;
+		int i = 0;
+		while (i < K.length()) {
+			int c = childIndex(node, K.charAt(i));
+			if (c < 0) {
+				return null;
+			}
+			node = node.children[c];
+			if (!labelMatches(node.label, K, i)) {
+				return null;
+			}
+			i += node.label.length;
+		}
+		return node.hasValue ? node : null;
+	}
+
+	/**
+	 * Visits node and its subtree in sorted order, with path holding the characters from
+	 * the root to node. path is restored before returning.
+	 *
+	 * @param node subtree to visit
+	 * @param path key spelled by the path to node
+	 * @param action called for every key in the subtree
+	 */
+	private static void visit(Node node, StringBuilder path, BiConsumer<? super String, ? super String> action) {
+		if (node.hasValue) {
+			action.accept(path.toString(), node.value);
+		}
+		for (int i = 0; i < node.numChildren; i++) {
+			Node child = node.children[i];
+			int length = path.length();
+			path.append(child.label);
+			visit(child, path, action);
+			path.setLength(length);
+		}
+	}
+
+	/**
+	 * Splits the edge to node.children[c] after its first matched characters, putting a
+	 * new node in the middle
+	 *
+	 * @param node parent of the edge to split
+	 * @param c index of the child in node.children
+	 * @param matched number of label characters that stay above the split, > 0
+	 * @return the new middle node
+	 */
+	private static Node split(Node node, int c, int matched) {
+		Node child = node.children[c];
+		Node middle = new Node(copyOfRange(child.label, 0, matched));
+		child.label = copyOfRange(child.label, matched, child.label.length);
+		middle.children = new Node[] { child };
+		middle.numChildren = 1;
+		node.children[c] = middle;
+		return middle;
+	}
+
+	/**
+	 * Folds a valueless node's only child into it, so the two edges become one
+	 *
+	 * @param node a node without a value and with exactly one child
+	 */
+	private static void mergeWithChild(Node node) {
+		Node child = node.children[0];
+		char[] label = new char[node.label.length + child.label.length];
+		System.arraycopy(node.label, 0, label, 0, node.label.length);
+		System.arraycopy(child.label, 0, label, node.label.length, child.label.length);
+		node.label = label;
+		node.children = child.children;
+		node.numChildren = child.numChildren;
+		node.hasValue = child.hasValue;
+		node.value = child.value;
+	}
+
+	/**
+	 * Binary searches node's children for the one whose label starts with ch
+	 *
+	 * @param node node whose children to search
+	 * @param ch first character of the label
+	 * @return the child index, or -(insertion point) - 1 if there is no such child
+	 */
+	private static int childIndex(Node node, char ch) {
+		int lo = 0;
+		int hi = node.numChildren - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			char first = node.children[mid].label[0];
+			if (first < ch) {
+				lo = mid + 1;
+			} else if (first > ch) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
+
+	/**
+	 * Inserts child into node's children at index, growing the array if needed
+	 */
+	private static void addChild(Node node, int index, Node child) {
+		if (node.children == null) {
+			node.children = new Node[2];
+		} else if (node.numChildren == node.children.length) {
+			Node[] bigger = new Node[node.children.length * 2];
+			System.arraycopy(node.children, 0, bigger, 0, node.numChildren);
+			node.children = bigger;
+		}
+		System.arraycopy(node.children, index, node.children, index + 1, node.numChildren - index);
+		node.children[index] = child;
+		node.numChildren++;
+	}
+
+	/**
+	 * Removes node.children[index], shifting later children down
+	 */
+	private static void removeChild(Node node, int index) {
+		System.arraycopy(node.children, index + 1, node.children, index, node.numChildren - index - 1);
+		node.children[--node.numChildren] = null;
+	}
+
+	/**
+	 * @return how many leading characters of label equal key starting at offset
+	 */
+	private static int matchLength(char[] label, String key, int offset) {
+		int max = Math.min(label.length, key.length() - offset);
+		int n = 0;
+		while (n < max && label[n] == key.charAt(offset + n)) {
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * @return true if all of label equals key starting at offset
+	 */
+	private static boolean labelMatches(char[] label, String key, int offset) {
+		return label.length <= key.length() - offset && matchLength(label, key, offset) == label.length;
+	}
+
+	/**
+	 * @return a copy of chars[from, to)
+	 */
+	private static char[] copyOfRange(char[] chars, int from, int to) {
+		char[] copy = new char[to - from];
+		System.arraycopy(chars, from, copy, 0, copy.length);
+		return copy;
+	}
+
+	/**
+	 * Stores a value in a node that didn't hold a key and counts the new key
+	 */
+	private void setValue(Node node, String value) {
+		node.hasValue = true;
+		node.value = value;
+		numElements++;
+		modCount++;
+	}
+}
@@ -0,0 +1,384 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Thread-safe implementation of a DS using a lock-free skip list, with keys kept in sorted
+ * order. Every forward pointer is an immutable link holding the next node and a mark, and
+ * a marked link flags the node it belongs to as logically removed. Updates only ever
+ * compare-and-set a single link, so no thread ever waits for another one:
+ *
+ * - insert links the new node into the bottom level first (that is when it becomes part of
+ *   the list) and then into each higher level.
+ * - remove marks the node's pointers from the top level down. Marking the bottom level is
+ *   when the key leaves the list. Marked nodes are unlinked by whichever thread walks past
+ *   them next.
+ * - get and contains never write and never retry, they just step over marked nodes, so
+ *   readers don't slow each other down.
+ *
+ * size() is exact when no updates are in progress. Cursors are weakly consistent instead of
+ * fail-fast: they walk the bottom level in key order while other threads update the list,
+ * never throw ConcurrentModificationException, and see any key that is present for the
+ * whole walk.
+ *
+ * @param <K> The key must not be null and must be Comparable.
+ * @param <V> The data value associated with a given key.
+ */
+public class DS_SkipList<K extends Comparable<K>, V> implements DataStructureADT<K, V> {
+
+	// Highest level a node can reach, enough for far more than 2^31 keys at p = 1/2
+	private static final int MAX_LEVEL = 32;
+
+	// Inner class - immutable forward pointer. A marked link means its owner is removed.
+	private static class Link<K, V> {
+		private final Node<K, V> node;
+		private final boolean marked;
+
+		private Link(Node<K, V> node, boolean marked) {
+			this.node = node;
+			this.marked = marked;
+		}
+	}
+
+	// Inner class - skip list node holding a key-value pair and one link per level
+	private static class Node<K, V> {
+		private final K key;
+		private volatile V value;
+		private final Link<K, V>[] next; // only read and written through NEXT
+		private final int topLevel;
+
+		/**
+		 * Node constructor
+		 *
+		 * @param key key, null only for the head and tail sentinels
+		 * @param value value
+		 * @param topLevel highest level this node is linked into
+		 */
+		@SuppressWarnings("unchecked")
+		private Node(K key, V value, int topLevel) {
+			this.key = key;
+			this.value = value;
+			this.topLevel = topLevel;
+			this.next = (Link<K, V>[]) new Link[topLevel + 1];
+		}
+	}
+
+	// Inner class - weakly consistent cursor over the bottom level, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<K, V> {
+		private Node<K, V> node; // node the cursor is on, head before the first key
+
+		/**
+		 * Cursor constructor, positioned before the first key
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			if (node == tail) {
+				return false;
+			}
+			node = DS_SkipList.next(node, 0).node;
+			while (node != tail && DS_SkipList.next(node, 0).marked) { // step over removed nodes
+				node = DS_SkipList.next(node, 0).node;
+			}
+			return node != tail;
+		}
+
+		@Override
+		public K key() {
+			return on().key;
+		}
+
+		@Override
+		public V value() {
+			return on().value;
+		}
+
+		@Override
+		public void reset() {
+			node = head;
+		}
+
+		/**
+		 * @return the node the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a key
+		 */
+		private Node<K, V> on() {
+			if (node == head || node == tail) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return node;
+		}
+	}
+
+	// Volatile and compare-and-set access to the elements of Node.next
+	private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Link[].class);
+
+	// Private Fields of the class
+	private final Node<K, V> head; // sentinel before every key
+	private final Node<K, V> tail; // sentinel after every key
+	private final AtomicInteger maxLevel; // highest level any node has been linked into
+	private final LongAdder numElements; // number of elements in list
+
+	/**
+	 * Construct a new, empty DS_SkipList.
+	 */
+	public DS_SkipList() {
+		head = new Node<K, V>(null, null, MAX_LEVEL - 1);
+		tail = new Node<K, V>(null, null, MAX_LEVEL - 1);
+		for (int i = 0; i < MAX_LEVEL; i++) {
+			head.next[i] = new Link<K, V>(tail, false);
+			tail.next[i] = new Link<K, V>(null, false);
+		}
+		maxLevel = new AtomicInteger(0);
+		numElements = new LongAdder();
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(K key, V value) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		// Raise maxLevel before searching so searches always start high enough to see this node
+		int topLevel = randomLevel();
+		maxLevel.accumulateAndGet(topLevel, Math::max);
+
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] preds = (Node<K, V>[]) new Node[MAX_LEVEL];
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] succs = (Node<K, V>[]) new Node[MAX_LEVEL];
+
+		while (true) {
+			if (find(key, preds, succs)) {
+				throw new RuntimeException("duplicate key");
+			}
+
+			Node<K, V> newNode = new Node<K, V>(key, value, topLevel);
+			for (int level = 0; level <= topLevel; level++) {
+				newNode.next[level] = new Link<K, V>(succs[level], false);
+			}
+
+			// The key is in the list as soon as the bottom level is linked
+			if (!compareAndSetNext(preds[0], 0, succs[0], newNode, false)) {
+				continue; // someone changed the list under us, search again
+			}
+			numElements.increment();
+
+			// Link the remaining levels, searching again whenever a link fails
+			for (int level = 1; level <= topLevel; level++) {
+				while (true) {
+					Link<K, V> link = next(newNode, level);
+					if (link.marked) {
+						return; // already being removed, don't link it any higher
+					}
+					if (link.node != succs[level]
+							&& !compareAndSetNext(newNode, level, link.node, succs[level], false)) {
+						continue;
+					}
+					if (compareAndSetNext(preds[level], level, succs[level], newNode, false)) {
+						break;
+					}
+					find(key, preds, succs);
+				}
+			}
+			return;
+		}
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] preds = (Node<K, V>[]) new Node[MAX_LEVEL];
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] succs = (Node<K, V>[]) new Node[MAX_LEVEL];
+
+		if (!find(key, preds, succs)) {
+			return false;
+		}
+		Node<K, V> victim = succs[0];
+
+		// Mark every level above the bottom so no new links are made through the victim
+		for (int level = victim.topLevel; level >= 1; level--) {
+			Link<K, V> link = next(victim, level);
+			while (!link.marked) {
+				compareAndSetNext(victim, level, link.node, link.node, true);
+				link = next(victim, level);
+			}
+		}
+
+		// Whichever thread marks the bottom level is the one that removed the key
+		while (true) {
+			Link<K, V> link = next(victim, 0);
+			if (link.marked) {
+				return false; // another thread removed it first
+			}
+			if (compareAndSetNext(victim, 0, link.node, link.node, true)) {
+				numElements.decrement();
+				find(key, preds, succs); // unlink the victim
+				return true;
+			}
+		}
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public V get(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		Node<K, V> node = search(key);
+		return node == null ? null : node.value;
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(K key) {
+		return key != null && search(key) != null;
+	}
+
+	@Override
+	// Returns the number of elements in the list
+	public int size() {
+		return numElements.intValue();
+	}
+
+	@Override
+	// Returns a cursor over the keys in ascending order
+	// Never throws ConcurrentModificationException, see the class comment
+	public DataStructureCursor<K, V> cursor() {
+		return new Cursor();
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Finds the predecessor and successor of key on every level in use, unlinking any
+	 * marked nodes it passes. Restarts from the head if an unlink fails.
+	 *
+	 * @param key the key to search for
+	 * @param preds filled with the last node before key on each level
+	 * @param succs filled with the first node at or after key on each level
+	 * @return true if succs[0] holds key
+	 */
+	private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+		retry:
+		while (true) {
+			Node<K, V> pred = head;
+			Node<K, V> curr = null;
+			for (int level = maxLevel.get(); level >= 0; level--) {
+				curr = next(pred, level).node;
+				while (true) {
+					Link<K, V> link = next(curr, level);
+					while (link.marked) { // curr is removed, unlink it
+						if (!compareAndSetNext(pred, level, curr, link.node, false)) {
+							continue retry;
+						}
+						curr = link.node;
+						link = next(curr, level);
+					}
+					if (curr != tail && curr.key.compareTo(key) < 0) {
+						pred = curr;
+						curr = link.node;
+					} else {
+						break;
+					}
+				}
+				preds[level] = pred;
+				succs[level] = curr;
+			}
+			return curr != tail && curr.key.compareTo(key) == 0;
+		}
+	}
+
+	/**
+	 * Finds the node holding key without writing anything, stepping over marked nodes
+	 *
+	 * @param key the non-null key to search for
+	 * @return the node holding key, or null if key is not present
+	 */
+	private Node<K, V> search(K key) {
+		Node<K, V> pred = head;
+		Node<K, V> curr = null;
+
+		for (int level = maxLevel.get(); level >= 0; level--) {
+			curr = next(pred, level).node;
+			while (true) {
+				Link<K, V> link = next(curr, level);
+				while (link.marked) {
+					curr = link.node;
+					link = next(curr, level);
+				}
+				if (curr != tail && curr.key.compareTo(key) < 0) {
+					pred = curr;
+					curr = link.node;
+				} else {
+					break;
+				}
+			}
+		}
+		return curr != tail && curr.key.compareTo(key) == 0 ? curr : null;
+	}
+
+	/**
+	 * @param node a node
+	 * @param level a level node is linked into
+	 * @return the current link of node on that level
+	 */
+	@SuppressWarnings("unchecked")
+	private static <K, V> Link<K, V> next(Node<K, V> node, int level) {
+		return (Link<K, V>) NEXT.getVolatile(node.next, level);
+	}
+
+	/**
+	 * Atomically replaces the link of node on a level, if it is still unmarked and still
+	 * points at expected.
+	 *
+	 * @param node the node whose link to replace
+	 * @param level the level of the link
+	 * @param expected node the link must currently point at
+	 * @param update node the new link points at
+	 * @param mark whether the new link is marked
+	 * @return true if the link was replaced
+	 */
+	private static <K, V> boolean compareAndSetNext(Node<K, V> node, int level, Node<K, V> expected,
+			Node<K, V> update, boolean mark) {
+		Link<K, V> current = next(node, level);
+		return current.node == expected && !current.marked
+				&& NEXT.compareAndSet(node.next, level, current, new Link<K, V>(update, mark));
+	}
+
+	/**
+	 * Picks the top level of a new node, level i with probability 1/2^(i+1)
+	 *
+	 * @return a level between 0 and MAX_LEVEL - 1
+	 */
+	private static int randomLevel() {
+		int bits = ThreadLocalRandom.current().nextInt();
+		return Math.min(Integer.numberOfTrailingZeros(bits), MAX_LEVEL - 1);
+	}
+}
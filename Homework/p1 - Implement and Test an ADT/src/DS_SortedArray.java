@@ -0,0 +1,474 @@
+import java.util.ConcurrentModificationException;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a DS for tables that are loaded once and then mostly read. Keys and
+ * values live in two parallel arrays sorted by key, so get and contains are a binary search
+ * over contiguous memory with no pointers to chase.
+ *
+ * insertAll loads a whole batch with a single sort and one linear merge, and a batch that
+ * is already sorted and comes after every stored key is just appended. Single inserts go
+ * into a small sorted delta buffer and single removes only mark the key as removed; both
+ * are merged into the main arrays once the buffer fills up or half of the main arrays are
+ * removed keys. The buffer holds about sqrt(size) keys, so a single insert costs
+ * O(sqrt(size)) amortized while lookups stay O(log size).
+ *
+ * @param <K> The key must not be null and must be Comparable.
+ * @param <V> The data value associated with a given key.
+ */
+public class DS_SortedArray<K extends Comparable<K>, V> implements DataStructureADT<K, V> {
+
+	// Inner class - fail-fast cursor merging the main arrays and the delta buffer, see
+	// DataStructureCursor
+	private class Cursor implements DataStructureCursor<K, V> {
+		private int base; // next index to look at in the main arrays
+		private int delta; // next index to look at in the delta buffer
+		private int index; // index of the pair the cursor is on, -1 if not on a pair
+		private boolean inDelta; // whether index is in the delta buffer or the main arrays
+		private int expectedModCount; // modCount when the cursor was last reset
+
+		/**
+		 * Cursor constructor, positioned before the first pair
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			while (base < baseSize && removed[base]) {
+				base++;
+			}
+			if (base < baseSize && (delta == deltaSize || keys[base].compareTo(deltaKeys[delta]) < 0)) {
+				inDelta = false;
+				index = base++;
+			} else if (delta < deltaSize) {
+				inDelta = true;
+				index = delta++;
+			} else {
+				index = -1;
+			}
+			return index >= 0;
+		}
+
+		@Override
+		public K key() {
+			on();
+			return inDelta ? deltaKeys[index] : keys[index];
+		}
+
+		@Override
+		public V value() {
+			on();
+			return inDelta ? deltaValues[index] : values[index];
+		}
+
+		@Override
+		public void reset() {
+			base = 0;
+			delta = 0;
+			index = -1;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * @throws IllegalStateException if the cursor isn't on a pair
+		 */
+		private void on() {
+			if (index < 0) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+		}
+	}
+
+	// Smallest capacity of the delta buffer, so small tables don't merge on every insert
+	private static final int MIN_DELTA = 32;
+
+	// Private Fields of the class
+	private K[] keys; // sorted main arrays, only [0, baseSize) used
+	private V[] values;
+	private boolean[] removed; // removed[i] is true if keys[i] has been removed since the last merge
+	private int baseSize;
+	private int numRemoved; // number of true entries in removed
+
+	private K[] deltaKeys; // sorted buffer of keys inserted since the last merge
+	private V[] deltaValues;
+	private int deltaSize;
+
+	private int numElements; // number of elements in data structure
+	private int modCount; // number of structural modifications, for cursors
+
+	/**
+	 * Construct a new, empty DS_SortedArray.
+	 */
+	public DS_SortedArray() {
+		keys = newKeyArray(0);
+		values = newValueArray(0);
+		removed = new boolean[0];
+		baseSize = 0;
+		numRemoved = 0;
+		deltaKeys = newKeyArray(MIN_DELTA);
+		deltaValues = newValueArray(MIN_DELTA);
+		deltaSize = 0;
+		numElements = 0;
+		modCount = 0;
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(K key, V value) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int d = binarySearch(deltaKeys, deltaSize, key);
+		if (d >= 0) {
+			throw new RuntimeException("duplicate key");
+		}
+		int b = binarySearch(keys, baseSize, key);
+		if (b >= 0) {
+			if (!removed[b]) {
+				throw new RuntimeException("duplicate key");
+			}
+			// The key was removed since the last merge, bring its slot back
+			removed[b] = false;
+			values[b] = value;
+			numRemoved--;
+			numElements++;
+			modCount++;
+			return;
+		}
+
+		int index = -(d + 1);
+		System.arraycopy(deltaKeys, index, deltaKeys, index + 1, deltaSize - index);
+		System.arraycopy(deltaValues, index, deltaValues, index + 1, deltaSize - index);
+		deltaKeys[index] = key;
+		deltaValues[index] = value;
+		deltaSize++;
+		numElements++;
+		modCount++;
+
+		if (deltaSize == deltaKeys.length) {
+			merge();
+		}
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int d = binarySearch(deltaKeys, deltaSize, key);
+		if (d >= 0) {
+			System.arraycopy(deltaKeys, d + 1, deltaKeys, d, deltaSize - d - 1);
+			System.arraycopy(deltaValues, d + 1, deltaValues, d, deltaSize - d - 1);
+			deltaSize--;
+			deltaKeys[deltaSize] = null;
+			deltaValues[deltaSize] = null;
+			numElements--;
+			modCount++;
+			return true;
+		}
+
+		int b = binarySearch(keys, baseSize, key);
+		if (b < 0 || removed[b]) {
+			return false;
+		}
+		removed[b] = true;
+		values[b] = null; // don't keep the value reachable until the next merge
+		numRemoved++;
+		numElements--;
+		modCount++;
+
+		if (numRemoved > baseSize / 2) {
+			merge();
+		}
+		return true;
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public V get(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int b = binarySearch(keys, baseSize, key);
+		if (b >= 0) {
+			return values[b]; // null if removed
+		}
+		int d = binarySearch(deltaKeys, deltaSize, key);
+		return d >= 0 ? deltaValues[d] : null;
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(K key) {
+		if (key == null) {
+			return false;
+		}
+
+		int b = binarySearch(keys, baseSize, key);
+		if (b >= 0) {
+			return !removed[b];
+		}
+		return binarySearch(deltaKeys, deltaSize, key) >= 0;
+	}
+
+	@Override
+	// Returns the number of elements in the data structure
+	public int size() {
+		return this.numElements;
+	}
+
+	/**
+	 * Inserts every keys[i], values[i] pair. The batch is sorted once and merged with the
+	 * stored keys in a single pass, which costs O(m log m + size) for a batch of m keys
+	 * instead of m separate inserts. If the batch is already in ascending order and every
+	 * key in it is greater than every stored key, it is appended without sorting or merging.
+	 *
+	 * Nothing is inserted if any key is null or a duplicate.
+	 *
+	 * @param keys keys to insert, not modified
+	 * @param values values to insert, values[i] goes with keys[i]
+	 * @throws IllegalArgumentException("null key") if a key is null, or if the arrays
+	 *             have different lengths
+	 * @throws RuntimeException("duplicate key") if a key is already stored or appears in
+	 *             the batch twice
+	 */
+	@Override
+	public void insertAll(K[] keys, V[] values) {
+		if (keys.length != values.length) {
+			throw new IllegalArgumentException("keys and values differ in length");
+		}
+		int m = keys.length;
+
+		boolean sorted = true;
+		for (int i = 0; i < m; i++) {
+			if (keys[i] == null) {
+				throw new IllegalArgumentException("null key");
+			}
+			if (i > 0 && sorted && keys[i - 1].compareTo(keys[i]) >= 0) {
+				sorted = false;
+			}
+		}
+		if (m == 0) {
+			return;
+		}
+
+		// Fold the delta buffer and removed keys in first, so the main arrays hold everything
+		if (deltaSize > 0 || numRemoved > 0) {
+			merge();
+		}
+
+		if (sorted && (baseSize == 0 || this.keys[baseSize - 1].compareTo(keys[0]) < 0)) {
+			// Fast path: the batch goes after every stored key, in the order it came in
+			ensureBaseCapacity(baseSize + m);
+			System.arraycopy(keys, 0, this.keys, baseSize, m);
+			System.arraycopy(values, 0, this.values, baseSize, m);
+			baseSize += m;
+			numElements += m;
+			modCount++;
+			return;
+		}
+
+		K[] batchKeys = newKeyArray(m);
+		V[] batchValues = newValueArray(m);
+		System.arraycopy(keys, 0, batchKeys, 0, m);
+		System.arraycopy(values, 0, batchValues, 0, m);
+		if (!sorted) {
+			mergeSort(batchKeys, batchValues, newKeyArray(m), newValueArray(m), 0, m);
+			for (int i = 1; i < m; i++) {
+				if (batchKeys[i - 1].compareTo(batchKeys[i]) == 0) {
+					throw new RuntimeException("duplicate key");
+				}
+			}
+		}
+
+		// One linear merge of the main arrays and the sorted batch
+		K[] mergedKeys = newKeyArray(baseSize + m);
+		V[] mergedValues = newValueArray(baseSize + m);
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < baseSize && j < m) {
+			int cmp = this.keys[i].compareTo(batchKeys[j]);
+			if (cmp == 0) {
+				throw new RuntimeException("duplicate key"); // nothing has been changed yet
+			}
+			if (cmp < 0) {
+				mergedKeys[n] = this.keys[i];
+				mergedValues[n++] = this.values[i++];
+			} else {
+				mergedKeys[n] = batchKeys[j];
+				mergedValues[n++] = batchValues[j++];
+			}
+		}
+		System.arraycopy(this.keys, i, mergedKeys, n, baseSize - i);
+		System.arraycopy(this.values, i, mergedValues, n, baseSize - i);
+		n += baseSize - i;
+		System.arraycopy(batchKeys, j, mergedKeys, n, m - j);
+		System.arraycopy(batchValues, j, mergedValues, n, m - j);
+		n += m - j;
+
+		this.keys = mergedKeys;
+		this.values = mergedValues;
+		this.removed = new boolean[n];
+		baseSize = n;
+		numElements = n;
+		modCount++;
+	}
+
+	@Override
+	// Returns a cursor over the keys in ascending order
+	public DataStructureCursor<K, V> cursor() {
+		return new Cursor();
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Rebuilds the main arrays from their live keys plus the delta buffer, then empties
+	 * the buffer and resizes it to about sqrt of the new size.
+	 */
+	private void merge() {
+		K[] mergedKeys = newKeyArray(numElements);
+		V[] mergedValues = newValueArray(numElements);
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < baseSize || j < deltaSize) {
+			if (i < baseSize && removed[i]) {
+				i++;
+			} else if (j == deltaSize || (i < baseSize && keys[i].compareTo(deltaKeys[j]) < 0)) {
+				mergedKeys[n] = keys[i];
+				mergedValues[n++] = values[i++];
+			} else {
+				mergedKeys[n] = deltaKeys[j];
+				mergedValues[n++] = deltaValues[j++];
+			}
+		}
+
+		keys = mergedKeys;
+		values = mergedValues;
+		removed = new boolean[n];
+		baseSize = n;
+		numRemoved = 0;
+		modCount++;
+
+		int deltaCapacity = Math.max(MIN_DELTA, (int) Math.sqrt(n));
+		deltaKeys = newKeyArray(deltaCapacity);
+		deltaValues = newValueArray(deltaCapacity);
+		deltaSize = 0;
+	}
+
+	/**
+	 * Grows the main arrays, doubling so repeated appends cost O(1) amortized per key
+	 *
+	 * @param capacity number of keys the main arrays must be able to hold
+	 */
+	private void ensureBaseCapacity(int capacity) {
+		if (capacity <= keys.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, keys.length * 2);
+		K[] newKeys = newKeyArray(newCapacity);
+		V[] newValues = newValueArray(newCapacity);
+		boolean[] newRemoved = new boolean[newCapacity];
+		System.arraycopy(keys, 0, newKeys, 0, baseSize);
+		System.arraycopy(values, 0, newValues, 0, baseSize);
+		System.arraycopy(removed, 0, newRemoved, 0, baseSize);
+		keys = newKeys;
+		values = newValues;
+		removed = newRemoved;
+	}
+
+	/**
+	 * Sorts keys[from, to) ascending, moving values[from, to) along with them
+	 *
+	 * @param keys keys to sort
+	 * @param values values to keep in step with keys
+	 * @param tmpKeys scratch array at least as long as keys
+	 * @param tmpValues scratch array at least as long as values
+	 * @param from first index to sort
+	 * @param to one past the last index to sort
+	 */
+	private static <K extends Comparable<K>, V> void mergeSort(K[] keys, V[] values, K[] tmpKeys,
+			V[] tmpValues, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(keys, values, tmpKeys, tmpValues, from, mid);
+		mergeSort(keys, values, tmpKeys, tmpValues, mid, to);
+		if (keys[mid - 1].compareTo(keys[mid]) <= 0) {
+			return; // halves are already in order
+		}
+
+		System.arraycopy(keys, from, tmpKeys, from, to - from);
+		System.arraycopy(values, from, tmpValues, from, to - from);
+		int i = from;
+		int j = mid;
+		for (int n = from; n < to; n++) {
+			if (j == to || (i < mid && tmpKeys[i].compareTo(tmpKeys[j]) <= 0)) {
+				keys[n] = tmpKeys[i];
+				values[n] = tmpValues[i++];
+			} else {
+				keys[n] = tmpKeys[j];
+				values[n] = tmpValues[j++];
+			}
+		}
+	}
+
+	/**
+	 * Binary searches the sorted keys[0, size) for key
+	 *
+	 * @param keys sorted keys
+	 * @param size number of keys in use
+	 * @param key the key to search for
+	 * @return the index of key, or -(insertion point) - 1 if it is not present
+	 */
+	private static <K extends Comparable<K>> int binarySearch(K[] keys, int size, K key) {
+		int lo = 0;
+		int hi = size - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int cmp = keys[mid].compareTo(key);
+			if (cmp < 0) {
+				lo = mid + 1;
+			} else if (cmp > 0) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(lo + 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K extends Comparable<K>> K[] newKeyArray(int length) {
+		return (K[]) new Comparable[length];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> V[] newValueArray(int length) {
+		return (V[]) new Object[length];
+	}
+}
@@ -0,0 +1,321 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Thread-safe decorator that turns any DS into one that can be shared between threads. The
+ * key space is split into stripes by key hash, and each stripe is a separate DS from the
+ * given factory behind its own read/write lock. Operations on keys in different stripes
+ * never wait for each other, and gets and contains on the same stripe share its read lock,
+ * so unlike one lock around the whole DS, throughput can grow with the number of cores.
+ *
+ * Every lock acquisition first tries to take the lock without waiting. When that fails the
+ * acquisition is counted as contended before blocking, so readContention and
+ * writeContention show how often threads actually had to wait, and contention(stripe) shows
+ * whether a few hot stripes are to blame.
+ *
+ * Gets and contains run under a read lock, so the stripes' get and contains must not
+ * modify them. size() adds up the stripes one at a time, so it is exact only when no
+ * updates are in progress. For the same reason a cursor copies one stripe at a time under
+ * its read lock, and never holds a lock between calls.
+ *
+ * @param <K> The key must not be null and must be Comparable.
+ * @param <V> The data value associated with a given key.
+ */
+public class DS_Striped<K extends Comparable<K>, V> implements DataStructureADT<K, V> {
+
+	// Inner class - cursor over copies of the stripes, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<K, V> {
+		private int stripe; // stripe whose copy is being walked
+		private Object[][] entries; // copy of that stripe, null before it is taken
+		private int index; // index of the entry in the copy, -1 before the first
+
+		/**
+		 * Cursor constructor, positioned before the first entry
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			while (stripe < stripes.length) {
+				if (entries == null) {
+					entries = copy(stripe);
+					index = -1;
+				}
+				if (++index < entries[0].length) {
+					return true;
+				}
+				stripe++;
+				entries = null;
+			}
+			return false;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public K key() {
+			return (K) on()[0][index];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V value() {
+			return (V) on()[1][index];
+		}
+
+		@Override
+		public void reset() {
+			stripe = 0;
+			entries = null;
+		}
+
+		/**
+		 * @return the copy holding the entry the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on an entry
+		 */
+		private Object[][] on() {
+			if (entries == null || index < 0) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return entries;
+		}
+	}
+
+	// Private Fields of the class
+	private final DataStructureADT<K, V>[] stripes; // length is a power of two
+	private final int stripeShift; // 32 - log2(stripes.length)
+	private final ReentrantReadWriteLock[] locks; // locks[i] guards stripes[i]
+	private final AtomicLongArray contended; // contended acquisitions per stripe
+	private final LongAdder readContention; // contended read lock acquisitions
+	private final LongAdder writeContention; // contended write lock acquisitions
+
+	/**
+	 * Construct a new, empty DS_Striped.
+	 *
+	 * @param numStripes number of independently locked stripes, rounded up to a power of two
+	 * @param factory creates the empty DS backing each stripe
+	 * @throws IllegalArgumentException if numStripes is less than 1
+	 */
+	@SuppressWarnings("unchecked")
+	public DS_Striped(int numStripes, Supplier<? extends DataStructureADT<K, V>> factory) {
+		if (numStripes < 1) {
+			throw new IllegalArgumentException("need at least one stripe");
+		}
+		int n = Integer.highestOneBit(numStripes);
+		if (n < numStripes) {
+			n <<= 1;
+		}
+
+		stripeShift = 32 - Integer.numberOfTrailingZeros(n);
+		stripes = (DataStructureADT<K, V>[]) new DataStructureADT[n];
+		locks = new ReentrantReadWriteLock[n];
+		for (int i = 0; i < n; i++) {
+			stripes[i] = factory.get();
+			locks[i] = new ReentrantReadWriteLock();
+		}
+		contended = new AtomicLongArray(n);
+		readContention = new LongAdder();
+		writeContention = new LongAdder();
+	}
+
+	@Override
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(K key, V value) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int s = stripeFor(key);
+		Lock lock = writeLock(s);
+		try {
+			stripes[s].insert(key, value);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int s = stripeFor(key);
+		Lock lock = writeLock(s);
+		try {
+			return stripes[s].remove(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public V get(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		int s = stripeFor(key);
+		Lock lock = readLock(s);
+		try {
+			return stripes[s].get(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(K key) {
+		if (key == null) {
+			return false;
+		}
+
+		int s = stripeFor(key);
+		Lock lock = readLock(s);
+		try {
+			return stripes[s].contains(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	// Returns the number of elements in the data structure
+	public int size() {
+		int size = 0;
+		for (int s = 0; s < stripes.length; s++) {
+			Lock lock = readLock(s);
+			try {
+				size += stripes[s].size();
+			} finally {
+				lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	@Override
+	// Returns a cursor that copies each stripe when it reaches the stripe, so it sees every
+	// update to that stripe made before then and none after
+	// The cursor never fails, since it only reads the copies
+	public DataStructureCursor<K, V> cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * @return number of stripes, numStripes rounded up to a power of two
+	 */
+	public int stripes() {
+		return stripes.length;
+	}
+
+	/**
+	 * @return number of read lock acquisitions so far that had to wait for a writer
+	 */
+	public long readContention() {
+		return readContention.sum();
+	}
+
+	/**
+	 * @return number of write lock acquisitions so far that had to wait for another thread
+	 */
+	public long writeContention() {
+		return writeContention.sum();
+	}
+
+	/**
+	 * @param stripe stripe number, from 0 to stripes() - 1
+	 * @return number of read and write lock acquisitions of that stripe that had to wait
+	 */
+	public long contention(int stripe) {
+		return contended.get(stripe);
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Picks the stripe from the top bits of a multiplicative hash. Hashed stripes such as
+	 * DS_Hash pick buckets from the low bits of the hash code, so if the stripe came from
+	 * those bits too, every key in a stripe would land in the same few buckets.
+	 *
+	 * @param K the non-null key
+	 * @return the stripe K belongs to
+	 */
+	private int stripeFor(K K) {
+		// With one stripe the shift is 32, which Java treats as 0, so mask it away
+		return ((K.hashCode() * 0x9E3779B9) >>> stripeShift) & (stripes.length - 1);
+	}
+
+	/**
+	 * Copies every entry of a stripe under its read lock
+	 *
+	 * @param s stripe number
+	 * @return keys in element 0 and their values in element 1
+	 */
+	private Object[][] copy(int s) {
+		Lock lock = readLock(s);
+		try {
+			Object[][] entries = new Object[2][stripes[s].size()];
+			DataStructureCursor<K, V> cursor = stripes[s].cursor();
+			for (int i = 0; cursor.next(); i++) {
+				entries[0][i] = cursor.key();
+				entries[1][i] = cursor.value();
+			}
+			return entries;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Takes the read lock of a stripe, counting the acquisition if it has to wait
+	 *
+	 * @param s stripe number
+	 * @return the held lock
+	 */
+	private Lock readLock(int s) {
+		Lock lock = locks[s].readLock();
+		if (!lock.tryLock()) {
+			readContention.increment();
+			contended.incrementAndGet(s);
+			lock.lock();
+		}
+		return lock;
+	}
+
+	/**
+	 * Takes the write lock of a stripe, counting the acquisition if it has to wait
+	 *
+	 * @param s stripe number
+	 * @return the held lock
+	 */
+	private Lock writeLock(int s) {
+		Lock lock = locks[s].writeLock();
+		if (!lock.tryLock()) {
+			writeContention.increment();
+			contended.incrementAndGet(s);
+			lock.lock();
+		}
+		return lock;
+	}
+}
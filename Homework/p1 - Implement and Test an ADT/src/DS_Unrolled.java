@@ -0,0 +1,296 @@
+import java.util.ConcurrentModificationException;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a DS using an unrolled linked list. Like DS_My, keys are kept in insertion
+ * order and found by scanning from the head, but each node is a chunk holding up to
+ * CHUNK_SIZE key-value pairs in arrays. A scan compares the cached hash codes of a whole chunk,
+ * which sit next to each other in memory, and only follows a pointer once per chunk and only
+ * dereferences a key when its hash matches. Storing pairs in arrays also saves the object
+ * header and the two pointers DS_My spends on every pair.
+ *
+ * Inserts append to the tail chunk. A remove shifts the rest of its chunk left to close the
+ * gap, then merges the chunk with a neighbour if both fit into one, so chunks stay at least
+ * half full on average.
+ */
+public class DS_Unrolled implements DataStructureADT< String, String > {
+
+	// Inner class - doubly linked list node holding up to CHUNK_SIZE key-value pairs
+	private static class Chunk {
+		private final int[] hashes = new int[CHUNK_SIZE]; // hashes[i] is keys[i].hashCode()
+		private final String[] keys = new String[CHUNK_SIZE];
+		private final String[] values = new String[CHUNK_SIZE];
+		private int count; // pairs in use, always [0, count)
+		private Chunk next;
+		private Chunk prev;
+	}
+
+	// Inner class - cursor walking the chunks from head, see DataStructureCursor
+	private class Cursor implements DataStructureCursor<String, String> {
+		private Chunk chunk; // chunk the cursor is on, null before the first pair or after the last
+		private int index; // index of the pair in chunk
+		private boolean started; // whether next has been called since the last reset
+		private int expectedModCount; // modCount when the cursor was last reset
+
+		/**
+		 * Cursor constructor, positioned before the first pair
+		 */
+		private Cursor() {
+			reset();
+		}
+
+		@Override
+		public boolean next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!started) {
+				started = true;
+				chunk = head;
+				index = 0;
+			} else if (chunk != null && ++index == chunk.count) {
+				chunk = chunk.next;
+				index = 0;
+			}
+			return chunk != null; // chunks in the list are never empty
+		}
+
+		@Override
+		public String key() {
+			return on().keys[index];
+		}
+
+		@Override
+		public String value() {
+			return on().values[index];
+		}
+
+		@Override
+		public void reset() {
+			chunk = null;
+			started = false;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * @return the chunk the cursor is on
+		 * @throws IllegalStateException if the cursor isn't on a pair
+		 */
+		private Chunk on() {
+			if (chunk == null) {
+				throw new IllegalStateException("cursor is not on an entry");
+			}
+			return chunk;
+		}
+	}
+
+	// Number of pairs per chunk. 32 hashes fill two cache lines.
+	static final int CHUNK_SIZE = 32;
+
+	// Private Fields of the class
+	private int numElements; // number of elements in list
+	private int numChunks; // number of chunks in list
+	private Chunk head; // first chunk, null if empty
+	private Chunk tail; // last chunk, the only one inserts go into
+	private int modCount; // number of structural modifications, for cursors
+
+	/**
+	 * Construct a new, empty DS_Unrolled list.
+	 */
+	public DS_Unrolled() {
+		numElements = 0;
+		numChunks = 0;
+		head = null;
+		tail = null;
+	}
+
+	@Override
+	// Insert a new Pair at end of list
+	// Add the key,value pair to the data structure and increases size.
+	// If key is null, throws IllegalArgumentException("null key");
+	// If key is already in data structure, throws RuntimeException("duplicate key");
+	// can accept and insert null values
+	public void insert(String key, String value) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+		if (find(key) != null) {
+			throw new RuntimeException("duplicate key");
+		}
+
+		// Start a new chunk if empty or the tail chunk is full
+		if (tail == null || tail.count == CHUNK_SIZE) {
+			Chunk chunk = new Chunk();
+			if (tail == null) {
+				head = chunk;
+			} else {
+				tail.next = chunk;
+				chunk.prev = tail;
+			}
+			tail = chunk;
+			numChunks++;
+		}
+
+		int i = tail.count++;
+		tail.hashes[i] = key.hashCode();
+		tail.keys[i] = key;
+		tail.values[i] = value;
+		numElements++;
+		modCount++;
+	}
+
+	@Override
+	// If key is found, Removes the key from the data structure and decreases size
+	// If key is null, throws IllegalArgumentException("null key") without decreasing size
+	// If key is not found, returns false.
+	public boolean remove(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+		Chunk chunk = find(key);
+		if (chunk == null) {
+			return false;
+		}
+
+		// Compact the chunk by shifting the pairs after the removed one left
+		int i = indexOf(chunk, key.hashCode(), key);
+		int moved = chunk.count - i - 1;
+		System.arraycopy(chunk.hashes, i + 1, chunk.hashes, i, moved);
+		System.arraycopy(chunk.keys, i + 1, chunk.keys, i, moved);
+		System.arraycopy(chunk.values, i + 1, chunk.values, i, moved);
+		chunk.count--;
+		chunk.keys[chunk.count] = null; // don't keep the removed pair reachable
+		chunk.values[chunk.count] = null;
+		numElements--;
+		modCount++;
+
+		// Merge with a neighbour if they fit into one chunk, or drop the chunk if it's empty
+		if (chunk.prev != null && chunk.prev.count + chunk.count <= CHUNK_SIZE) {
+			merge(chunk.prev, chunk);
+		} else if (chunk.next != null && chunk.count + chunk.next.count <= CHUNK_SIZE) {
+			merge(chunk, chunk.next);
+		} else if (chunk.count == 0) {
+			unlink(chunk);
+		}
+		return true;
+	}
+
+	@Override
+	// Returns the value associated with the specified key
+	// get - does not remove key or decrease size
+	// return null if key is not null and is not found in data structure
+	// If key is null, throws IllegalArgumentException("null key")
+	public String get(String key) {
+		if (key == null) {
+			throw new IllegalArgumentException("null key");
+		}
+
+		Chunk chunk = find(key);
+		return chunk == null ? null : chunk.values[indexOf(chunk, key.hashCode(), key)];
+	}
+
+	@Override
+	// Returns true if the key is in the data structure
+	// Returns false if key is null or not present
+	public boolean contains(String key) {
+		return key != null && find(key) != null;
+	}
+
+	@Override
+	// Returns the number of elements in list
+	public int size() {
+		return this.numElements;
+	}
+
+	/**
+	 * Number of chunks in the list, for tests and benchmarks. Not part of the DataStructureADT
+	 * interface.
+	 *
+	 * @return number of chunks currently linked
+	 */
+	int chunks() {
+		return this.numChunks;
+	}
+
+	@Override
+	// Returns a cursor over the list from head to tail
+	public DataStructureCursor<String, String> cursor() {
+		return new Cursor();
+	}
+
+	// ------ Private Helper Methods ------ \\
+
+	/**
+	 * Finds the chunk holding the pair with the specified key. Only reads the list, so
+	 * lookups can share it like they can in the other implementations.
+	 *
+	 * @param K the non-null string key value to search for in the list
+	 * @return the chunk holding K, or null if K was not found
+	 */
+	private Chunk find(String K) {
+		int hash = K.hashCode();
+
+		// Loop through chunks, comparing a key only if its hash matches
+		for (Chunk chunk = this.head; chunk != null; chunk = chunk.next) {
+			if (indexOf(chunk, hash, K) >= 0) {
+				return chunk;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Finds the index of the pair with the specified key within one chunk
+	 *
+	 * @param chunk the chunk to scan
+	 * @param hash K.hashCode()
+	 * @param K the non-null string key value to search for
+	 * @return index of K in chunk, or -1 if chunk doesn't hold K
+	 */
+	private static int indexOf(Chunk chunk, int hash, String K) {
+		int[] hashes = chunk.hashes;
+		for (int i = 0; i < chunk.count; i++) {
+			if (hashes[i] == hash && chunk.keys[i].equals(K)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Appends the pairs of a chunk to its predecessor and unlinks it
+	 *
+	 * @param into chunk to append to
+	 * @param from the chunk after into, with at most CHUNK_SIZE - into.count pairs
+	 */
+	private void merge(Chunk into, Chunk from) {
+		System.arraycopy(from.hashes, 0, into.hashes, into.count, from.count);
+		System.arraycopy(from.keys, 0, into.keys, into.count, from.count);
+		System.arraycopy(from.values, 0, into.values, into.count, from.count);
+		into.count += from.count;
+		unlink(from);
+	}
+
+	/**
+	 * Removes a chunk from the list
+	 *
+	 * @param chunk chunk to unlink
+	 */
+	private void unlink(Chunk chunk) {
+		if (chunk.prev == null) {
+			head = chunk.next;
+		} else {
+			chunk.prev.next = chunk.next;
+		}
+		if (chunk.next == null) {
+			tail = chunk.prev;
+		} else {
+			chunk.next.prev = chunk.prev;
+		}
+		numChunks--;
+	}
+}
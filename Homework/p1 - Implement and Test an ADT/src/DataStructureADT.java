@@ -1,3 +1,10 @@
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
 /**
  * A data structure that can store at least 1,000,000 key,value pairs.
  *
@@ -37,4 +44,95 @@ public interface DataStructureADT<K extends Comparable<K>, V> {
     // Returns the number of elements in the data structure
     int size();
 
+    // Inserts every keys[i],values[i] pair, in order.
+    // If the arrays differ in length or a key is null, throws IllegalArgumentException
+    // and nothing is inserted.
+    // If a key is already in data structure or appears twice in keys, throws
+    // RuntimeException("duplicate key") and nothing is inserted.
+    // Implementations should override this to insert the batch in a single pass.
+    default void insertAll(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("null key");
+            }
+            if (contains(key)) {
+                throw new RuntimeException("duplicate key");
+            }
+        }
+        K[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1].compareTo(sorted[i]) == 0) {
+                throw new RuntimeException("duplicate key");
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            insert(keys[i], values[i]);
+        }
+    }
+
+    // Stores the value associated with keys[i] in values[i], or null if keys[i] is not
+    // found. keys may contain duplicates.
+    // If the arrays differ in length or a key is null, throws IllegalArgumentException
+    // and values is not changed.
+    // Implementations should override this to answer the batch in a single pass.
+    default void getAll(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("null key");
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = get(keys[i]);
+        }
+    }
+
+    // Removes every key in keys that is found and decreases size accordingly.
+    // Returns an array where element i is true if keys[i] was removed. If a key appears
+    // twice, only its first occurrence is reported as removed.
+    // If a key is null, throws IllegalArgumentException("null key") and nothing is removed.
+    // Implementations should override this to remove the batch in a single pass.
+    default boolean[] removeAll(K[] keys) {
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("null key");
+            }
+        }
+        boolean[] removed = new boolean[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            removed[i] = remove(keys[i]);
+        }
+        return removed;
+    }
+
+    // Returns a cursor positioned before the first entry, see DataStructureCursor
+    // Entries are visited in an order that depends on the implementation
+    DataStructureCursor<K, V> cursor();
+
+    // Returns a Spliterator over every entry, for StreamSupport.stream
+    // Each entry is a new immutable Map.Entry, use cursor() to iterate without allocating
+    // Fails fast like cursor() if the data structure is modified while it is traversed
+    // This default splits off batches of entries copied into arrays, implementations that
+    // can split their storage directly should override it
+    default Spliterator<Map.Entry<K, V>> spliterator() {
+        DataStructureCursor<K, V> cursor = cursor();
+        return new Spliterators.AbstractSpliterator<Map.Entry<K, V>>(size(),
+                Spliterator.DISTINCT | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+                if (!cursor.next()) {
+                    return false;
+                }
+                action.accept(new AbstractMap.SimpleImmutableEntry<>(cursor.key(), cursor.value()));
+                return true;
+            }
+        };
+    }
+
 }
@@ -0,0 +1,38 @@
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * A reusable position in a DataStructureADT, returned by DataStructureADT.cursor(). A cursor
+ * starts before the first entry, and every call to next moves it to the following entry, so
+ * a whole data structure can be read without looking up keys one at a time and without
+ * allocating anything per entry. reset moves it back before the first entry, so the same
+ * cursor can walk the data structure again.
+ *
+ * Cursors are fail-fast: once the data structure is structurally modified by anything other
+ * than the cursor, next throws ConcurrentModificationException until the cursor is reset.
+ * This is checked on a best-effort basis and is not a substitute for synchronization.
+ *
+ * @param <K> The key type of the data structure.
+ * @param <V> The data value type of the data structure.
+ */
+public interface DataStructureCursor<K, V> {
+
+    // Moves to the next entry and returns true, or returns false if there are no more entries
+    // Throws ConcurrentModificationException if the data structure was structurally
+    // modified since the cursor was created or last reset
+    boolean next();
+
+    // Returns the key of the entry the cursor is on
+    // Throws IllegalStateException if next has not returned true since the last reset, or
+    // the last call to next returned false
+    K key();
+
+    // Returns the value of the entry the cursor is on
+    // Throws IllegalStateException in the same cases as key
+    V value();
+
+    // Moves back before the first entry, accepting any modifications made so far
+    void reset();
+
+}
@@ -0,0 +1,57 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Helpers for the implementations that keep their data in direct or memory-mapped buffers,
+ * DS_OffHeap and DS_Mapped.
+ */
+final class DirectBuffers {
+
+	// sun.misc.Unsafe.invokeCleaner, looked up once. Null if this JVM doesn't have it.
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafe = theUnsafe.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// Fall back to letting the garbage collector free direct buffers
+			unsafe = null;
+			invokeCleaner = null;
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private DirectBuffers() {
+	}
+
+	/**
+	 * Frees the memory of a direct (or memory-mapped) buffer right away. The buffer must
+	 * not be used afterwards. If the JVM doesn't allow it, the memory is freed by the
+	 * garbage collector instead.
+	 *
+	 * @param buffer a direct buffer that is not a slice or duplicate of another buffer
+	 */
+	static void release(ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect() || INVOKE_CLEANER == null) {
+			return;
+		}
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, buffer);
+		} catch (ReflectiveOperationException e) {
+			// Nothing else to do, the garbage collector will free it
+		}
+	}
+}
@@ -0,0 +1,521 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Benchmarks for the DataStructureADT implementations. These aren't JUnit tests, run them
+ * with "make bench" or:
+ *
+ *     java DataStructureADTBenchmark [scenario]
+ *
+ * Scenarios:
+ *     readers - get/contains throughput of concurrent readers at 1, 2, 4 and 8 threads,
+ *               comparing DS_SkipList to DS_Hash behind a single global lock
+ *     striped - throughput of a 90% lookup, 10% remove-and-reinsert mix at 1, 2, 4 and 8
+ *               threads, comparing DS_Striped over DS_Hash to DS_Hash behind a global lock
+ *     async   - throughput of the striped mix submitted through DS_Async over DS_Hash, each
+ *               thread keeping up to 64 operations in flight, with the batch sizes it got
+ *     memory  - retained heap bytes per key of DS_My, DS_Hash and DS_Radix at 100k and
+ *               1M keys that share a long common prefix (run with a large -Xmx)
+ *     zipf    - average comparisons per lookup of DS_My in each Order, with lookups drawn
+ *               from a Zipf(1.0) and a uniform distribution over 10k keys
+ *     scan    - lookup time and retained heap bytes per key of DS_My against DS_Unrolled,
+ *               which both find keys by scanning the whole list
+ *
+ * Each measurement is preceded by an unmeasured warm-up run of the same length so the
+ * JIT has compiled the hot paths before anything is timed.
+ */
+public class DataStructureADTBenchmark {
+
+    private static final int KEYS = 100000;
+    private static final long RUN_MILLIS = 1000;
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8 };
+
+    public static void main(String[] args) throws InterruptedException {
+        String scenario = args.length > 0 ? args[0] : "readers";
+        switch (scenario) {
+            case "readers":
+                readers();
+                break;
+            case "striped":
+                striped();
+                break;
+            case "async":
+                async();
+                break;
+            case "memory":
+                memory();
+                break;
+            case "zipf":
+                zipf();
+                break;
+            case "scan":
+                scan();
+                break;
+            default:
+                System.out.println("unknown scenario: " + scenario);
+        }
+    }
+
+    /**
+     * Reader scaling: every thread looks up random present keys, half with get and half
+     * with contains, until the time is up.
+     */
+    private static void readers() throws InterruptedException {
+        System.out.println("readers: " + KEYS + " keys, " + Runtime.getRuntime().availableProcessors()
+                + " cpus, million lookups/s");
+        System.out.printf("%-22s", "threads");
+        for (int threads : THREAD_COUNTS) {
+            System.out.printf("%10d", threads);
+        }
+        System.out.println();
+
+        printReaders("DS_SkipList", fill(new DS_SkipList<String, String>()));
+        printReaders("DS_Hash + global lock", fill(new GlobalLock(new DS_Hash())));
+    }
+
+    /**
+     * Striped locking: like readers, but every tenth operation removes its key and puts it
+     * back, so threads also contend for write locks.
+     */
+    private static void striped() throws InterruptedException {
+        System.out.println("striped: " + KEYS + " keys, " + Runtime.getRuntime().availableProcessors()
+                + " cpus, 10% writes, million ops/s");
+        System.out.printf("%-22s", "threads");
+        for (int threads : THREAD_COUNTS) {
+            System.out.printf("%10d", threads);
+        }
+        System.out.println();
+
+        DS_Striped<String, String> striped = new DS_Striped<>(64, DS_Hash::new);
+        printMixed("DS_Striped, 64 stripes", fill(striped));
+        System.out.printf("%-22s%10d%n", "  contended locks", striped.readContention() + striped.writeContention());
+        printMixed("DS_Hash + global lock", fill(new GlobalLock(new DS_Hash())));
+    }
+
+    /**
+     * Asynchronous batching: the striped mix again, but every thread submits operations to
+     * DS_Async without waiting for each one, and waits for the oldest once WINDOW are in flight.
+     */
+    private static void async() throws InterruptedException {
+        System.out.println("async: " + KEYS + " keys, " + Runtime.getRuntime().availableProcessors()
+                + " cpus, 10% writes, million ops/s");
+        System.out.printf("%-22s", "threads");
+        for (int threads : THREAD_COUNTS) {
+            System.out.printf("%10d", threads);
+        }
+        System.out.println();
+
+        for (int shards : new int[] { 1, 4 }) {
+            try (DS_Async<String, String> async = new DS_Async<>(shards, DS_Hash::new)) {
+                fill(async);
+                System.out.printf("%-22s", "DS_Async, " + shards + (shards == 1 ? " shard" : " shards"));
+                double[] batchSizes = new double[THREAD_COUNTS.length];
+                for (int t = 0; t < THREAD_COUNTS.length; t++) {
+                    runAsync(async, THREAD_COUNTS[t]); // warm-up
+                    long batches = async.batches();
+                    long ops = async.batchedOperations();
+                    long done = runAsync(async, THREAD_COUNTS[t]);
+                    System.out.printf("%10.2f", done / (RUN_MILLIS * 1000.0));
+                    batchSizes[t] = (async.batchedOperations() - ops) / (double) Math.max(1, async.batches() - batches);
+                }
+                System.out.printf("%n%-22s", "  ops per batch");
+                for (double batchSize : batchSizes) {
+                    System.out.printf("%10.1f", batchSize);
+                }
+                System.out.println();
+            }
+        }
+        printMixed("DS_Hash + global lock", fill(new GlobalLock(new DS_Hash())));
+    }
+
+    /**
+     * @param ds filled data structure to use
+     * @param threads number of threads
+     * @return total operations completed by all threads in RUN_MILLIS, a remove and its
+     *         reinsert counting as one
+     */
+    private static long runAsync(DS_Async<String, String> ds, int threads) throws InterruptedException {
+        int window = 64;
+        AtomicBoolean stop = new AtomicBoolean();
+        long[] counts = new long[threads];
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                CompletableFuture<?>[] inFlight = new CompletableFuture<?>[window];
+                long ops = 0;
+                while (!stop.get()) {
+                    int slot = (int) (ops % window);
+                    if (inFlight[slot] != null) {
+                        inFlight[slot].join();
+                    }
+                    int i = random.nextInt(KEYS);
+                    String key = String.valueOf(i);
+                    if (ops % 10 == 0) {
+                        // Reinsert only if this thread's remove succeeded
+                        inFlight[slot] = ds.removeAsync(key).thenCompose(removed -> removed
+                                ? ds.insertAsync(key, "value" + i) : CompletableFuture.completedFuture(null));
+                    } else {
+                        inFlight[slot] = ds.getAsync(key);
+                    }
+                    ops++;
+                }
+                for (CompletableFuture<?> future : inFlight) {
+                    if (future != null) {
+                        future.join();
+                    }
+                }
+                counts[id] = ops;
+            });
+            workers[t].start();
+        }
+
+        Thread.sleep(RUN_MILLIS);
+        stop.set(true);
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            total += counts[t];
+        }
+        return total;
+    }
+
+    /**
+     * Memory per key: heap in use after building each data structure minus heap in use
+     * before, divided by the number of keys. Keys are generated on the fly and not kept
+     * anywhere else, so whatever the data structure retains of them is counted. Every key
+     * maps to the same value instance, so values don't count.
+     */
+    private static void memory() {
+        int[] sizes = { 100000, 1000000 };
+        System.out.println("memory: keys like " + prefixedKey(42) + ", retained bytes/key");
+        System.out.printf("%-12s%12d%12d%n", "keys", sizes[0], sizes[1]);
+
+        String[] names = { "DS_My", "DS_Hash", "DS_Radix" };
+        for (String name : names) {
+            System.out.printf("%-12s", name);
+            for (int n : sizes) {
+                if (name.equals("DS_My") && n > 100000) {
+                    // DS_My.insert scans the whole list, 1M inserts would take hours
+                    System.out.printf("%12s", "n/a");
+                    continue;
+                }
+                long before = usedHeap();
+                DataStructureADT<String, String> ds = name.equals("DS_My") ? new DS_My()
+                        : name.equals("DS_Hash") ? new DS_Hash() : new DS_Radix();
+                String value = "value";
+                for (int i = 0; i < n; i++) {
+                    ds.insert(prefixedKey(i), value);
+                }
+                long after = usedHeap();
+                if (ds.size() != n) {
+                    throw new IllegalStateException("lost keys");
+                }
+                System.out.printf("%12.1f", (after - before) / (double) n);
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Self-organizing lists: every Order of DS_My answers the same stream of lookups, starting
+     * from keys in insertion order. Popularity ranks are assigned to keys at random, so the
+     * hottest keys don't start near the head. Probes are key comparisons per lookup, counted
+     * by DS_My, and include the lookups made while the list was still reordering.
+     */
+    private static void zipf() {
+        int n = 10000;
+        int lookups = 100000;
+        Random random = new Random(42);
+        int[] rankToKey = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = random.nextInt(i + 1);
+            rankToKey[i] = rankToKey[j];
+            rankToKey[j] = i;
+        }
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / (rank + 1);
+            cdf[rank] = sum;
+        }
+        String[] zipf = new String[lookups];
+        String[] uniform = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            zipf[i] = String.valueOf(rankToKey[rank < 0 ? -rank - 1 : rank]);
+            uniform[i] = String.valueOf(random.nextInt(n));
+        }
+
+        System.out.println("zipf: " + n + " keys, " + lookups + " lookups from a fresh list");
+        System.out.printf("%-16s%16s%16s%16s%n", "order", "zipf probes", "zipf ns", "uniform probes");
+        for (DS_My.Order order : DS_My.Order.values()) {
+            lookups(order, n, zipf); // warm-up
+            System.out.printf("%-16s", order);
+            long[] result = lookups(order, n, zipf);
+            System.out.printf("%16.1f%16.1f", result[0] / (double) lookups, result[1] / (double) lookups);
+            result = lookups(order, n, uniform);
+            System.out.printf("%16.1f%n", result[0] / (double) lookups);
+        }
+    }
+
+    /**
+     * Scans: lookups of random present keys, which scan half the list on average, reported
+     * per lookup and per pair scanned, and memory measured like in memory(). Values are
+     * allocated along with the keys, so DS_My's nodes are interleaved with other objects
+     * in the heap as they would be in a real program.
+     */
+    private static void scan() {
+        int[] sizes = { 1000, 10000, 100000 };
+        int lookups = 20000;
+        System.out.println("scan: uniform lookups of present keys");
+        System.out.printf("%-12s%10s%14s%14s%14s%n", "", "keys", "ns/lookup", "ns/pair", "bytes/key");
+        for (String name : new String[] { "DS_My", "DS_Unrolled" }) {
+            for (int n : sizes) {
+                Random random = new Random(n);
+                String[] stream = new String[n >= 100000 ? lookups / 10 : lookups];
+                for (int i = 0; i < stream.length; i++) {
+                    stream[i] = String.valueOf(random.nextInt(n));
+                }
+
+                long before = usedHeap();
+                DataStructureADT<String, String> ds = name.equals("DS_My") ? new DS_My() : new DS_Unrolled();
+                for (int i = 0; i < n; i++) {
+                    ds.insert(String.valueOf(i), "value" + i);
+                }
+                long after = usedHeap();
+
+                scanLookups(ds, stream); // warm-up
+                long nanos = scanLookups(ds, stream);
+                // values were counted too, subtract what "value" + i retains
+                long valueBytes = 0;
+                for (int i = 0; i < n; i++) {
+                    valueBytes += 24 + 16 + ((5 + String.valueOf(i).length() + 7) & ~7);
+                }
+                System.out.printf("%-12s%10d%14.1f%14.2f%14.1f%n", name, n, nanos / (double) stream.length,
+                        nanos / (stream.length * (n + 1) / 2.0), (after - before - valueBytes) / (double) n);
+            }
+        }
+    }
+
+    /**
+     * @param ds data structure to read from
+     * @param stream present keys to look up
+     * @return nanoseconds spent on the lookups
+     */
+    private static long scanLookups(DataStructureADT<String, String> ds, String[] stream) {
+        boolean found = true;
+        long start = System.nanoTime();
+        for (String key : stream) {
+            found &= ds.get(key) != null;
+        }
+        long nanos = System.nanoTime() - start;
+        if (!found) {
+            throw new IllegalStateException("a present key was not found");
+        }
+        return nanos;
+    }
+
+    /**
+     * @param order order of the list
+     * @param n number of keys, "0" to n - 1, to insert first
+     * @param stream keys to look up, alternating get and contains
+     * @return key comparisons and nanoseconds spent on the lookups
+     */
+    private static long[] lookups(DS_My.Order order, int n, String[] stream) {
+        DS_My ds = new DS_My(order);
+        for (int i = 0; i < n; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        long comparisons = ds.comparisons();
+        boolean found = true;
+        long start = System.nanoTime();
+        for (int i = 0; i < stream.length; i++) {
+            found &= (i & 1) == 0 ? ds.get(stream[i]) != null : ds.contains(stream[i]);
+        }
+        long nanos = System.nanoTime() - start;
+        if (!found) {
+            throw new IllegalStateException("a present key was not found");
+        }
+        return new long[] { ds.comparisons() - comparisons, nanos };
+    }
+
+    /**
+     * @param i key number
+     * @return a key sharing a long prefix with every other key
+     */
+    private static String prefixedKey(int i) {
+        String digits = String.valueOf(i);
+        return "org.example.inventory.warehouse.item.0000000".substring(0, 44 - digits.length()) + digits;
+    }
+
+    /**
+     * @return bytes of heap in use after asking for a few garbage collections
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Runs the reader workload at each thread count and prints one row of results
+     *
+     * @param name label of the row
+     * @param ds filled data structure to read from
+     */
+    private static void printReaders(String name, DataStructureADT<String, String> ds)
+            throws InterruptedException {
+        System.out.printf("%-22s", name);
+        for (int threads : THREAD_COUNTS) {
+            runReaders(ds, threads); // warm-up
+            long ops = runReaders(ds, threads);
+            System.out.printf("%10.2f", ops / (RUN_MILLIS * 1000.0));
+        }
+        System.out.println();
+    }
+
+    /**
+     * Runs the mixed workload at each thread count and prints one row of results
+     *
+     * @param name label of the row
+     * @param ds filled data structure to use
+     */
+    private static void printMixed(String name, DataStructureADT<String, String> ds)
+            throws InterruptedException {
+        System.out.printf("%-22s", name);
+        for (int threads : THREAD_COUNTS) {
+            runMixed(ds, threads); // warm-up
+            long ops = runMixed(ds, threads);
+            System.out.printf("%10.2f", ops / (RUN_MILLIS * 1000.0));
+        }
+        System.out.println();
+    }
+
+    /**
+     * @param ds filled data structure to use
+     * @param threads number of threads
+     * @return total operations done by all threads in RUN_MILLIS, a remove and its
+     *         reinsert counting as one
+     */
+    private static long runMixed(DataStructureADT<String, String> ds, int threads)
+            throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        long[] counts = new long[threads];
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ops = 0;
+                while (!stop.get()) {
+                    int i = random.nextInt(KEYS);
+                    String key = String.valueOf(i);
+                    if (ops % 10 == 0) {
+                        // Only the thread whose remove succeeded puts the key back
+                        if (ds.remove(key)) {
+                            ds.insert(key, "value" + i);
+                        }
+                    } else {
+                        ds.get(key);
+                    }
+                    ops++;
+                }
+                counts[id] = ops;
+            });
+            workers[t].start();
+        }
+
+        Thread.sleep(RUN_MILLIS);
+        stop.set(true);
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            total += counts[t];
+        }
+        return total;
+    }
+
+    /**
+     * @param ds data structure to read from
+     * @param threads number of reader threads
+     * @return total lookups done by all threads in RUN_MILLIS
+     */
+    private static long runReaders(DataStructureADT<String, String> ds, int threads)
+            throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        long[] counts = new long[threads];
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ops = 0;
+                boolean found = true;
+                while (!stop.get()) {
+                    String key = String.valueOf(random.nextInt(KEYS));
+                    found &= (ops & 1) == 0 ? ds.get(key) != null : ds.contains(key);
+                    ops++;
+                }
+                if (!found) {
+                    throw new IllegalStateException("a present key was not found");
+                }
+                counts[id] = ops;
+            });
+            workers[t].start();
+        }
+
+        Thread.sleep(RUN_MILLIS);
+        stop.set(true);
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            total += counts[t];
+        }
+        return total;
+    }
+
+    /**
+     * @param ds empty data structure
+     * @return ds after inserting keys "0" to KEYS - 1
+     */
+    private static DataStructureADT<String, String> fill(DataStructureADT<String, String> ds) {
+        for (int i = 0; i < KEYS; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        return ds;
+    }
+
+    /**
+     * The baseline being replaced: one lock around every operation of a data structure
+     * that isn't thread-safe.
+     */
+    private static class GlobalLock implements DataStructureADT<String, String> {
+        private final DataStructureADT<String, String> ds;
+
+        GlobalLock(DataStructureADT<String, String> ds) {
+            this.ds = ds;
+        }
+
+        public synchronized void insert(String key, String value) { ds.insert(key, value); }
+        public synchronized boolean remove(String key) { return ds.remove(key); }
+        public synchronized String get(String key) { return ds.get(key); }
+        public synchronized boolean contains(String key) { return ds.contains(key); }
+        public synchronized int size() { return ds.size(); }
+        public DataStructureCursor<String, String> cursor() { return ds.cursor(); } // not benchmarked
+    }
+}
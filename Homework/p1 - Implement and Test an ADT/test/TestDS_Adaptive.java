@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Adaptive extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_Adaptive();
+    }
+
+    @Test
+    void test20_promotes_past_flat_max_and_demotes_below_flat_min() {
+        DS_Adaptive ds = new DS_Adaptive();
+        for (int i = 0; i < DS_Adaptive.FLAT_MAX; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        assertFalse(ds.isHashed());
+
+        ds.insert("promote", null);
+        assertTrue(ds.isHashed());
+        assertTrue(ds.contains("promote"));
+        assertNull(ds.get("promote"));
+
+        // Stays hashed until it drops below FLAT_MIN, then everything is still there
+        assertTrue(ds.remove("promote"));
+        for (int i = 0; i < DS_Adaptive.FLAT_MAX - DS_Adaptive.FLAT_MIN; i++) {
+            assertTrue(ds.isHashed());
+            assertTrue(ds.remove(String.valueOf(i)));
+        }
+        assertEquals(DS_Adaptive.FLAT_MIN, ds.size());
+        assertTrue(ds.isHashed());
+        assertTrue(ds.remove(String.valueOf(DS_Adaptive.FLAT_MAX - DS_Adaptive.FLAT_MIN)));
+        assertFalse(ds.isHashed());
+
+        for (int i = DS_Adaptive.FLAT_MAX - DS_Adaptive.FLAT_MIN + 1; i < DS_Adaptive.FLAT_MAX; i++) {
+            assertEquals("value" + i, ds.get(String.valueOf(i)));
+        }
+        assertEquals(DS_Adaptive.FLAT_MIN - 1, ds.size());
+    }
+
+    @Test
+    void test21_grow_and_shrink_through_many_transitions() {
+        DS_Adaptive ds = new DS_Adaptive();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 50000; i++) {
+                ds.insert(String.valueOf(i), "round" + round + "value" + i);
+            }
+            assertEquals(50000, ds.size());
+            for (int i = 0; i < 50000; i++) {
+                assertEquals("round" + round + "value" + i, ds.get(String.valueOf(i)));
+                assertTrue(ds.remove(String.valueOf(i)));
+                assertFalse(ds.contains(String.valueOf(i)));
+            }
+            assertEquals(0, ds.size());
+            assertFalse(ds.isHashed());
+        }
+    }
+
+    @Test
+    void test22_cursor_sees_every_pair_in_both_layouts() {
+        DS_Adaptive ds = new DS_Adaptive();
+        for (int n : new int[] { DS_Adaptive.FLAT_MAX, 100 }) {
+            for (int i = ds.size(); i < n; i++) {
+                ds.insert(String.valueOf(i), "value" + i);
+            }
+            assertEquals(n > DS_Adaptive.FLAT_MAX, ds.isHashed());
+            Set<String> seen = new HashSet<>();
+            DataStructureCursor<String, String> cursor = ds.cursor();
+            while (cursor.next()) {
+                assertTrue(seen.add(cursor.key()));
+                assertEquals("value" + cursor.key(), cursor.value());
+            }
+            assertEquals(n, seen.size());
+        }
+
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        assertTrue(cursor.next());
+        ds.remove(cursor.key());
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+    }
+
+}
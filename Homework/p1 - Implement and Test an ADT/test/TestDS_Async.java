@@ -0,0 +1,208 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Async extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_Async<String, String>(2, DS_Hash::new);
+    }
+
+    /**
+     * DS_Hash whose first insert waits until the gate opens, to hold up the owner thread
+     */
+    private static class Gated extends DS_Hash {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        public void insert(String key, String value) {
+            if (entered.getCount() > 0) {
+                entered.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            super.insert(key, value);
+        }
+    }
+
+    /**
+     * DS_Hash that throws an Error when asked to insert the key "error"
+     */
+    private static class Failing extends DS_Hash {
+        @Override
+        public void insert(String key, String value) {
+            if ("error".equals(key)) {
+                throw new AssertionError("backing DS failed");
+            }
+            super.insert(key, value);
+        }
+    }
+
+    @Test
+    void test20_owner_applies_queued_operations_as_one_batch() throws InterruptedException {
+        Gated gated = new Gated();
+        try (DS_Async<String, String> ds = new DS_Async<>(1, () -> gated)) {
+            CompletableFuture<Void> first = ds.insertAsync("first", "value");
+            gated.entered.await(); // the owner took a batch of one and is stuck in it
+
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[99];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = ds.insertAsync(String.valueOf(i), "value" + i);
+            }
+            assertEquals(99, ds.queueDepth());
+            assertFalse(first.isDone());
+
+            gated.gate.countDown();
+            CompletableFuture.allOf(futures).join();
+            assertEquals(100, ds.size());
+            assertEquals(0, ds.queueDepth());
+            assertEquals(2, ds.batches());
+            assertEquals(100, ds.batchedOperations());
+            assertEquals(99, ds.maxBatchSize());
+            assertEquals(99, ds.maxQueueDepth());
+            assertEquals(50.0, ds.meanBatchSize(), 1e-9);
+            long[] histogram = ds.batchSizeHistogram();
+            assertEquals(1, histogram[0]); // 1
+            assertEquals(1, histogram[6]); // 64 to 127
+        }
+    }
+
+    @Test
+    void test21_failures_complete_the_future_exceptionally() {
+        try (DS_Async<String, String> ds = new DS_Async<>(4, DS_Hash::new)) {
+            ds.insert("key", "value");
+            CompletableFuture<Void> duplicate = ds.insertAsync("key", "again");
+            CompletionException e = assertThrows(CompletionException.class, () -> duplicate.join());
+            assertEquals("duplicate key", e.getCause().getMessage());
+            assertThrows(RuntimeException.class, () -> ds.insert("key", "again"));
+
+            assertThrows(IllegalArgumentException.class, () -> ds.insertAsync(null, "value"));
+            assertThrows(IllegalArgumentException.class, () -> ds.getAsync(null));
+            assertFalse(ds.containsAsync(null).join());
+            assertEquals("value", ds.getAsync("key").join());
+            assertTrue(ds.removeAsync("key").join());
+            assertFalse(ds.containsAsync("key").join());
+            assertEquals(4, ds.shards());
+        }
+    }
+
+    @Test
+    void test22_close_finishes_queued_operations_then_rejects_new_ones() {
+        DS_Async<String, String> ds = new DS_Async<>(2, DS_Hash::new);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[1000];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = ds.insertAsync(String.valueOf(i), "value" + i);
+        }
+        ds.close();
+        for (CompletableFuture<?> future : futures) {
+            assertTrue(future.isDone() && !future.isCompletedExceptionally());
+        }
+        assertEquals(1000, ds.size());
+        assertThrows(IllegalStateException.class, () -> ds.insertAsync("late", "value"));
+        assertThrows(IllegalStateException.class, () -> ds.get("1"));
+        ds.close(); // does nothing the second time
+    }
+
+    @Test
+    void test23_many_threads_share_one_instance() throws InterruptedException {
+        try (DS_Async<Integer, Integer> ds = new DS_Async<>(4, DS_SkipList::new)) {
+            Thread[] threads = new Thread[8];
+            for (int t = 0; t < threads.length; t++) {
+                int base = t * 1000;
+                threads[t] = new Thread(() -> {
+                    CompletableFuture<?>[] futures = new CompletableFuture<?>[1000];
+                    for (int i = 0; i < 1000; i++) {
+                        futures[i] = ds.insertAsync(base + i, base + i);
+                    }
+                    CompletableFuture.allOf(futures).join();
+                    for (int i = 0; i < 1000; i += 2) {
+                        assertTrue(ds.remove(base + i));
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(4000, ds.size());
+            for (int i = 0; i < 8000; i++) {
+                assertEquals(i % 2 == 1 ? Integer.valueOf(i) : null, ds.get(i));
+            }
+            assertEquals(8000 + 4000 + 8000, ds.batchedOperations()); // inserts, removes, gets
+        }
+    }
+
+    @Test
+    void test24_error_in_backing_ds_fails_the_future_and_keeps_the_owner() {
+        try (DS_Async<String, String> ds = new DS_Async<>(1, Failing::new)) {
+            CompletableFuture<Void> failed = ds.insertAsync("error", "value");
+            CompletionException e = assertThrows(CompletionException.class, () -> failed.join());
+            assertTrue(e.getCause() instanceof AssertionError);
+            AssertionError error = assertThrows(AssertionError.class, () -> ds.insert("error", "value"));
+            assertEquals("backing DS failed", error.getMessage());
+
+            // the owner is still running, so later operations on the shard complete
+            ds.insert("key", "value");
+            assertEquals("value", ds.get("key"));
+            assertEquals(1, ds.size());
+        }
+    }
+
+    @Test
+    void test25_cursor_and_spliterator_see_every_shard() {
+        try (DS_Async<String, String> ds = new DS_Async<>(4, DS_Hash::new)) {
+            Map<String, String> expected = new HashMap<>();
+            for (int i = 0; i < 1000; i++) {
+                ds.insertAsync(String.valueOf(i), "value" + i); // not waited for
+                expected.put(String.valueOf(i), "value" + i);
+            }
+
+            Map<String, String> seen = new HashMap<>();
+            DataStructureCursor<String, String> cursor = ds.cursor();
+            assertThrows(IllegalStateException.class, () -> cursor.key());
+            while (cursor.next()) {
+                assertNull(seen.put(cursor.key(), cursor.value()));
+            }
+            assertEquals(expected, seen);
+            assertFalse(cursor.next());
+            assertThrows(IllegalStateException.class, () -> cursor.value());
+
+            ds.remove("0");
+            cursor.reset();
+            int count = 0;
+            while (cursor.next()) {
+                count++;
+            }
+            assertEquals(999, count);
+            assertEquals(999, StreamSupport.stream(ds.spliterator(), false).count());
+
+            ds.close();
+            cursor.reset();
+            assertThrows(IllegalStateException.class, () -> cursor.next());
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Hash extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_Hash();
+    }
+
+    // DataStructureADT promises at least 1,000,000 pairs; a linear-time insert
+    // or remove would take far longer than the budget below
+    @Test
+    void test20_insert_remove_one_million_within_budget() {
+        int upperBound = 1000000;
+        DS_Hash ds = new DS_Hash();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < upperBound; i++) {
+                ds.insert(String.valueOf(i), "value" + i);
+            }
+            assertEquals(upperBound, ds.size());
+
+            for (int i = 0; i < upperBound; i++) {
+                String num = String.valueOf(i);
+                assertEquals("value" + i, ds.get(num));
+                assertTrue(ds.remove(num));
+            }
+            assertEquals(0, ds.size());
+        });
+    }
+
+    @Test
+    void test21_batch_operations_fall_back_to_single_operations() {
+        DS_Hash ds = new DS_Hash();
+        ds.insertAll(new String[] { "b", "a", "c" }, new String[] { "2", "1", "3" });
+        assertThrows(RuntimeException.class,
+                () -> ds.insertAll(new String[] { "d", "a" }, new String[] { "4", "1" }));
+        assertThrows(RuntimeException.class,
+                () -> ds.insertAll(new String[] { "d", "d" }, new String[] { "4", "4" }));
+        assertEquals(3, ds.size());
+        assertFalse(ds.contains("d"));
+
+        String[] values = new String[4];
+        ds.getAll(new String[] { "c", "x", "a", "c" }, values);
+        assertArrayEquals(new String[] { "3", null, "1", "3" }, values);
+
+        assertArrayEquals(new boolean[] { true, false, false }, ds.removeAll(new String[] { "a", "a", "x" }));
+        assertEquals(2, ds.size());
+    }
+
+    @Test
+    void test22_cursor_visits_every_entry_once() {
+        DS_Hash ds = new DS_Hash();
+        for (int i = 0; i < 1000; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        Set<String> seen = new HashSet<>();
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        while (cursor.next()) {
+            assertTrue(seen.add(cursor.key()));
+            assertEquals("value" + cursor.key(), cursor.value());
+        }
+        assertEquals(1000, seen.size());
+        assertFalse(new DS_Hash().cursor().next());
+
+        cursor.reset();
+        assertTrue(cursor.next());
+        ds.insert("new", "value");
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+    }
+
+    @Test
+    void test23_spliterator_splits_by_buckets() {
+        DS_Hash ds = new DS_Hash();
+        for (int i = 0; i < 1000; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        Spliterator<Map.Entry<String, String>> second = ds.spliterator();
+        Spliterator<Map.Entry<String, String>> first = second.trySplit();
+        assertNotNull(first);
+        Set<String> seen = new HashSet<>();
+        first.forEachRemaining(e -> assertTrue(seen.add(e.getKey())));
+        int firstCount = seen.size();
+        second.forEachRemaining(e -> assertTrue(seen.add(e.getKey())));
+        assertEquals(1000, seen.size());
+        assertTrue(firstCount > 0 && firstCount < 1000);
+
+        assertEquals(1000, StreamSupport.stream(ds.spliterator(), true).count());
+        assertThrows(ConcurrentModificationException.class,
+                () -> StreamSupport.stream(ds.spliterator(), false).forEach(e -> ds.remove(e.getKey())));
+    }
+
+}
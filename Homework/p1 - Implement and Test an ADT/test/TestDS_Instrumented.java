@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Instrumented extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        DS_My my = new DS_My();
+        return new DS_Instrumented<String, String>(my, my::comparisons);
+    }
+
+    @Test
+    void test20_counts_calls_and_comparisons_per_operation() {
+        DS_My my = new DS_My();
+        DS_Instrumented<String, String> ds = new DS_Instrumented<>(my, my::comparisons);
+        for (int i = 0; i < 10; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        assertThrows(RuntimeException.class, () -> ds.insert("3", "again"));
+        assertTrue(ds.contains("9"));
+        assertFalse(ds.contains("absent"));
+
+        DS_Instrumented.Snapshot snapshot = ds.snapshot();
+        assertEquals(11, snapshot.count(DS_Instrumented.Op.INSERT));
+        assertEquals(2, snapshot.count(DS_Instrumented.Op.CONTAINS));
+        assertEquals(0, snapshot.count(DS_Instrumented.Op.GET));
+        // Inserting into a list of i keys compares against all i, the duplicate "3" stops at 4
+        assertEquals(45 + 4, snapshot.comparisons(DS_Instrumented.Op.INSERT));
+        assertEquals(10 + 10, snapshot.comparisons(DS_Instrumented.Op.CONTAINS));
+        assertEquals(my.comparisons(), snapshot.comparisons(DS_Instrumented.Op.INSERT)
+                + snapshot.comparisons(DS_Instrumented.Op.CONTAINS));
+        assertTrue(snapshot.percentileNanos(DS_Instrumented.Op.INSERT, 50)
+                <= snapshot.maxNanos(DS_Instrumented.Op.INSERT));
+        assertEquals(0, snapshot.percentileNanos(DS_Instrumented.Op.GET, 99));
+    }
+
+    @Test
+    void test21_snapshot_and_reset_starts_a_new_interval() {
+        DS_Instrumented<String, String> ds = new DS_Instrumented<>(new DS_Hash());
+        ds.insert("a", "1");
+        ds.get("a");
+        ds.remove("a");
+
+        DS_Instrumented.Snapshot first = ds.snapshotAndReset();
+        assertEquals(1, first.count(DS_Instrumented.Op.INSERT));
+        assertEquals(1, first.count(DS_Instrumented.Op.GET));
+        assertEquals(1, first.count(DS_Instrumented.Op.REMOVE));
+        assertEquals(0, first.comparisons(DS_Instrumented.Op.GET)); // not counted without a supplier
+
+        ds.get("a");
+        DS_Instrumented.Snapshot second = ds.snapshot();
+        assertEquals(0, second.count(DS_Instrumented.Op.INSERT));
+        assertEquals(1, second.count(DS_Instrumented.Op.GET));
+        assertEquals(1, first.count(DS_Instrumented.Op.GET)); // earlier snapshot is unchanged
+    }
+
+    @Test
+    void test22_sampled_timing_still_counts_every_call() {
+        DS_Instrumented<String, String> ds = new DS_Instrumented<>(new DS_Hash(), null, 10);
+        ds.insert("a", "1");
+        for (int i = 0; i < 10000; i++) {
+            ds.get("a");
+        }
+
+        DS_Instrumented.Snapshot snapshot = ds.snapshot();
+        assertEquals(10000, snapshot.count(DS_Instrumented.Op.GET));
+        long timed = snapshot.timedCount(DS_Instrumented.Op.GET);
+        assertTrue(timed > 700 && timed < 1300, "about one call in ten is timed, got " + timed);
+        assertThrows(IllegalArgumentException.class, () -> new DS_Instrumented<>(new DS_Hash(), null, 0));
+    }
+
+    @Test
+    void test23_histogram_buckets_are_within_three_percent() {
+        Random random = new Random(400);
+        int previous = -1;
+        for (long nanos = 0; nanos < 100000; nanos++) {
+            int bucket = DS_Instrumented.bucketOf(nanos);
+            assertTrue(bucket == previous || bucket == previous + 1, "buckets are contiguous");
+            previous = bucket;
+            long highest = DS_Instrumented.highestInBucket(bucket);
+            assertTrue(highest >= nanos);
+            assertTrue(highest - nanos <= nanos / 32, "bucket too wide at " + nanos);
+        }
+        for (int i = 0; i < 100000; i++) {
+            long nanos = random.nextLong() >>> (1 + random.nextInt(63));
+            long highest = DS_Instrumented.highestInBucket(DS_Instrumented.bucketOf(nanos));
+            assertTrue(highest >= nanos);
+            assertTrue(highest - nanos <= nanos / 32, "bucket too wide at " + nanos);
+        }
+        assertEquals(Long.MAX_VALUE,
+                DS_Instrumented.highestInBucket(DS_Instrumented.bucketOf(Long.MAX_VALUE)));
+    }
+
+}
@@ -0,0 +1,215 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Mapped extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        try {
+            return new DS_Mapped(newStorePath(), false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Values are decoded from the mapped file, so get returns an equal String rather
+    // than the same instance that was inserted
+    @Override
+    @Test
+    void test05_get_after_inserts() {
+        DS_Mapped ds = (DS_Mapped) createInstance();
+        assert (ds.get("a") == null); // return null if key isn't in DS
+        ds.insert("1", "one");
+        ds.insert("2", "two");
+        assert (ds.get("1").equals("one"));
+        assert (ds.get("2").equals("two"));
+    }
+
+    @Test
+    void test20_reopen_keeps_inserts_and_removes() throws IOException {
+        Path path = newStorePath();
+        try (DS_Mapped ds = new DS_Mapped(path)) {
+            for (int i = 0; i < 5000; i++) {
+                ds.insert(String.valueOf(i), i % 3 == 0 ? null : "value" + i);
+            }
+            for (int i = 0; i < 5000; i += 2) {
+                assertTrue(ds.remove(String.valueOf(i)));
+            }
+        }
+
+        try (DS_Mapped ds = new DS_Mapped(path)) {
+            assertEquals(2500, ds.size());
+            for (int i = 0; i < 5000; i++) {
+                String num = String.valueOf(i);
+                if (i % 2 == 0) {
+                    assertFalse(ds.contains(num));
+                } else {
+                    assertTrue(ds.contains(num));
+                    assertEquals(i % 3 == 0 ? null : "value" + i, ds.get(num));
+                }
+            }
+            // The reopened store is writable and still rejects duplicates
+            ds.insert("0", "zero");
+            assertThrows(RuntimeException.class, () -> ds.insert("1", "one"));
+        }
+    }
+
+    @Test
+    void test21_uncommitted_record_is_ignored_after_reopen() throws IOException {
+        Path path = newStorePath();
+        try (DS_Mapped ds = new DS_Mapped(path)) {
+            ds.insert("1", "one");
+        }
+
+        // Simulate a crash after a record was appended but before it was committed:
+        // garbage past the committed end must not show up as a pair
+        byte[] garbage = new byte[64];
+        for (int i = 0; i < garbage.length; i++) {
+            garbage[i] = (byte) 0x7f;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        System.arraycopy(garbage, 0, bytes, 64, garbage.length);
+        Files.write(path, bytes);
+
+        try (DS_Mapped ds = new DS_Mapped(path)) {
+            assertEquals(1, ds.size());
+            assertEquals("one", ds.get("1"));
+            ds.insert("2", "two");
+            assertEquals("two", ds.get("2"));
+        }
+    }
+
+    @Test
+    void test22_rejects_files_that_are_not_stores() throws IOException {
+        Path path = newStorePath();
+        Files.write(path, "not a store".getBytes());
+        assertThrows(IOException.class, () -> new DS_Mapped(path));
+    }
+
+    @Test
+    void test23_store_left_half_created_by_a_crash_is_created_again() throws IOException {
+        // Simulate a crash after the data file was extended but before its header was
+        // written: it is all zeros and may have no index next to it
+        Path path = newStorePath();
+        Files.write(path, new byte[1 << 16]);
+        try (DS_Mapped ds = new DS_Mapped(path)) {
+            assertEquals(0, ds.size());
+            ds.insert("1", "one");
+        }
+        try (DS_Mapped ds = new DS_Mapped(path)) {
+            assertEquals("one", ds.get("1"));
+        }
+
+        Path shortPath = newStorePath();
+        Files.write(shortPath, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> new DS_Mapped(shortPath));
+    }
+
+    @Test
+    void test24_cursor_walks_a_reopened_store() throws IOException {
+        Path path = newStorePath();
+        Map<String, String> expected = new HashMap<>();
+        try (DS_Mapped ds = new DS_Mapped(path, false)) {
+            for (int i = 0; i < 2000; i++) {
+                ds.insert(String.valueOf(i), i % 3 == 0 ? null : "value" + i);
+                expected.put(String.valueOf(i), i % 3 == 0 ? null : "value" + i);
+            }
+            for (int i = 0; i < 2000; i += 2) {
+                ds.remove(String.valueOf(i));
+                expected.remove(String.valueOf(i));
+            }
+        }
+
+        DS_Mapped ds = new DS_Mapped(path, false);
+        Map<String, String> seen = new HashMap<>();
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        while (cursor.next()) {
+            seen.put(cursor.key(), cursor.value());
+        }
+        assertEquals(expected, seen);
+
+        cursor.reset();
+        assertTrue(cursor.next());
+        ds.insert("new", "value");
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+        ds.close();
+        assertThrows(IllegalStateException.class, () -> cursor.next());
+    }
+
+    @Test
+    void test25_missing_or_short_index_is_rejected_without_leaking() throws IOException {
+        Path path = newStorePath();
+        Path indexPath = Paths.get(path + ".idx");
+        try (DS_Mapped ds = new DS_Mapped(path)) {
+            ds.insert("1", "one");
+        }
+        byte[] index = Files.readAllBytes(indexPath);
+
+        Files.delete(indexPath);
+        int openFiles = openFiles();
+        for (int i = 0; i < 20; i++) {
+            assertThrows(NoSuchFileException.class, () -> new DS_Mapped(path));
+        }
+        Files.write(indexPath, new byte[] {1, 2});
+        for (int i = 0; i < 20; i++) {
+            IOException e = assertThrows(IOException.class, () -> new DS_Mapped(path));
+            assertTrue(e.getMessage().startsWith("not a DS_Mapped index file"));
+        }
+        assertEquals(openFiles, openFiles(), "file descriptors leaked");
+
+        // The data file was left alone, so restoring the index brings the store back
+        Files.write(indexPath, index);
+        try (DS_Mapped ds = new DS_Mapped(path)) {
+            assertEquals("one", ds.get("1"));
+        }
+    }
+
+    /**
+     * @return a path in the temp directory that no store exists at yet, whose files are
+     * removed when the JVM exits
+     */
+    private static Path newStorePath() {
+        try {
+            Path path = Files.createTempFile("ds_mapped", ".dat");
+            Files.delete(path);
+            path.toFile().deleteOnExit();
+            Paths.get(path + ".idx").toFile().deleteOnExit();
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return number of files this JVM has open, or 0 where /proc/self/fd doesn't exist
+     */
+    private static int openFiles() {
+        File fds = new File("/proc/self/fd");
+        String[] names = fds.list();
+        return names == null ? 0 : names.length;
+    }
+
+}
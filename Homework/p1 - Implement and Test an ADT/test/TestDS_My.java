@@ -1,3 +1,12 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ConcurrentModificationException;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
 // TO TEST A DATA STRUCTURE CLASS:
 //
 // for each data structure class file you wish to test:
@@ -16,4 +25,160 @@ public class TestDS_My extends DataStructureADTTest {
         return new DS_My();
     }
 
+    @Test
+    void test20_insertAll_appends_batch_in_order() {
+        DS_My ds = new DS_My();
+        ds.insert("a", "1");
+        ds.insertAll(new String[] { "c", "b", "d" }, new String[] { "3", "2", null });
+        assertEquals(4, ds.size());
+        assertEquals("3", ds.get("c"));
+        assertNull(ds.get("d"));
+        assertTrue(ds.contains("d"));
+
+        // A lookup of the last key inserted scans the whole list
+        long before = ds.comparisons();
+        ds.get("d");
+        assertEquals(4, ds.comparisons() - before);
+
+        ds.insertAll(new String[0], new String[0]);
+        assertEquals(4, ds.size());
+    }
+
+    @Test
+    void test21_insertAll_rejects_bad_batches_without_changing_anything() {
+        DS_My ds = new DS_My();
+        ds.insertAll(new String[] { "1", "2", "3" }, new String[] { "1", "2", "3" });
+        assertThrows(RuntimeException.class,
+                () -> ds.insertAll(new String[] { "9", "2" }, new String[] { "9", "2" }));
+        assertThrows(RuntimeException.class,
+                () -> ds.insertAll(new String[] { "7", "8", "7" }, new String[] { "7", "8", "7" }));
+        assertThrows(IllegalArgumentException.class,
+                () -> ds.insertAll(new String[] { "5", null }, new String[] { "5", "x" }));
+        assertThrows(IllegalArgumentException.class,
+                () -> ds.insertAll(new String[] { "5" }, new String[0]));
+        assertEquals(3, ds.size());
+        assertFalse(ds.contains("9"));
+        assertFalse(ds.contains("7"));
+        assertFalse(ds.contains("5"));
+    }
+
+    @Test
+    void test22_getAll_answers_in_input_order_in_one_pass() {
+        DS_My ds = new DS_My();
+        for (int i = 0; i < 100; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        String[] keys = { "42", "absent", "7", "42", "99" };
+        String[] values = { "stale", "stale", "stale", "stale", "stale" };
+        long before = ds.comparisons();
+        ds.getAll(keys, values);
+        assertArrayEquals(new String[] { "value42", null, "value7", "value42", "value99" }, values);
+        assertEquals(100, ds.comparisons() - before); // every node looked at once
+
+        // Stops as soon as every key is found
+        before = ds.comparisons();
+        ds.getAll(new String[] { "3", "1" }, values = new String[2]);
+        assertArrayEquals(new String[] { "value3", "value1" }, values);
+        assertEquals(4, ds.comparisons() - before);
+
+        assertThrows(IllegalArgumentException.class, () -> ds.getAll(new String[] { null }, new String[1]));
+        assertThrows(IllegalArgumentException.class, () -> ds.getAll(new String[2], new String[1]));
+    }
+
+    @Test
+    void test23_removeAll_reports_each_key_once() {
+        DS_My ds = new DS_My();
+        for (int i = 0; i < 10; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        boolean[] removed = ds.removeAll(new String[] { "0", "9", "absent", "5", "0" });
+        assertArrayEquals(new boolean[] { true, true, false, true, false }, removed);
+        assertEquals(7, ds.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i != 0 && i != 5 && i != 9, ds.contains(String.valueOf(i)));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> ds.removeAll(new String[] { "1", null }));
+        assertEquals(7, ds.size());
+        ds.removeAll(new String[] { "1", "2", "3", "4", "6", "7", "8" });
+        assertEquals(0, ds.size());
+        ds.insert("again", "value");
+        assertEquals("value", ds.get("again"));
+    }
+
+    @Test
+    void test24_cursor_walks_in_insertion_order_without_allocating() {
+        DS_My ds = new DS_My();
+        int n = 100000;
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = String.valueOf(i);
+        }
+        ds.insertAll(keys, keys);
+
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        assertThrows(IllegalStateException.class, () -> cursor.key());
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int pass = 0; pass < 3; pass++) {
+            cursor.reset();
+            long before = threads.getThreadAllocatedBytes(thread);
+            int i = 0;
+            boolean inOrder = true;
+            while (cursor.next()) {
+                inOrder &= cursor.key() == keys[i] && cursor.value() == keys[i];
+                i++;
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            assertTrue(inOrder);
+            assertEquals(n, i);
+            assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+        }
+        assertFalse(cursor.next()); // stays past the end
+        assertThrows(IllegalStateException.class, () -> cursor.value());
+    }
+
+    @Test
+    void test25_cursor_fails_fast_until_reset() {
+        DS_My ds = new DS_My(DS_My.Order.MOVE_TO_FRONT);
+        for (int i = 0; i < 10; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        assertTrue(cursor.next());
+        ds.get("0"); // already the head, nothing moves
+        assertTrue(cursor.next());
+        ds.get("5"); // moves to the head
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+
+        cursor.reset();
+        assertTrue(cursor.next());
+        assertEquals("5", cursor.key());
+        ds.remove("9");
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+        cursor.reset();
+        ds.insert("10", "value10");
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+    }
+
+    @Test
+    void test26_spliterator_feeds_parallel_streams() {
+        DS_My ds = new DS_My();
+        for (int i = 0; i < 10000; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        long sum = StreamSupport.stream(ds.spliterator(), true)
+                .mapToLong(e -> Long.parseLong(e.getKey())).sum();
+        assertEquals(9999L * 10000 / 2, sum);
+        assertTrue(StreamSupport.stream(ds.spliterator(), true)
+                .allMatch(e -> e.getValue().equals("value" + e.getKey())));
+        assertNotNull(ds.spliterator().trySplit());
+
+        assertThrows(ConcurrentModificationException.class,
+                () -> StreamSupport.stream(ds.spliterator(), false).forEach(e -> ds.remove(e.getKey())));
+        Map.Entry<String, String> first = StreamSupport.stream(ds.spliterator(), false).findFirst().get();
+        assertThrows(UnsupportedOperationException.class, () -> first.setValue("changed"));
+    }
+
 }
@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_MyMoveToFront extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_My(DS_My.Order.MOVE_TO_FRONT);
+    }
+
+    @Test
+    void test20_lookup_moves_key_to_head() {
+        DS_My ds = new DS_My(DS_My.Order.MOVE_TO_FRONT);
+        for (int i = 0; i < 10; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        long before = ds.comparisons();
+        assertEquals("value7", ds.get("7"));
+        assertEquals(8, ds.comparisons() - before);
+
+        // 7 is now at the head, and the keys it passed moved back by one
+        before = ds.comparisons();
+        assertTrue(ds.contains("7"));
+        assertEquals(1, ds.comparisons() - before);
+        before = ds.comparisons();
+        assertEquals("value6", ds.get("6"));
+        assertEquals(8, ds.comparisons() - before);
+    }
+
+    @Test
+    void test21_moved_keys_can_be_removed_anywhere() {
+        DS_My ds = new DS_My(DS_My.Order.MOVE_TO_FRONT);
+        for (int i = 0; i < 5; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        assertTrue(ds.contains("4")); // tail to head: 4 0 1 2 3
+        assertTrue(ds.remove("3")); // new tail
+        assertTrue(ds.remove("4")); // head
+        ds.insert("5", "value5");
+        assertTrue(ds.contains("5")); // 5 0 1 2
+        assertEquals(4, ds.size());
+        for (String key : new String[] { "0", "1", "2", "5" }) {
+            assertEquals("value" + key, ds.get(key));
+        }
+        assertFalse(ds.contains("3"));
+        assertFalse(ds.contains("4"));
+    }
+
+    @Test
+    void test22_insert_and_remove_do_not_reorder() {
+        DS_My ds = new DS_My(DS_My.Order.MOVE_TO_FRONT);
+        for (int i = 0; i < 10; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        assertThrows(RuntimeException.class, () -> ds.insert("9", "again"));
+        assertFalse(ds.remove("absent"));
+        long before = ds.comparisons();
+        assertTrue(ds.contains("9"));
+        assertEquals(10, ds.comparisons() - before);
+    }
+
+}
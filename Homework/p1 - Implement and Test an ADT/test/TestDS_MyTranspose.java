@@ -0,0 +1,61 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_MyTranspose extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_My(DS_My.Order.TRANSPOSE);
+    }
+
+    @Test
+    void test20_lookup_moves_key_back_by_one() {
+        DS_My ds = new DS_My(DS_My.Order.TRANSPOSE);
+        for (int i = 0; i < 10; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        long before = ds.comparisons();
+        assertEquals("value7", ds.get("7"));
+        assertEquals(8, ds.comparisons() - before);
+
+        // 7 and 6 swapped places
+        before = ds.comparisons();
+        assertTrue(ds.contains("7"));
+        assertEquals(7, ds.comparisons() - before);
+        before = ds.comparisons();
+        assertEquals("value6", ds.get("6"));
+        assertEquals(8, ds.comparisons() - before);
+    }
+
+    @Test
+    void test21_repeated_lookups_reach_head_and_stay() {
+        DS_My ds = new DS_My(DS_My.Order.TRANSPOSE);
+        for (int i = 0; i < 5; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        for (int i = 0; i < 6; i++) {
+            assertEquals("value4", ds.get("4"));
+        }
+        long before = ds.comparisons();
+        assertTrue(ds.contains("4"));
+        assertEquals(1, ds.comparisons() - before);
+        assertTrue(ds.remove("4"));
+        assertEquals(4, ds.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("value" + i, ds.get(String.valueOf(i)));
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_OffHeap extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_OffHeap();
+    }
+
+    // Values are decoded from off-heap bytes, so get returns an equal String rather
+    // than the same instance that was inserted
+    @Override
+    @Test
+    void test05_get_after_inserts() {
+        DS_OffHeap ds = new DS_OffHeap();
+        assert (ds.get("a") == null); // return null if key isn't in DS
+        ds.insert("1", "one");
+        ds.insert("2", "two");
+        assert (ds.get("1").equals("one"));
+        assert (ds.get("2").equals("two"));
+        ds.close();
+    }
+
+    @Test
+    void test20_null_values_and_multibyte_keys_round_trip() {
+        try (DS_OffHeap ds = new DS_OffHeap()) {
+            ds.insert("caf\u00e9", "cr\u00e8me");
+            ds.insert("cafe", null);
+            assertEquals("cr\u00e8me", ds.get("caf\u00e9"));
+            assertNull(ds.get("cafe"));
+            assertTrue(ds.contains("cafe"));
+            assertEquals(2, ds.size());
+        }
+    }
+
+    @Test
+    void test21_churn_compacts_and_keeps_values() {
+        try (DS_OffHeap ds = new DS_OffHeap()) {
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 20000; i++) {
+                    ds.insert("key" + i, "round" + round + "value" + i);
+                }
+                for (int i = 0; i < 20000; i += 2) {
+                    assertTrue(ds.remove("key" + i));
+                }
+                for (int i = 1; i < 20000; i += 2) {
+                    assertEquals("round" + round + "value" + i, ds.get("key" + i));
+                    assertTrue(ds.remove("key" + i));
+                }
+                assertEquals(0, ds.size());
+            }
+            // Dead records must have been compacted away rather than accumulating
+            assertTrue(ds.offHeapBytesInUse() < 5 * 20000 * 30);
+        }
+    }
+
+    @Test
+    void test22_close_frees_memory_and_rejects_use() {
+        DS_OffHeap ds = new DS_OffHeap();
+        ds.insert("1", "one");
+        assertTrue(ds.offHeapBytesInUse() > 0);
+        ds.close();
+        assertEquals(0, ds.offHeapBytesInUse());
+        assertThrows(IllegalStateException.class, () -> ds.get("1"));
+        ds.close(); // closing twice has no effect
+    }
+
+    @Test
+    void test23_cursor_decodes_every_record() {
+        DS_OffHeap ds = new DS_OffHeap();
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String key = "k\u00e9y" + i;
+            String value = i % 5 == 0 ? null : "v\u00e4lue" + i;
+            ds.insert(key, value);
+            expected.put(key, value);
+        }
+        Map<String, String> seen = new HashMap<>();
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        while (cursor.next()) {
+            seen.put(cursor.key(), cursor.value());
+        }
+        assertEquals(expected, seen);
+
+        cursor.reset();
+        assertTrue(cursor.next());
+        ds.remove(cursor.key());
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+        ds.close();
+        assertThrows(IllegalStateException.class, () -> cursor.next());
+        assertThrows(IllegalStateException.class, () -> ds.cursor());
+    }
+
+}
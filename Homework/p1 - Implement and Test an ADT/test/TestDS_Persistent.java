@@ -0,0 +1,184 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Persistent extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_Persistent<String, String>();
+    }
+
+    @Test
+    void test20_snapshot_does_not_see_later_writes() {
+        DS_Persistent<String, String> ds = new DS_Persistent<>();
+        for (int i = 0; i < 100; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        DS_Persistent<String, String> snapshot = ds.snapshot();
+        for (int i = 0; i < 100; i += 2) {
+            ds.remove(String.valueOf(i));
+        }
+        ds.insert("new", "value");
+
+        assertEquals(51, ds.size());
+        assertEquals(100, snapshot.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, snapshot.get(String.valueOf(i)));
+        }
+        assertFalse(snapshot.contains("new"));
+        assertSame(snapshot, snapshot.snapshot());
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.insert("x", "y"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove("1"));
+        assertEquals(100, snapshot.size());
+    }
+
+    @Test
+    void test21_keys_with_equal_hash_codes() {
+        // "Aa" and "BB" have the same hash code, so all 8 of these do too
+        String[] keys = { "AaAaAa", "AaAaBB", "AaBBAa", "AaBBBB", "BBAaAa", "BBAaBB", "BBBBAa", "BBBBBB" };
+        DS_Persistent<String, String> ds = new DS_Persistent<>();
+        for (String key : keys) {
+            ds.insert(key, key.toLowerCase());
+        }
+        assertThrows(RuntimeException.class, () -> ds.insert("AaBBAa", "again"));
+        assertNull(ds.get("AaAaAb"));
+        for (String key : keys) {
+            assertEquals(key.toLowerCase(), ds.get(key));
+        }
+        DS_Persistent<String, String> snapshot = ds.snapshot();
+        for (int i = 0; i < keys.length; i++) {
+            assertTrue(ds.remove(keys[i]));
+            assertFalse(ds.remove(keys[i]));
+            for (int j = 0; j < keys.length; j++) {
+                assertEquals(j > i, ds.contains(keys[j]));
+            }
+        }
+        assertEquals(0, ds.size());
+        assertEquals(keys.length, snapshot.size());
+    }
+
+    @Test
+    void test22_random_inserts_and_removes_match_a_map() {
+        DS_Persistent<Integer, Integer> ds = new DS_Persistent<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int op = 0; op < 100000; op++) {
+            // Narrow hash codes, so most keys share the first few levels
+            Integer key = random.nextInt(5000) << random.nextInt(20);
+            if (random.nextInt(3) > 0) {
+                if (expected.containsKey(key)) {
+                    assertThrows(RuntimeException.class, () -> ds.insert(key, 0));
+                } else {
+                    ds.insert(key, op);
+                    expected.put(key, op);
+                }
+            } else {
+                assertEquals(expected.remove(key) != null, ds.remove(key));
+            }
+        }
+        assertEquals(expected.size(), ds.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), ds.get(entry.getKey()));
+        }
+        DataStructureCursor<Integer, Integer> cursor = ds.cursor();
+        Set<Integer> seen = new HashSet<>();
+        while (cursor.next()) {
+            assertTrue(seen.add(cursor.key()));
+            assertEquals(expected.get(cursor.key()), cursor.value());
+        }
+        assertEquals(expected.keySet(), seen);
+    }
+
+    @Test
+    void test23_cursor_keeps_walking_the_version_it_started_on() {
+        DS_Persistent<String, String> ds = new DS_Persistent<>();
+        for (int i = 0; i < 1000; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            ds.remove(cursor.key()); // never fails, the cursor doesn't see it
+            count++;
+        }
+        assertEquals(1000, count);
+        assertEquals(0, ds.size());
+        cursor.reset();
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void test24_readers_iterate_snapshots_while_writer_writes() throws InterruptedException {
+        DS_Persistent<Integer, Integer> ds = new DS_Persistent<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        // The writer keeps keys 0 to 9999 present, each with value equal to the key, except
+        // while it removes and reinserts one. Every key and value sums to a known total.
+        for (int i = 0; i < 10000; i++) {
+            ds.insert(i, i);
+        }
+        Thread writer = new Thread(() -> {
+            Random random = new Random(1);
+            while (!stop.get()) {
+                int key = random.nextInt(10000);
+                ds.remove(key);
+                ds.insert(key, key);
+            }
+        });
+        Thread[] readers = new Thread[2];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                for (int pass = 0; pass < 50; pass++) {
+                    DS_Persistent<Integer, Integer> snapshot = ds.snapshot();
+                    DataStructureCursor<Integer, Integer> cursor = snapshot.cursor();
+                    long sum = 0;
+                    int count = 0;
+                    while (cursor.next()) {
+                        if (!cursor.key().equals(cursor.value())) {
+                            failure.set("torn entry " + cursor.key());
+                        }
+                        sum += cursor.key();
+                        count++;
+                    }
+                    if (count != snapshot.size() || (count == 10000 && sum != 9999L * 10000 / 2)) {
+                        failure.set("inconsistent snapshot: " + count + " entries, sum " + sum);
+                    }
+                }
+            });
+        }
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        stop.set(true);
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(10000, ds.size());
+    }
+
+}
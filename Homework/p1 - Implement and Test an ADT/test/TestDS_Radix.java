@@ -0,0 +1,153 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Radix extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_Radix();
+    }
+
+    @Test
+    void test20_keys_that_are_prefixes_of_each_other() {
+        DS_Radix ds = new DS_Radix();
+        ds.insert("team", "1");
+        ds.insert("tea", "2");
+        ds.insert("teams", "3");
+        ds.insert("", "empty");
+        ds.insert("te", null);
+
+        assertEquals(5, ds.size());
+        assertEquals("1", ds.get("team"));
+        assertEquals("2", ds.get("tea"));
+        assertEquals("3", ds.get("teams"));
+        assertEquals("empty", ds.get(""));
+        assertTrue(ds.contains("te"));
+        assertFalse(ds.contains("t"));
+        assertFalse(ds.contains("teamsters"));
+        assertThrows(RuntimeException.class, () -> ds.insert("tea", "again"));
+        assertThrows(RuntimeException.class, () -> ds.insert("", "again"));
+
+        // Removing a key in the middle of a chain keeps the keys below and above it
+        assertTrue(ds.remove("tea"));
+        assertFalse(ds.remove("tea"));
+        assertEquals("1", ds.get("team"));
+        assertEquals("3", ds.get("teams"));
+        assertTrue(ds.remove("teams"));
+        assertTrue(ds.remove("te"));
+        assertEquals("1", ds.get("team"));
+        assertTrue(ds.remove(""));
+        assertEquals(1, ds.size());
+    }
+
+    @Test
+    void test21_prefix_scan_visits_only_matching_keys_in_order() {
+        DS_Radix ds = new DS_Radix();
+        List<String> keys = Arrays.asList("apple", "applesauce", "application", "apply", "apt",
+                "banana", "band", "ap");
+        for (String key : keys) {
+            ds.insert(key, key.toUpperCase());
+        }
+
+        List<String> found = new ArrayList<>();
+        ds.forEachWithPrefix("appl", (key, value) -> {
+            assertEquals(key.toUpperCase(), value);
+            found.add(key);
+        });
+        assertEquals(Arrays.asList("apple", "applesauce", "application", "apply"), found);
+
+        // A prefix that ends part way along an edge
+        found.clear();
+        ds.forEachWithPrefix("ban", (key, value) -> found.add(key));
+        assertEquals(Arrays.asList("banana", "band"), found);
+
+        found.clear();
+        ds.forEachWithPrefix("apples", (key, value) -> found.add(key));
+        assertEquals(Arrays.asList("applesauce"), found);
+
+        found.clear();
+        ds.forEachWithPrefix("apx", (key, value) -> found.add(key));
+        ds.forEachWithPrefix("bananas", (key, value) -> found.add(key));
+        assertTrue(found.isEmpty());
+
+        found.clear();
+        ds.forEachWithPrefix("", (key, value) -> found.add(key));
+        assertEquals(Arrays.asList("ap", "apple", "applesauce", "application", "apply", "apt",
+                "banana", "band"), found);
+    }
+
+    @Test
+    void test22_random_churn_matches_reference() {
+        DS_Radix ds = new DS_Radix();
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(400);
+
+        for (int i = 0; i < 50000; i++) {
+            // Short keys over a small alphabet produce lots of shared prefixes and splits
+            StringBuilder key = new StringBuilder();
+            int length = random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                key.append((char) ('a' + random.nextInt(3)));
+            }
+            String k = key.toString();
+            if (random.nextBoolean()) {
+                assertEquals(expected.containsKey(k), ds.contains(k));
+                if (!expected.containsKey(k)) {
+                    ds.insert(k, "v" + i);
+                    expected.put(k, "v" + i);
+                }
+            } else {
+                assertEquals(expected.remove(k) != null, ds.remove(k));
+            }
+            assertEquals(expected.size(), ds.size());
+        }
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), ds.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void test23_cursor_rebuilds_keys_in_sorted_order() {
+        DS_Radix ds = new DS_Radix();
+        String[] sorted = { "", "a", "ab", "abc", "abd", "b", "romane", "romanus", "rubens" };
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            ds.insert(sorted[i], "value" + sorted[i]);
+        }
+        List<String> keys = new ArrayList<>();
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        while (cursor.next()) {
+            assertEquals("value" + cursor.key(), cursor.value());
+            keys.add(cursor.key());
+        }
+        assertEquals(Arrays.asList(sorted), keys);
+        assertFalse(cursor.next());
+        assertThrows(IllegalStateException.class, () -> cursor.key());
+        assertFalse(new DS_Radix().cursor().next());
+
+        cursor.reset();
+        assertTrue(cursor.next());
+        ds.remove("ab");
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+    }
+
+}
@@ -0,0 +1,147 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_SkipList extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_SkipList<String, String>();
+    }
+
+    @Test
+    void test20_concurrent_inserts_of_disjoint_keys() throws InterruptedException {
+        DS_SkipList<Integer, String> ds = new DS_SkipList<>();
+        int threads = 4;
+        int perThread = 20000;
+
+        runInParallel(threads, t -> {
+            for (int i = t; i < threads * perThread; i += threads) {
+                ds.insert(i, "value" + i);
+            }
+        });
+
+        assertEquals(threads * perThread, ds.size());
+        for (int i = 0; i < threads * perThread; i++) {
+            assertEquals("value" + i, ds.get(i));
+        }
+    }
+
+    @Test
+    void test21_each_key_is_removed_exactly_once_under_contention() throws InterruptedException {
+        DS_SkipList<Integer, String> ds = new DS_SkipList<>();
+        int keys = 20000;
+        for (int i = 0; i < keys; i++) {
+            ds.insert(i, "value" + i);
+        }
+
+        // Every thread tries to remove every key, only one may succeed per key
+        AtomicInteger removed = new AtomicInteger();
+        runInParallel(4, t -> {
+            for (int i = 0; i < keys; i++) {
+                if (ds.remove(i)) {
+                    removed.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(keys, removed.get());
+        assertEquals(0, ds.size());
+        for (int i = 0; i < keys; i++) {
+            assertFalse(ds.contains(i));
+        }
+    }
+
+    @Test
+    void test22_duplicate_insert_races_have_one_winner() throws InterruptedException {
+        DS_SkipList<Integer, String> ds = new DS_SkipList<>();
+        int keys = 20000;
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runInParallel(4, t -> {
+            for (int i = 0; i < keys; i++) {
+                try {
+                    ds.insert(i, "thread" + t);
+                } catch (RuntimeException e) {
+                    duplicates.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(keys, ds.size());
+        assertEquals(3 * keys, duplicates.get());
+    }
+
+    /**
+     * Runs task on the given number of threads at once and waits for all of them
+     *
+     * @param threads number of threads
+     * @param task work for each thread, given its thread number
+     */
+    private static void runInParallel(int threads, IntConsumer task)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> task.accept(id));
+            workers[t].setUncaughtExceptionHandler((thread, e) -> failure[0] = e);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure[0] != null) {
+            fail(failure[0]);
+        }
+    }
+
+    @Test
+    void test23_cursor_walks_keys_in_order_and_skips_removed_ones() {
+        DS_SkipList<Integer, String> ds = new DS_SkipList<>();
+        for (int i = 999; i >= 0; i--) {
+            ds.insert(i, "value" + i);
+        }
+        DataStructureCursor<Integer, String> cursor = ds.cursor();
+        assertThrows(IllegalStateException.class, () -> cursor.key());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(cursor.next());
+            assertEquals(Integer.valueOf(i), cursor.key());
+            assertEquals("value" + i, cursor.value());
+        }
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+
+        // Weakly consistent: removes during the walk are seen, nothing is thrown
+        cursor.reset();
+        assertTrue(cursor.next());
+        for (int i = 1; i < 1000; i += 2) {
+            ds.remove(i);
+        }
+        List<Integer> keys = new ArrayList<>();
+        while (cursor.next()) {
+            keys.add(cursor.key());
+        }
+        assertEquals(499, keys.size());
+        assertEquals(Integer.valueOf(2), keys.get(0));
+        assertEquals(500, StreamSupport.stream(ds.spliterator(), false).count());
+    }
+
+}
@@ -0,0 +1,154 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_SortedArray extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_SortedArray();
+    }
+
+    @Test
+    void test20_insertAll_unsorted_batch_then_sorted_append() {
+        DS_SortedArray<Integer, String> ds = new DS_SortedArray<>();
+        ds.insert(500, "single");
+
+        Integer[] keys = new Integer[1000];
+        String[] values = new String[1000];
+        for (int i = 0; i < 1000; i++) {
+            keys[i] = 1000 + (i * 7919) % 1000; // every key 1000..1999 once, shuffled
+            values[i] = "v" + keys[i];
+        }
+        ds.insertAll(keys, values);
+        assertEquals(1001, ds.size());
+        assertEquals("single", ds.get(500));
+        assertEquals("v1000", ds.get(1000));
+        assertEquals("v1999", ds.get(1999));
+
+        // Already sorted and after every stored key: appended
+        Integer[] tail = { 2000, 2001, 2002 };
+        ds.insertAll(tail, new String[] { "a", "b", null });
+        assertEquals(1004, ds.size());
+        assertEquals("b", ds.get(2001));
+        assertTrue(ds.contains(2002));
+        assertNull(ds.get(2002));
+    }
+
+    @Test
+    void test21_insertAll_rejects_bad_batches_without_changing_anything() {
+        DS_SortedArray<Integer, String> ds = new DS_SortedArray<>();
+        ds.insertAll(new Integer[] { 1, 2, 3 }, new String[] { "1", "2", "3" });
+
+        assertThrows(RuntimeException.class,
+                () -> ds.insertAll(new Integer[] { 9, 2 }, new String[] { "9", "2" }));
+        assertThrows(RuntimeException.class,
+                () -> ds.insertAll(new Integer[] { 7, 8, 7 }, new String[] { "7", "8", "7" }));
+        assertThrows(IllegalArgumentException.class,
+                () -> ds.insertAll(new Integer[] { 5, null }, new String[] { "5", "x" }));
+        assertThrows(IllegalArgumentException.class,
+                () -> ds.insertAll(new Integer[] { 5 }, new String[0]));
+
+        assertEquals(3, ds.size());
+        assertFalse(ds.contains(9));
+        assertFalse(ds.contains(7));
+        assertFalse(ds.contains(5));
+    }
+
+    @Test
+    void test22_random_churn_across_merges_matches_reference() {
+        DS_SortedArray<Integer, String> ds = new DS_SortedArray<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(400);
+
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(5000);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                assertEquals(expected.containsKey(key), ds.contains(key));
+                if (!expected.containsKey(key)) {
+                    ds.insert(key, "v" + i);
+                    expected.put(key, "v" + i);
+                }
+            } else if (op < 9) {
+                assertEquals(expected.remove(key) != null, ds.remove(key));
+            } else {
+                assertEquals(expected.get(key), ds.get(key));
+            }
+            assertEquals(expected.size(), ds.size());
+        }
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), ds.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void test23_bulk_load_one_million_keys() {
+        int n = 1000000;
+        Integer[] keys = new Integer[n];
+        String[] values = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = n - 1 - i; // reverse order, so the batch has to be sorted
+            values[i] = String.valueOf(n - 1 - i);
+        }
+
+        DS_SortedArray<Integer, String> ds = new DS_SortedArray<>();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> ds.insertAll(keys, values));
+        assertEquals(n, ds.size());
+        for (int i = 0; i < n; i += 997) {
+            assertEquals(String.valueOf(i), ds.get(i));
+        }
+    }
+
+    @Test
+    void test24_cursor_merges_main_arrays_and_delta_buffer_in_order() {
+        DS_SortedArray<Integer, String> ds = new DS_SortedArray<>();
+        Integer[] keys = new Integer[500];
+        String[] values = new String[500];
+        for (int i = 0; i < 500; i++) {
+            keys[i] = 2 * i;
+            values[i] = "value" + keys[i];
+        }
+        ds.insertAll(keys, values);
+        ds.insert(3, "value3"); // waits in the delta buffer
+        ds.insert(999, "value999");
+        assertTrue(ds.remove(4)); // only marked as removed
+
+        DataStructureCursor<Integer, String> cursor = ds.cursor();
+        int previous = -1;
+        int count = 0;
+        while (cursor.next()) {
+            assertTrue(cursor.key() > previous);
+            assertEquals("value" + cursor.key(), cursor.value());
+            assertNotEquals(Integer.valueOf(4), cursor.key());
+            previous = cursor.key();
+            count++;
+        }
+        assertEquals(ds.size(), count);
+        assertThrows(IllegalStateException.class, () -> cursor.value());
+
+        cursor.reset();
+        assertTrue(cursor.next());
+        assertEquals(Integer.valueOf(0), cursor.key());
+        ds.remove(0);
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+    }
+
+}
@@ -0,0 +1,189 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Striped extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_Striped<String, String>(4, DS_My::new);
+    }
+
+    @Test
+    void test20_stripe_count_is_rounded_up_to_a_power_of_two() {
+        assertEquals(1, new DS_Striped<String, String>(1, DS_My::new).stripes());
+        assertEquals(8, new DS_Striped<String, String>(5, DS_My::new).stripes());
+        assertEquals(16, new DS_Striped<String, String>(16, DS_My::new).stripes());
+        assertThrows(IllegalArgumentException.class, () -> new DS_Striped<String, String>(0, DS_My::new));
+    }
+
+    @Test
+    void test21_concurrent_inserts_and_removes_of_disjoint_keys() throws InterruptedException {
+        DS_Striped<String, String> ds = new DS_Striped<>(16, DS_Hash::new);
+        int threads = 4;
+        int perThread = 20000;
+
+        runInParallel(threads, t -> {
+            for (int i = t; i < threads * perThread; i += threads) {
+                ds.insert(String.valueOf(i), "value" + i);
+            }
+            for (int i = t; i < threads * perThread; i += 2 * threads) {
+                assertTrue(ds.remove(String.valueOf(i)));
+            }
+        });
+
+        assertEquals(threads * perThread / 2, ds.size());
+        for (int i = 0; i < threads * perThread; i++) {
+            boolean removed = i % (2 * threads) < threads;
+            assertEquals(removed ? null : "value" + i, ds.get(String.valueOf(i)));
+        }
+    }
+
+    @Test
+    void test22_duplicate_insert_races_have_one_winner() throws InterruptedException {
+        DS_Striped<String, String> ds = new DS_Striped<>(8, DS_Hash::new);
+        int keys = 20000;
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runInParallel(4, t -> {
+            for (int i = 0; i < keys; i++) {
+                try {
+                    ds.insert(String.valueOf(i), "thread" + t);
+                } catch (RuntimeException e) {
+                    duplicates.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(keys, ds.size());
+        assertEquals(3 * keys, duplicates.get());
+    }
+
+    @Test
+    void test23_reader_blocked_by_writer_is_counted() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // One stripe whose insert holds the write lock until the test lets it go
+        DS_Striped<String, String> ds = new DS_Striped<>(1, () -> new DS_Hash() {
+            @Override
+            public void insert(String key, String value) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.insert(key, value);
+            }
+        });
+        assertEquals(0, ds.readContention());
+
+        Thread writer = new Thread(() -> ds.insert("key", "value"));
+        writer.start();
+        entered.await();
+        Thread reader = new Thread(() -> assertEquals("value", ds.get("key")));
+        reader.start();
+
+        // The contended acquisition is counted before the reader starts waiting
+        while (ds.readContention() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        writer.join();
+        reader.join();
+
+        assertEquals(1, ds.readContention());
+        assertEquals(0, ds.writeContention());
+        assertEquals(1, ds.contention(0));
+    }
+
+    @Test
+    void test25_readers_sharing_a_stripe_get_their_own_values() throws InterruptedException {
+        // One stripe, so every get runs under the same shared read lock
+        DS_Striped<String, String> ds = new DS_Striped<>(1, DS_Unrolled::new);
+        int keys = 2000;
+        for (int i = 0; i < keys; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+
+        runInParallel(4, t -> {
+            for (int round = 0; round < 20; round++) {
+                for (int i = t; i < keys; i += 4) {
+                    assertEquals("value" + i, ds.get(String.valueOf(i)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs task on the given number of threads at once and waits for all of them
+     *
+     * @param threads number of threads
+     * @param task work for each thread, given its thread number
+     */
+    private static void runInParallel(int threads, IntConsumer task)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> task.accept(id));
+            workers[t].setUncaughtExceptionHandler((thread, e) -> failure[0] = e);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure[0] != null) {
+            fail(failure[0]);
+        }
+    }
+
+    @Test
+    void test24_cursor_copies_one_stripe_at_a_time() {
+        DS_Striped<String, String> ds = new DS_Striped<>(4, DS_Hash::new);
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+            expected.put(String.valueOf(i), "value" + i);
+        }
+        Map<String, String> seen = new HashMap<>();
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        assertThrows(IllegalStateException.class, () -> cursor.key());
+        while (cursor.next()) {
+            assertNull(seen.put(cursor.key(), cursor.value()));
+        }
+        assertEquals(expected, seen);
+
+        // Updates during a walk never fail it, since it only reads copies
+        cursor.reset();
+        assertTrue(cursor.next());
+        ds.remove("0");
+        ds.remove("1");
+        int count = 1;
+        while (cursor.next()) {
+            count++;
+        }
+        assertTrue(count >= 998 && count <= 1000);
+        assertEquals(998, StreamSupport.stream(ds.spliterator(), false).count());
+    }
+
+}
@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// TO TEST A DATA STRUCTURE CLASS:
+//
+// for each data structure class file you wish to test:
+//     1. create a test class (like this one)
+//     2. edit the actual type being created (line 16)
+//     3. run this test class
+//     4. OR, configure Eclipse project to run all tests
+//        Eclipse: Run->Run Configurations->"Run All Tests..."
+
+@SuppressWarnings("rawtypes")
+public class TestDS_Unrolled extends DataStructureADTTest {
+
+    // the return type must be the name of the data structure class you are testing
+    @Override
+    protected DataStructureADT createInstance() {
+        return new DS_Unrolled();
+    }
+
+    @Test
+    void test20_inserts_fill_chunks_before_starting_new_ones() {
+        DS_Unrolled ds = new DS_Unrolled();
+        assertEquals(0, ds.chunks());
+        for (int i = 0; i < DS_Unrolled.CHUNK_SIZE * 3; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        assertEquals(3, ds.chunks());
+        ds.insert("one more", "value");
+        assertEquals(4, ds.chunks());
+    }
+
+    @Test
+    void test21_removes_merge_chunks_that_fit_together() {
+        DS_Unrolled ds = new DS_Unrolled();
+        int n = DS_Unrolled.CHUNK_SIZE * 10;
+        for (int i = 0; i < n; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        // Remove every other key, leaving every chunk half full
+        for (int i = 0; i < n; i += 2) {
+            assertTrue(ds.remove(String.valueOf(i)));
+        }
+        assertEquals(n / 2, ds.size());
+        assertTrue(ds.chunks() <= 6, "chunks: " + ds.chunks());
+        for (int i = 0; i < n; i++) {
+            assertEquals(i % 2 == 0 ? null : "value" + i, ds.get(String.valueOf(i)));
+        }
+        for (int i = 1; i < n; i += 2) {
+            assertTrue(ds.remove(String.valueOf(i)));
+        }
+        assertEquals(0, ds.size());
+        assertEquals(0, ds.chunks());
+    }
+
+    @Test
+    void test22_random_inserts_and_removes_match_a_map() {
+        DS_Unrolled ds = new DS_Unrolled();
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int op = 0; op < 20000; op++) {
+            String key = String.valueOf(random.nextInt(500));
+            if (random.nextBoolean()) {
+                if (expected.containsKey(key)) {
+                    assertThrows(RuntimeException.class, () -> ds.insert(key, "again"));
+                } else {
+                    ds.insert(key, "value" + op);
+                    expected.put(key, "value" + op);
+                }
+            } else {
+                assertEquals(expected.remove(key) != null, ds.remove(key));
+            }
+            assertEquals(expected.size(), ds.size());
+        }
+        for (int i = 0; i < 500; i++) {
+            String key = String.valueOf(i);
+            assertEquals(expected.get(key), ds.get(key));
+        }
+        // Adjacent chunks never fit into one, so chunks are half full on average
+        assertTrue(ds.chunks() <= 2 * ds.size() / DS_Unrolled.CHUNK_SIZE + 1, "chunks: " + ds.chunks());
+    }
+
+    @Test
+    void test23_cursor_walks_chunks_in_order() {
+        DS_Unrolled ds = new DS_Unrolled();
+        int n = DS_Unrolled.CHUNK_SIZE * 3 + 5;
+        for (int i = 0; i < n; i++) {
+            ds.insert(String.valueOf(i), "value" + i);
+        }
+        for (int i = 0; i < n; i += 3) {
+            ds.remove(String.valueOf(i));
+        }
+        DataStructureCursor<String, String> cursor = ds.cursor();
+        for (int i = 0; i < n; i++) {
+            if (i % 3 != 0) {
+                assertTrue(cursor.next());
+                assertEquals(String.valueOf(i), cursor.key());
+                assertEquals("value" + i, cursor.value());
+            }
+        }
+        assertFalse(cursor.next());
+        assertThrows(IllegalStateException.class, () -> cursor.key());
+
+        cursor.reset();
+        assertTrue(cursor.next());
+        ds.remove("1");
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next());
+        cursor.reset();
+        assertTrue(cursor.next());
+        assertEquals("2", cursor.key());
+    }
+
+}
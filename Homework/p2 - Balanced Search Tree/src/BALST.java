@@ -1,5 +1,14 @@
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Wilson Tjoeng
@@ -7,8 +16,8 @@ import java.util.List;
  * CS400 010
  * Due: 10/15/21 
  *
- * Implementation of a balanced search tree using a red-black implementation. Note 
- * that remove() follows regular BST implementation. 
+ * Implementation of a balanced search tree using a red-black implementation. Both 
+ * insert() and remove() restore the red-black properties, so the height stays O(log n). 
  */
 
 // DO IMPLEMENT A RED BLACK TREE IN THIS CLASS
@@ -30,6 +39,8 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
     // Private fields of BST
     private RBTNode<K, V> root;
     private int numKeys;
+    private int modCount; // number of inserts and removes, for fail-fast iterators
+    private int blackHeight; // black nodes on every path from root to a null leaf
 	
 	/**
 	 * Inner private node class modified from BSTNode.java.
@@ -47,6 +58,8 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
 	    RBTNode<K,V> right;
 	    RBTNode<K, V> parent;
 	    char color;
+	    int height; // levels in the subtree rooted here, 1 for a leaf
+	    int size; // keys in the subtree rooted here, 1 for a leaf
 
 	    /**
 	     * Constructor given a node's children 
@@ -63,12 +76,163 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
 	        this.right = rightChild;
 	        this.parent = parent;
 	        this.color = color;
+	        this.height = 1;
+	        this.size = 1;
 	    }
 	    
 	    // Constructs a node with no children
 	    RBTNode(K key, V value) { this(key,value,null,null,null,'b'); }
 	}
 	
+	/**
+	 * Orders in which iterator and stream visit the keys
+	 */
+	public enum Traversal {
+		IN_ORDER, // L V R, sorted
+		PRE_ORDER, // V L R
+		POST_ORDER, // L R V
+		LEVEL_ORDER // by depth from the root, left to right
+	}
+	
+	/**
+	 * Base of the traversal iterators. Subclasses keep the nodes still to visit, or the
+	 * path to them, in a deque and return the next node from advance.
+	 */
+	private abstract class TraversalIterator implements Iterator<K> {
+		final ArrayDeque<RBTNode<K, V>> nodes = new ArrayDeque<RBTNode<K, V>>();
+		private final int expectedModCount = modCount;
+		
+		@Override
+		public boolean hasNext() {
+			return !nodes.isEmpty();
+		}
+		
+		@Override
+		public K next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return advance().key;
+		}
+		
+		/**
+		 * @return the next node to visit, hasNext is true
+		 */
+		abstract RBTNode<K, V> advance();
+	}
+	
+	// The stack holds the path of nodes whose left subtrees are being visited
+	private class InOrderIterator extends TraversalIterator {
+		private final K hi; // exclusive upper bound, or null for none
+		
+		InOrderIterator() {
+			this.hi = null;
+			pushLeft(root);
+		}
+		
+		// Starts at the smallest key >= lo, pushing only the nodes on the way to it that
+		// aren't less than lo, and stops before hi
+		InOrderIterator(K lo, K hi) {
+			this.hi = hi;
+			for (RBTNode<K, V> n = root; n != null;) {
+				if (n.key.compareTo(lo) < 0) {
+					n = n.right;
+				} else {
+					nodes.push(n);
+					n = n.left;
+				}
+			}
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return !nodes.isEmpty() && (hi == null || nodes.peek().key.compareTo(hi) < 0);
+		}
+		
+		@Override
+		RBTNode<K, V> advance() {
+			RBTNode<K, V> n = nodes.pop();
+			pushLeft(n.right);
+			return n;
+		}
+		
+		private void pushLeft(RBTNode<K, V> n) {
+			for (; n != null; n = n.left) {
+				nodes.push(n);
+			}
+		}
+	}
+	
+	// The stack holds the roots of subtrees still to visit, nearest first
+	private class PreOrderIterator extends TraversalIterator {
+		PreOrderIterator() {
+			if (root != null) {
+				nodes.push(root);
+			}
+		}
+		
+		@Override
+		RBTNode<K, V> advance() {
+			RBTNode<K, V> n = nodes.pop();
+			if (n.right != null) {
+				nodes.push(n.right);
+			}
+			if (n.left != null) {
+				nodes.push(n.left);
+			}
+			return n;
+		}
+	}
+	
+	// The stack holds the path to the next node, which is always the first leaf 
+	// reached by going left where possible and right otherwise
+	private class PostOrderIterator extends TraversalIterator {
+		PostOrderIterator() {
+			pushFirstLeaf(root);
+		}
+		
+		@Override
+		RBTNode<K, V> advance() {
+			RBTNode<K, V> n = nodes.pop();
+			RBTNode<K, V> parent = nodes.peek();
+			if (parent != null && parent.left == n) { // right subtree is next, if any
+				pushFirstLeaf(parent.right);
+			}
+			return n;
+		}
+		
+		private void pushFirstLeaf(RBTNode<K, V> n) {
+			while (n != null) {
+				nodes.push(n);
+				n = (n.left != null) ? n.left : n.right;
+			}
+		}
+	}
+	
+	// The queue holds the rest of the current level followed by the start of the next
+	private class LevelOrderIterator extends TraversalIterator {
+		LevelOrderIterator() {
+			if (root != null) {
+				nodes.add(root);
+			}
+		}
+		
+		@Override
+		RBTNode<K, V> advance() {
+			RBTNode<K, V> n = nodes.remove();
+			if (n.left != null) {
+				nodes.add(n.left);
+			}
+			if (n.right != null) {
+				nodes.add(n.right);
+			}
+			return n;
+		}
+	}
+	
 	/**
 	 * Construct an empty BST with no root
 	 */
@@ -77,6 +241,53 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
 		numKeys = 0;
 	}
 	
+	/**
+	 * Builds a tree from entries in ascending key order in O(n), without the search and 
+	 * rebalancing of n inserts. The tree is as balanced as possible: every level is full
+	 * except maybe the lowest, whose nodes are red while all others are black.
+	 * 
+	 * The entries are read and checked before any node is made, so bad input leaves
+	 * nothing half built.
+	 * 
+	 * @param entries key,value pairs with strictly increasing keys, values may be null
+	 * @return a new tree holding the entries
+	 * @throws IllegalNullKeyException if a key is null
+	 * @throws DuplicateKeyException if a key equals the one before it
+	 * @throws IllegalArgumentException if a key is less than the one before it
+	 */
+	public static <K extends Comparable<K>, V> BALST<K, V> fromSorted(
+			Iterator<? extends Map.Entry<K, V>> entries) 
+			throws IllegalNullKeyException, DuplicateKeyException {
+		List<K> keys = new ArrayList<K>();
+		List<V> values = new ArrayList<V>();
+		while (entries.hasNext()) {
+			Map.Entry<K, V> entry = entries.next();
+			K key = entry.getKey();
+			if (key == null) {
+				throw new IllegalNullKeyException("Cannot handle null key");
+			}
+			if (!keys.isEmpty()) {
+				int cmp = key.compareTo(keys.get(keys.size() - 1));
+				if (cmp == 0) {
+					throw new DuplicateKeyException("Cannot insert duplicate key");
+				} else if (cmp < 0) {
+					throw new IllegalArgumentException("keys not in ascending order at " + key);
+				}
+			}
+			keys.add(key);
+			values.add(entry.getValue());
+		}
+		
+		BALST<K, V> tree = new BALST<K, V>();
+		int n = keys.size();
+		// Levels 1 to full are complete, any nodes below them make up a partial level
+		int full = 31 - Integer.numberOfLeadingZeros(n + 1); // floor(log2(n + 1))
+		tree.root = tree.build(keys, values, 0, n, null, 1, full + 1);
+		tree.numKeys = n;
+		tree.blackHeight = full;
+		return tree;
+	}
+	
     /**
      * Returns the key that is in the root node of this ST.
      * If root is null, returns null.
@@ -165,31 +376,25 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
      *                        or it may be linear with a height of three (3)
      * ... and so on for tree with other heights
      * 
+     * Every node caches the height of its subtree, kept up to date by insert, remove
+     * and rotations, so this is O(1).
+     * 
      * @return the number of levels that contain keys in this BINARY SEARCH TREE
      */
     public int getHeight() {
-         if (root == null) {
-        	 return 0;
-         } else if (numKeys() == 1) {
-        	 return 1;
-         } 
-         
-         return getHeight(root);
+    	return heightOf(root);
     }
     
     /**
-     * Recursive helper function that returns the larger of heights between subtrees.
-     * We define height of the tree as the number of nodes on the path from the root 
-     * to the deepest leaf. 
+     * Returns the black height of this RBT: the number of black nodes on every path from
+     * the root to a null leaf. It is kept up to date by insert and remove, so this is O(1).
+     * A RBT with black height b has between 2^b - 1 and 4^b - 1 keys, so watching it is a
+     * cheap check that the tree stays balanced.
      * 
-     * @param n the node to start from
-     * @return height of the tree
+     * @return the black height, 0 if the tree is empty
      */
-    public int getHeight(RBTNode<K, V> n) {
-    	if (n == null) {
-    		return 0;
-    	}
-    	return Math.max(getHeight(n.left), getHeight(n.right)) + 1;
+    public int getBlackHeight() {
+    	return blackHeight;
     }
     
     
@@ -202,28 +407,7 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
      * @return List of Keys in-order
      */
     public List<K> getInOrderTraversal() {
-       List<K> list = new ArrayList<K>();
-       
-       inOrderTraverse(list, this.root);
-       
-       return list;
-    }
-    
-    /**
-     * In-order traversal recursive helper function.
-     * 
-     * @param list list to store keys in 
-     * @param root the node to traverse from
-     */
-    private void inOrderTraverse(List<K> list, RBTNode<K, V> root) {
-    	// Base case
-    	if (root == null) {
-    		return;
-    	}
-    	
-    	inOrderTraverse(list, root.left); // Traverse left subtree
-    	list.add(root.key);
-    	inOrderTraverse(list, root.right); // Traverse right subtree
+    	return toList(iterator(Traversal.IN_ORDER));
     }
     
     /**
@@ -235,28 +419,7 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
      * @return List of Keys in pre-order
      */
     public List<K> getPreOrderTraversal() {
-    	List<K> list = new ArrayList<K>();
-        
-        preOrderTraverse(list, this.root);
-        
-        return list;
-    }
-    
-    /**
-     * Pre-order traversal recursive helper function.
-     * 
-     * @param list list to store keys in 
-     * @param root the node to traverse from
-     */
-    private void preOrderTraverse(List<K> list, RBTNode<K, V> root) {
-    	// Base case
-    	if (root == null) {
-    		return;
-    	}
-    	
-    	list.add(root.key);
-    	preOrderTraverse(list, root.left); // Traverse left subtree
-    	preOrderTraverse(list, root.right); // Traverse right subtree
+    	return toList(iterator(Traversal.PRE_ORDER));
     }
     
     /**
@@ -268,28 +431,7 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
      * @return List of Keys in post-order
      */
     public List<K> getPostOrderTraversal() {
-    	List<K> list = new ArrayList<K>();
-        
-        postOrderTraverse(list, this.root);
-        
-        return list;    
-    }
-    
-    /**
-     * Post-order traversal recursive helper function.
-     * 
-     * @param list list to store keys in 
-     * @param root the node to traverse from
-     */
-    private void postOrderTraverse(List<K> list, RBTNode<K, V> root) {
-    	// Base case
-    	if (root == null) {
-    		return;
-    	}
-    	
-    	postOrderTraverse(list, root.left); // Traverse left subtree
-    	postOrderTraverse(list, root.right); // Traverse right subtree
-    	list.add(root.key);
+    	return toList(iterator(Traversal.POST_ORDER));
     }
 
     /**
@@ -303,38 +445,86 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
      * @return List of Keys in level-order
      */
     public List<K> getLevelOrderTraversal() {
-    	List<K> list = new ArrayList<K>();
-    	
-    	int heightTree = getHeight(root);
-    	
-    	for (int level = 1; level <= heightTree; level++) {
-    		levelOrderTraverse(list, root, level);
+    	return toList(iterator(Traversal.LEVEL_ORDER));
+    }
+    
+    /**
+     * Returns an iterator over the keys in the given order, which visits each key as next
+     * is called instead of copying them all into a list first. In-, pre- and post-order
+     * keep a stack of at most the tree's height, level-order a queue of at most the widest
+     * level. Nothing is recursive, so the depth of the tree can't overflow the call stack.
+     * 
+     * The iterator is fail-fast: next throws ConcurrentModificationException if the tree
+     * was changed by insert or remove since the iterator was created.
+     * 
+     * @param order the traversal order
+     * @return an iterator over the keys in that order
+     * @throws IllegalArgumentException if order is null
+     */
+    public Iterator<K> iterator(Traversal order) {
+    	if (order == null) {
+    		throw new IllegalArgumentException("null order");
+    	}
+    	switch (order) {
+    		case IN_ORDER:
+    			return new InOrderIterator();
+    		case PRE_ORDER:
+    			return new PreOrderIterator();
+    		case POST_ORDER:
+    			return new PostOrderIterator();
+    		default:
+    			return new LevelOrderIterator();
     	}
-    	
-    	return list;
     }
     
     /**
-     * Level-order traversal recursive helper function. Adds each node of tree level 
-     * by level until level = height of tree. 
+     * Returns an iterator over the keys k with lo <= k < hi in sorted order. Like 
+     * iterator(Traversal.IN_ORDER) it visits keys lazily and is fail-fast. Finding the
+     * first key takes O(log n) and each next O(1) amortized, so visiting k keys costs 
+     * O(log n + k), however large the tree.
      * 
-     * @param list list to store keys in
-     * @param root the node to traverse from
-     * @param level the level at which to get nodes from tree
+     * @param lo inclusive lower bound
+     * @param hi exclusive upper bound
+     * @return an iterator over the keys in [lo, hi), empty if hi <= lo
+     * @throws IllegalNullKeyException if lo or hi is null
      */
-    private void levelOrderTraverse(List<K> list, RBTNode<K, V> root, int level) {
-    	if (root == null) {
-    		return;
+    public Iterator<K> rangeIterator(K lo, K hi) throws IllegalNullKeyException {
+    	if (lo == null || hi == null) {
+    		throw new IllegalNullKeyException("Cannot handle null key");
     	}
-    	
-    	if (level == 1) {
-    		list.add(root.key);
-    	} else if (level > 1) {
-    		levelOrderTraverse(list, root.left, level - 1);
-    		levelOrderTraverse(list, root.right, level - 1);
+    	return new InOrderIterator(lo, hi);
+    }
+    
+    /**
+     * Returns a sequential stream of the keys in the given order, backed by 
+     * iterator(order), so keys are only visited as the stream consumes them.
+     * 
+     * @param order the traversal order
+     * @return a stream of the keys in that order
+     * @throws IllegalArgumentException if order is null
+     */
+    public Stream<K> stream(Traversal order) {
+    	int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+    	if (order == Traversal.IN_ORDER) {
+    		characteristics |= Spliterator.SORTED;
     	}
+    	return StreamSupport.stream(
+    			Spliterators.spliterator(iterator(order), numKeys, characteristics), false);
     }
     
+    /**
+     * Copies the rest of an iterator into a new list
+     * 
+     * @param keys iterator to drain
+     * @return list of keys in iteration order
+     */
+    private List<K> toList(Iterator<K> keys) {
+    	List<K> list = new ArrayList<K>(numKeys);
+    	while (keys.hasNext()) {
+    		list.add(keys.next());
+    	}
+    	return list;
+    }
     
     /** 
      * Add the key,value pair to the data structure and increase the number of keys.
@@ -343,122 +533,86 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
      * Do not increase the num of keys in the structure, if key,value pair is not added.
      */
     public void insert(K key, V value) throws IllegalNullKeyException, DuplicateKeyException {
-        if (this.contains(key)) {
-        	throw new DuplicateKeyException("Cannot insert duplicate key");
-        }
-        
-        if (key == null) {
-        	throw new IllegalNullKeyException("");
-        }
-        
-        insert(root, key, value, null, 0);         
-        numKeys++;
-    }
-
-    /**
-     * Insert node following BST recursion and fix any violations
-     * 
-     * @param node node to start traversal from
-     * @param key key to insert
-     * @param value value of key
-     * @param parent the parent node of node
-     * @param cmp used to update parent/left/right pointers
-     * @throws DuplicateKeyException if key already exists in tree
-     */
-    private void insert(RBTNode<K, V> node, K key, V value, RBTNode<K, V> parent, int cmp) throws DuplicateKeyException {
-    	
-    	// Insert at root if there are no nodes
-    	if (root == null) {
-    		root = new RBTNode<K, V>(key, value, null, null, null, 'b');
-    		return;
+    	if (key == null) {
+    		throw new IllegalNullKeyException("Cannot handle null key");
     	}
     	
-    	// Base case - create new red node and update pointers
-    	if (node == null) {
-        	RBTNode<K,V> leaf = new RBTNode<K, V>(key, value, null, null, parent,'r');
-        	if (cmp < 0) {
-        		parent.left = leaf;
-        	} else if (cmp > 0) {
-        		parent.right = leaf;
-        	} 
-        	return;
-        }
+    	// Single descent to the empty spot, which also finds a duplicate on the way
+    	RBTNode<K, V> parent = null;
+    	RBTNode<K, V> n = root;
+    	int cmp = 0;
+    	while (n != null) {
+    		parent = n;
+    		cmp = key.compareTo(n.key);
+    		if (cmp < 0) {
+    			n = n.left;
+    		} else if (cmp > 0) {
+    			n = n.right;
+    		} else {
+    			throw new DuplicateKeyException("Cannot insert duplicate key");
+    		}
+    	}
     	
-    	// Recursively travel through tree and insert at empty spot 
-    	cmp = key.compareTo(node.key);    
-    	if (cmp == 0) {
-    		throw new DuplicateKeyException("Cannot insert duplicate key");
-    	} else if (cmp < 0) { // Add key to left subtree
-    		insert(node.left, key, value, node, cmp);
-    		maintainRedProperty(node.left);
-    	} else { // Add key to right subtree 
-    		insert(node.right, key, value, node,cmp);
-    		maintainRedProperty(node.right);
-    	} 
+    	// Attach a new red leaf, then fix up from it only while there's a red-red violation
+    	RBTNode<K, V> leaf = new RBTNode<K, V>(key, value, null, null, parent, 'r');
+    	if (parent == null) {
+    		root = leaf;
+    	} else if (cmp < 0) {
+    		parent.left = leaf;
+    	} else {
+    		parent.right = leaf;
+    	}
+    	updateSizes(parent, 1);
+    	updateHeights(parent);
+    	maintainRedProperty(leaf);
+    	numKeys++;
+    	modCount++;
     }
     
     /** 
      * If key is found, remove the key,value pair from the data structure 
-     * and decrease num keys, and return true. Note this remove method only 
-     * maintains BST property, NOT RB properties. 
+     * and decrease num keys, and return true. Red-black properties are restored 
+     * after the removal, so the height stays at most 2*log2(n+1).
      * If key is not found, do not decrease the number of keys in the data structure, return false.
      * If key is null, throw IllegalNullKeyException
      */
     public boolean remove(K key) throws IllegalNullKeyException {
-    	if (key == null) {
-    		throw new IllegalNullKeyException("Cannot handle null key");
-    	}
+    	RBTNode<K, V> n = find(key); // throws on null key
     	
-    	if (!contains(key)) {
+    	if (n == null) {
     		return false;
     	}
     	
-    	root = remove(root, key); // Recursively go through BST and delete key
-    	numKeys--;
-    	
-    	return true;
-    }
-    
-    private RBTNode<K, V> remove(RBTNode<K, V> n, K key) throws IllegalNullKeyException {
-    	
-    	if (key == null) {
-    		throw new IllegalNullKeyException("Cannot handle null key");
+    	// A node with two children takes its in-order predecessor's pair, and the
+    	// predecessor, which has no right child, is unlinked instead
+    	if (n.left != null && n.right != null) {
+    		RBTNode<K, V> predecessor = max(n.left);
+    		n.key = predecessor.key;
+    		n.value = predecessor.value;
+    		n = predecessor;
     	}
     	
-    	// Base case and Case 1 - n has no children
-    	if (n == null) {
-    		return n;
-    	} 
+    	// n has at most one child, which takes its place
+    	RBTNode<K, V> child = (n.left != null) ? n.left : n.right;
+    	RBTNode<K, V> parent = n.parent;
+    	replace(n, child);
+    	updateSizes(parent, -1);
+    	updateHeights(parent);
     	
-    	// Another base case - key found
-    	if (n.key.equals(key)) {
-    		if (n.left == null && n.right == null) {
-    			return null;
+    	// Removing a black node leaves its side one black short
+    	if (n.color == 'b') {
+    		if (child != null && child.color == 'r') {
+    			child.color = 'b';
+    		} else {
+    			maintainBlackProperty(child, parent);
     		}
-    		
-    		// Case 2: n has one child
-        	if (n.left == null) {
-        		return n.right;
-        	} else if (n.right == null) {
-        		return n.left;
-        	}
-        	
-        	// Case 3: n has two children
-        	// Get In-order predecessor key by finding largest key in the left subtree of node
-        	RBTNode<K, V> predecessor = find(max(n.left).key); 
-        	n.key = predecessor.key;
-        	n.value = predecessor.value;
-        	n.left = remove(n.left, predecessor.key);
-    	}
-        	
-        	else if (key.compareTo(n.key) < 0) {
-        		n.left = remove(n.left, key);
-        	} else {
-        		n.right = remove(n.right, key);
-        	}
-    	return n;
-    }
+    	}
+    	numKeys--;
+    	modCount++;
     	
+    	return true;
+    }
+    
     /**
      * Returns the value associated with the specified key.
      *
@@ -489,6 +643,126 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
     	return find(key) != null;
     }
 
+    /**
+     * Returns the number of keys in the tree that are less than key, which is key's 
+     * index in getInOrderTraversal() if it is present. Every node caches the size of its
+     * subtree, so this takes one descent, O(log n).
+     * 
+     * @param key key to rank, doesn't need to be in the tree
+     * @return number of keys less than key
+     * @throws IllegalNullKeyException if key is null
+     */
+    public int rank(K key) throws IllegalNullKeyException {
+    	if (key == null) {
+    		throw new IllegalNullKeyException("Cannot handle null key");
+    	}
+    	
+    	int rank = 0;
+    	RBTNode<K, V> n = root;
+    	while (n != null) {
+    		int cmp = key.compareTo(n.key);
+    		if (cmp < 0) {
+    			n = n.left;
+    		} else if (cmp > 0) { // n and its left subtree are all less than key
+    			rank += sizeOf(n.left) + 1;
+    			n = n.right;
+    		} else {
+    			return rank + sizeOf(n.left);
+    		}
+    	}
+    	return rank;
+    }
+    
+    /**
+     * Returns the key with the given rank, the one at index i of getInOrderTraversal(),
+     * in O(log n). select(numKeys() / 2) is the median.
+     * 
+     * @param i rank of the key, 0 for the smallest
+     * @return the key with i keys less than it
+     * @throws IndexOutOfBoundsException if i is negative or at least numKeys()
+     */
+    public K select(int i) {
+    	if (i < 0 || i >= numKeys) {
+    		throw new IndexOutOfBoundsException("rank " + i + " of " + numKeys + " keys");
+    	}
+    	
+    	RBTNode<K, V> n = root;
+    	while (true) {
+    		int leftSize = sizeOf(n.left);
+    		if (i < leftSize) {
+    			n = n.left;
+    		} else if (i > leftSize) {
+    			i -= leftSize + 1;
+    			n = n.right;
+    		} else {
+    			return n.key;
+    		}
+    	}
+    }
+    
+    /**
+     * Returns the number of keys k with lo <= k < hi, in O(log n).
+     * 
+     * @param lo inclusive lower bound
+     * @param hi exclusive upper bound
+     * @return number of keys in [lo, hi), 0 if hi <= lo
+     * @throws IllegalNullKeyException if lo or hi is null
+     */
+    public int countInRange(K lo, K hi) throws IllegalNullKeyException {
+    	if (lo == null || hi == null) {
+    		throw new IllegalNullKeyException("Cannot handle null key");
+    	}
+    	
+    	if (lo.compareTo(hi) >= 0) {
+    		return 0;
+    	}
+    	return rank(hi) - rank(lo);
+    }
+
+    /**
+     * Returns the greatest key less than or equal to key, in O(log n).
+     * 
+     * @param key key to search from, doesn't need to be in the tree
+     * @return the floor of key, or null if every key is greater
+     * @throws IllegalNullKeyException if key is null
+     */
+    public K floorKey(K key) throws IllegalNullKeyException {
+    	return keyOf(nearest(key, true, true));
+    }
+    
+    /**
+     * Returns the least key greater than or equal to key, in O(log n).
+     * 
+     * @param key key to search from, doesn't need to be in the tree
+     * @return the ceiling of key, or null if every key is less
+     * @throws IllegalNullKeyException if key is null
+     */
+    public K ceilingKey(K key) throws IllegalNullKeyException {
+    	return keyOf(nearest(key, false, true));
+    }
+    
+    /**
+     * Returns the greatest key strictly less than key, in O(log n).
+     * 
+     * @param key key to search from, doesn't need to be in the tree
+     * @return the key before key, or null if there is none
+     * @throws IllegalNullKeyException if key is null
+     */
+    public K lowerKey(K key) throws IllegalNullKeyException {
+    	return keyOf(nearest(key, true, false));
+    }
+    
+    /**
+     * Returns the least key strictly greater than key, in O(log n).
+     * 
+     * @param key key to search from, doesn't need to be in the tree
+     * @return the key after key, or null if there is none
+     * @throws IllegalNullKeyException if key is null
+     */
+    public K higherKey(K key) throws IllegalNullKeyException {
+    	return keyOf(nearest(key, false, false));
+    }
+
     /**
      *  Returns the number of key,value pairs in the data structure
      */
@@ -602,6 +876,76 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
     	return n;
     }
     
+    /**
+     * Builds a subtree from keys[lo, hi) with the middle key at the root, so the two
+     * halves differ in size by at most one. Recursion depth is log2(n).
+     * 
+     * @param keys sorted keys
+     * @param values values of keys
+     * @param lo first index of the subtree
+     * @param hi index after the last of the subtree
+     * @param parent parent of the subtree root
+     * @param level level of the subtree root, 1 for the root of the tree
+     * @param redLevel the partial lowest level, whose nodes are red
+     * @return the subtree root, or null if lo == hi
+     */
+    private RBTNode<K, V> build(List<K> keys, List<V> values, int lo, int hi, 
+    		RBTNode<K, V> parent, int level, int redLevel) {
+    	if (lo == hi) {
+    		return null;
+    	}
+    	
+    	int mid = (lo + hi) >>> 1;
+    	char color = (level == redLevel) ? 'r' : 'b';
+    	RBTNode<K, V> n = new RBTNode<K, V>(keys.get(mid), values.get(mid), null, null, parent, color);
+    	n.left = build(keys, values, lo, mid, n, level + 1, redLevel);
+    	n.right = build(keys, values, mid + 1, hi, n, level + 1, redLevel);
+    	updateNode(n);
+    	return n;
+    }
+    
+    /**
+     * Finds the node nearest to key on one side of it, for floorKey, ceilingKey, lowerKey
+     * and higherKey. Every node passed on the wanted side is closer than the last one, 
+     * so the answer is the last one passed.
+     * 
+     * @param key key to search from
+     * @param below true to look for keys less than key, false for greater
+     * @param inclusive true if a node with key itself is the answer
+     * @return the nearest node, or null if there is none on that side
+     * @throws IllegalNullKeyException if key is null
+     */
+    private RBTNode<K, V> nearest(K key, boolean below, boolean inclusive) 
+    		throws IllegalNullKeyException {
+    	if (key == null) {
+    		throw new IllegalNullKeyException("Cannot handle null key");
+    	}
+    	
+    	RBTNode<K, V> nearest = null;
+    	RBTNode<K, V> n = root;
+    	while (n != null) {
+    		int cmp = key.compareTo(n.key);
+    		if (cmp == 0 && inclusive) {
+    			return n;
+    		}
+    		if (below ? cmp > 0 : cmp < 0) { // n is on the wanted side, look for closer
+    			nearest = n;
+    			n = below ? n.right : n.left;
+    		} else {
+    			n = below ? n.left : n.right;
+    		}
+    	}
+    	return nearest;
+    }
+    
+    /**
+     * @param n a node, may be null
+     * @return n's key, or null if n is null
+     */
+    private K keyOf(RBTNode<K, V> n) {
+    	return (n == null) ? null : n.key;
+    }
+    
     // This function is not in use, but could be used instead to get
     // the in-order successor when deleting
     
@@ -632,56 +976,47 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
     }
     
     /**
-     * After insert or delete, check if red property is violated and restore if needed
-     * Red property - red nodes must have black children. New leaves are added as black
+     * After insert, restore the red property - red nodes must have black children. New
+     * leaves are added as red, so the only possible violation is K under a red parent P.
+     * 
+     * If P's sibling is red, recolor, which may move the violation up to G. Otherwise a
+     * tri-node restructure at G fixes it for good. The root is always left black.
      * 
-     * @return
+     * @param K the red node that was inserted
      */
     private void maintainRedProperty(RBTNode<K, V> K) {
-    	
-    	if (K == null || K.equals(root)) {
-    		return;
-    	}
-    	
-    	// Check if K violates red property
-    	// 1. Red nodes must have black children
-    	// 2. That also means K can be red with a black parent if K is a leaf
-    	if ((K.color == 'b' && K.parent.color == 'r') || 
-    			(isOnlyChild(K)) && K.color == 'r' && K.parent.color == 'b') {
-    		return;
-    	}
-    	    	
-    	// Recolor if K's parent has a red sibling
-    	if (parentSiblingIsRed(K)) {
-    		recolor(K);
-    	} else if (parentSiblingIsNull(K) || parentSiblingIsBlack(K)) {
+    	while (K != root && K.parent.color == 'r') {
     		RBTNode<K, V> P = K.parent;
-    		RBTNode<K, V> G = P.parent;
-    		boolean doubleRotated = false; // This determines recoloring after rotating
+    		RBTNode<K, V> G = P.parent; // not null, since the root is black
     		
-    		// TNR depending on structures of K, P, and G
-    		if ((G.left != null && P.left != null) && (G.left.equals(P) && P.left.equals(K))) {
-    			rotateRight(G);
-    		} else if ((G.right != null && P.right != null) && (G.right.equals(P) && P.right.equals(K))) {
-    			rotateLeft(G);
-    		} else if ((G.left != null && P.right != null) && (G.left.equals(P) && P.right.equals(K))) {
-    			rotateLeftRight(G);
-    			doubleRotated = true;
-    		} else if ((G.right != null && P.left != null) && (G.right.equals(P) && P.left.equals(K))) {
-    			rotateRightLeft(G);
-    			doubleRotated = true;
+    		// Recolor if K's parent has a red sibling, and continue from G
+    		if (colorOf(getParentSibling(P, G)) == 'r') {
+    			recolor(K);
+    			K = G;
+    			continue;
     		}
     		
-    		// Recolor
-    		if (doubleRotated) {
-	        	K.color = 'b';
-	        	P.color = 'r';
-	        	G.color = 'r';
-	        } else {
-	        	P.color = 'b';
-	        	K.color = 'r';
-	        	G.color = 'r';
-	        }
+    		// TNR depending on structures of K, P, and G, then recolor its new root
+    		if (P == G.left) {
+    			if (K == P.left) {
+    				rotateRight(G).color = 'b';
+    			} else {
+    				rotateLeftRight(G).color = 'b';
+    			}
+    		} else {
+    			if (K == P.right) {
+    				rotateLeft(G).color = 'b';
+    			} else {
+    				rotateRightLeft(G).color = 'b';
+    			}
+    		}
+    		G.color = 'r';
+    		return;
+    	}
+    	
+    	if (root.color == 'r') { // only a new leaf at the root
+    		root.color = 'b';
+    		blackHeight++;
     	}
     }
     
@@ -702,82 +1037,226 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
     }
     
     /**
-     * Checks if the sibling of a child's parent is null. Used for TNR
-     * @param K the child node
-     * @return true if the parent of the child node has no sibling
+     * Puts child in n's place under n's parent, or at the root
+     * 
+     * @param n the node being unlinked
+     * @param child the node to take its place, may be null
      */
-    private boolean parentSiblingIsNull(RBTNode<K, V> K) {
-    	RBTNode<K, V> P = K.parent;
-    	
-    	// n is already the root
-    	if (P == null) {
-    		return false;
+    private void replace(RBTNode<K, V> n, RBTNode<K, V> child) {
+    	if (n.parent == null) {
+    		root = child;
+    	} else if (n == n.parent.left) {
+    		n.parent.left = child;
+    	} else {
+    		n.parent.right = child;
     	}
     	
-    	RBTNode<K, V> G = P.parent;
-    	
-    	// Parent is the root, so no sibling
-    	if (G == null) {
-    		return false;
+    	if (child != null) {
+    		child.parent = n.parent;
     	}
-    	
-    	return getParentSibling(P, G) == null;
     }
     
     /**
-     * Checks if the sibling of a child's parent is black. Used for TNR
-     * @param K the child node
-     * @return true if the parent of the child node has a black sibling
+     * After removing a black node, restore the black property - every path from a node
+     * to a null leaf has the same number of black nodes. X's subtree is one black short
+     * of its sibling's. Null nodes count as black.
+     * 
+     * Cases, with S the sibling of X and P their parent:
+     * 1. S is red - rotate S above P so X gets a black sibling, then continue
+     * 2. S and its children are black - make S red, so P is one short, and move up to P
+     * 3. S is black with a red child on X's side - rotate it above S, which is case 4
+     * 4. S is black with a red child on the far side - rotate S above P and recolor, done
+     * 
+     * @param X the node that replaced the removed one, may be null
+     * @param P the parent of X
      */
-    private boolean parentSiblingIsBlack(RBTNode<K, V> K) {
-    	RBTNode<K, V> P = K.parent;
-    	
-    	// n is already the root
-    	if (P == null) {
-    		return false;
+    private void maintainBlackProperty(RBTNode<K, V> X, RBTNode<K, V> P) {
+    	while (X != root && colorOf(X) == 'b') {
+    		if (X == P.left) {
+    			RBTNode<K, V> S = P.right; // not null, the other side has a black node
+    			if (S.color == 'r') { // Case 1
+    				S.color = 'b';
+    				P.color = 'r';
+    				rotateLeft(P);
+    				S = P.right;
+    			}
+    			if (colorOf(S.left) == 'b' && colorOf(S.right) == 'b') { // Case 2
+    				S.color = 'r';
+    				X = P;
+    				P = X.parent;
+    			} else {
+    				if (colorOf(S.right) == 'b') { // Case 3
+    					S.left.color = 'b';
+    					S.color = 'r';
+    					rotateRight(S);
+    					S = P.right;
+    				}
+    				S.color = P.color; // Case 4
+    				P.color = 'b';
+    				S.right.color = 'b';
+    				rotateLeft(P);
+    				return;
+    			}
+    		} else { // Mirror image with left and right swapped
+    			RBTNode<K, V> S = P.left;
+    			if (S.color == 'r') {
+    				S.color = 'b';
+    				P.color = 'r';
+    				rotateRight(P);
+    				S = P.left;
+    			}
+    			if (colorOf(S.left) == 'b' && colorOf(S.right) == 'b') {
+    				S.color = 'r';
+    				X = P;
+    				P = X.parent;
+    			} else {
+    				if (colorOf(S.left) == 'b') {
+    					S.right.color = 'b';
+    					S.color = 'r';
+    					rotateLeft(S);
+    					S = P.left;
+    				}
+    				S.color = P.color;
+    				P.color = 'b';
+    				S.left.color = 'b';
+    				rotateRight(P);
+    				return;
+    			}
+    		}
     	}
     	
-    	RBTNode<K, V> G = P.parent;
-    	
-    	// Parent is the root, so no sibling
-    	if (G == null) {
-    		return false;
+    	// Either X is red and taking its color makes up the missing black, or the
+    	// shortage reached the root and every path lost a black node
+    	if (X == root) {
+    		blackHeight--;
+    	} else {
+    		X.color = 'b';
     	}
-    	
-    	return getParentSibling(P, G).color == 'b';
     }
     
     /**
-     * Checks if the sibling of a child's parent is red. Used for recoloring
-     * @param n the child node
-     * @return true if the parent of the child has a red sibling
+     * @param n a node, may be null
+     * @return the color of n, where null leaves are black
      */
-    private boolean parentSiblingIsRed(RBTNode<K, V> n) {
-    	RBTNode<K, V> parent = n.parent;
-    	
-    	// n is already the root
-    	if (parent == null) {
-    		return false;
+    private char colorOf(RBTNode<K, V> n) {
+    	return (n == null) ? 'b' : n.color;
+    }
+    
+    /**
+     * @param n a node, may be null
+     * @return the height of n's subtree, 0 if n is null
+     */
+    private int heightOf(RBTNode<K, V> n) {
+    	return (n == null) ? 0 : n.height;
+    }
+    
+    /**
+     * @param n a node, may be null
+     * @return the number of keys in n's subtree, 0 if n is null
+     */
+    private int sizeOf(RBTNode<K, V> n) {
+    	return (n == null) ? 0 : n.size;
+    }
+    
+    /**
+     * Recomputes n's cached height and size from its children's
+     * 
+     * @param n a node whose children have correct heights and sizes
+     */
+    private void updateNode(RBTNode<K, V> n) {
+    	n.height = Math.max(heightOf(n.left), heightOf(n.right)) + 1;
+    	n.size = sizeOf(n.left) + sizeOf(n.right) + 1;
+    }
+    
+    /**
+     * Adds delta to the cached size of n and all its ancestors, after a key was added
+     * below n or removed from below it
+     * 
+     * @param n the parent of the added or removed node, may be null
+     * @param delta 1 or -1
+     */
+    private void updateSizes(RBTNode<K, V> n, int delta) {
+    	for (; n != null; n = n.parent) {
+    		n.size += delta;
     	}
-    	
-    	RBTNode<K, V> grandparent = parent.parent;
-    	
-    	// Parent is the root, so no sibling
-    	if (grandparent == null) {
-    		return false;
+    }
+    
+    /**
+     * Recomputes cached heights from n up towards the root after n's subtree changed,
+     * stopping at the first node whose height stays the same, since its ancestors don't
+     * change either.
+     * 
+     * @param n the lowest node whose children changed, may be null
+     */
+    private void updateHeights(RBTNode<K, V> n) {
+    	for (; n != null; n = n.parent) {
+    		int height = Math.max(heightOf(n.left), heightOf(n.right)) + 1;
+    		if (height == n.height) {
+    			return;
+    		}
+    		n.height = height;
     	}
-    	
-    	RBTNode<K, V> sibling = getParentSibling(parent, grandparent);
-    	
-    	if (sibling == null) {
-    		return false;
+    }
+    
+    /**
+     * Checks the red-black invariants over the whole tree, for tests: keys are in BST
+     * order, parent pointers match, the root is black, red nodes have black children and
+     * every path to a null leaf has the same number of black nodes. Also checks the 
+     * cached heights, sizes and black height.
+     * 
+     * @return the black height of the tree, 0 if empty
+     * @throws IllegalStateException if an invariant is broken
+     */
+    int checkRedBlack() {
+    	if (colorOf(root) != 'b') {
+    		throw new IllegalStateException("red root");
     	}
-    	
-    	return sibling.color == 'r';
+    	if (root != null && root.parent != null) {
+    		throw new IllegalStateException("root has a parent");
+    	}
+    	int blackHeight = checkRedBlack(root, null, null);
+    	if (blackHeight != this.blackHeight) {
+    		throw new IllegalStateException("cached black height " + this.blackHeight 
+    				+ ", actual " + blackHeight);
+    	}
+    	return blackHeight;
     }
     
-    private boolean isOnlyChild(RBTNode<K, V> n) {
-    	return (n.left == null && n.right == null);
+    /**
+     * Recursive helper for checkRedBlack. Recursion depth is the height, which the
+     * invariants bound unless they are already broken.
+     * 
+     * @param n the subtree to check
+     * @param lo keys must be greater than lo, or null for no bound
+     * @param hi keys must be less than hi, or null for no bound
+     * @return the black height of the subtree
+     */
+    private int checkRedBlack(RBTNode<K, V> n, K lo, K hi) {
+    	if (n == null) {
+    		return 0;
+    	}
+    	if ((lo != null && n.key.compareTo(lo) <= 0) || (hi != null && n.key.compareTo(hi) >= 0)) {
+    		throw new IllegalStateException("key " + n.key + " out of order");
+    	}
+    	if ((n.left != null && n.left.parent != n) || (n.right != null && n.right.parent != n)) {
+    		throw new IllegalStateException("bad parent pointer below " + n.key);
+    	}
+    	if (n.color == 'r' && (colorOf(n.left) == 'r' || colorOf(n.right) == 'r')) {
+    		throw new IllegalStateException("red node " + n.key + " has a red child");
+    	}
+    	
+    	int left = checkRedBlack(n.left, lo, n.key);
+    	int right = checkRedBlack(n.right, n.key, hi);
+    	if (left != right) {
+    		throw new IllegalStateException("black heights differ below " + n.key);
+    	}
+    	if (n.height != Math.max(heightOf(n.left), heightOf(n.right)) + 1) {
+    		throw new IllegalStateException("wrong cached height at " + n.key);
+    	}
+    	if (n.size != sizeOf(n.left) + sizeOf(n.right) + 1) {
+    		throw new IllegalStateException("wrong cached size at " + n.key);
+    	}
+    	return left + (n.color == 'b' ? 1 : 0);
     }
     
     // There's 4 cases to consider when doing tri-node restructure
@@ -815,6 +1294,11 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
     	P.right = G;
     	G.parent = P;
     	
+    	// Only G's and P's subtrees changed, then P's ancestors if its height differs.
+    	// P's subtree holds the same keys G's did, so no ancestor's size changes.
+    	updateNode(G);
+    	updateNode(P);
+    	updateHeights(P.parent);
     	return P;
     }
     
@@ -850,6 +1334,9 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
     	P.left = G;
     	G.parent = P;
     	
+    	updateNode(G);
+    	updateNode(P);
+    	updateHeights(P.parent);
     	return P;
     }
     
@@ -924,6 +1411,8 @@ public class BALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
     	
     	if (!this.root.equals(G)) {
     		G.color = 'r';
+    	} else {
+    		blackHeight++; // P and S turn black, so every path gains one
     	}
     	
     	P.color = 'b';
@@ -1,8 +1,17 @@
 import static org.junit.Assert.fail;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.jupiter.api.AfterEach;
@@ -455,7 +464,10 @@ public class BALSTTest {
     		bst.insert(27, "27"); 
     		bst.remove(25);
     		assert(!bst.contains(25));
-    		assert(bst.getKeyOfRightChildOf(20) == 23);
+    		// 23 replaces 25, leaving 29's side with a red 27 that rotates up
+    		assert(bst.getKeyOfRightChildOf(20) == 27);
+    		assert(bst.getKeyOfLeftChildOf(27) == 23);
+    		assert(bst.getKeyOfRightChildOf(27) == 29);
     		assert(bst.numKeys() == 9);
     	} catch (Exception e) {
     		e.printStackTrace();
@@ -696,4 +708,428 @@ public class BALSTTest {
     		fail( "Unexpected exception: "+e.getMessage());
 		}
 	}
+	/**
+	 * Random inserts and removes, with a TreeSet as reference. After every operation
+	 * the red-black invariants must hold and the height must be within 2*log2(n+1).
+	 */
+	@Test
+	void testBST_028_random_churn_keeps_red_black_invariants() {
+		try {
+			BALST<Integer, String> tree = (BALST<Integer, String>) bst;
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			Random random = new Random(400);
+			for (int i = 0; i < 20000; i++) {
+				Integer key = random.nextInt(500);
+				if (random.nextInt(5) < 3) { // slightly more inserts than removes
+					if (expected.add(key)) {
+						tree.insert(key, "" + key);
+					}
+				} else {
+					boolean removed = tree.remove(key);
+					Assert.assertEquals(expected.remove(key), removed);
+				}
+				assertRedBlack(tree, expected.size());
+			}
+			Assert.assertEquals(new ArrayList<Integer>(expected), tree.getInOrderTraversal());
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * Sorted inserts followed by removes from one end degrade a plain BST into a list.
+	 */
+	@Test
+	void testBST_029_sorted_insert_remove_keeps_height_logarithmic() {
+		try {
+			BALST<Integer, String> tree = (BALST<Integer, String>) bst;
+			for (int i = 0; i < 4096; i++) {
+				tree.insert(i, "" + i);
+			}
+			assertRedBlack(tree, 4096);
+			for (int i = 0; i < 4000; i++) {
+				Assert.assertTrue(tree.remove(i));
+				assertRedBlack(tree, 4095 - i);
+			}
+			for (int i = 4000; i < 4096; i++) {
+				Assert.assertEquals("" + i, tree.get(i));
+			}
+			for (int i = 4095; i >= 4000; i--) {
+				Assert.assertTrue(tree.remove(i));
+			}
+			assertRedBlack(tree, 0);
+			Assert.assertNull(tree.getKeyAtRoot());
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * A duplicate found partway down the tree throws before anything is attached or
+	 * recolored, and keeps the original value.
+	 */
+	@Test
+	void testBST_030_duplicate_insert_leaves_tree_unchanged() {
+		BALST<Integer, String> tree = (BALST<Integer, String>) bst;
+		try {
+			for (int i = 0; i < 100; i++) {
+				tree.insert(i, "" + i);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+		List<Integer> levelOrder = tree.getLevelOrderTraversal();
+		for (int i = 0; i < 100; i += 7) {
+			try {
+				tree.insert(i, "duplicate");
+				fail("Duplicate key exception not thrown for " + i);
+			} catch (DuplicateKeyException e) {
+				// expected
+			} catch (Exception e) {
+				e.printStackTrace();
+				fail( "Unexpected exception: "+e.getMessage());
+			}
+		}
+		try {
+			assertRedBlack(tree, 100);
+			Assert.assertEquals(levelOrder, tree.getLevelOrderTraversal());
+			Assert.assertEquals("42", tree.get(42));
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * All four iterators and the lists built from them match traversals worked out
+	 * recursively from the child accessors, on a tree shaped by random churn.
+	 */
+	@Test
+	void testBST_031_iterators_match_recursive_traversals() {
+		try {
+			BALST<Integer, String> tree = (BALST<Integer, String>) bst;
+			Random random = new Random(31);
+			for (int i = 0; i < 3000; i++) {
+				Integer key = random.nextInt(1000);
+				if (!tree.remove(key)) {
+					tree.insert(key, "" + key);
+				}
+			}
+			List<Integer> in = new ArrayList<Integer>();
+			List<Integer> pre = new ArrayList<Integer>();
+			List<Integer> post = new ArrayList<Integer>();
+			traverse(tree, tree.getKeyAtRoot(), in, pre, post);
+			List<Integer> level = new ArrayList<Integer>();
+			level.add(tree.getKeyAtRoot());
+			for (int i = 0; i < level.size(); i++) {
+				Integer left = tree.getKeyOfLeftChildOf(level.get(i));
+				Integer right = tree.getKeyOfRightChildOf(level.get(i));
+				if (left != null) level.add(left);
+				if (right != null) level.add(right);
+			}
+			
+			Assert.assertEquals(in, toList(tree.iterator(BALST.Traversal.IN_ORDER)));
+			Assert.assertEquals(pre, toList(tree.iterator(BALST.Traversal.PRE_ORDER)));
+			Assert.assertEquals(post, toList(tree.iterator(BALST.Traversal.POST_ORDER)));
+			Assert.assertEquals(level, toList(tree.iterator(BALST.Traversal.LEVEL_ORDER)));
+			Assert.assertEquals(in, tree.getInOrderTraversal());
+			Assert.assertEquals(pre, tree.getPreOrderTraversal());
+			Assert.assertEquals(post, tree.getPostOrderTraversal());
+			Assert.assertEquals(level, tree.getLevelOrderTraversal());
+			Assert.assertEquals(tree.numKeys(), in.size());
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * Streams follow the traversal order, and an iterator fails fast once the tree
+	 * changes under it. An empty tree gives empty iterators, a null order is rejected.
+	 */
+	@Test
+	void testBST_032_streams_and_fail_fast_iterators() {
+		try {
+			BALST<Integer, String> tree = (BALST<Integer, String>) bst;
+			Assert.assertFalse(tree.iterator(BALST.Traversal.POST_ORDER).hasNext());
+			Assert.assertEquals(0, tree.stream(BALST.Traversal.LEVEL_ORDER).count());
+			
+			for (int key : new int[] {7, 14, 18, 23, 1, 11, 20, 29}) {
+				tree.insert(key, "" + key);
+			}
+			Assert.assertEquals(Arrays.asList(1, 11, 7, 18, 29, 23, 20, 14),
+					tree.stream(BALST.Traversal.POST_ORDER).collect(Collectors.toList()));
+			Assert.assertEquals(Arrays.asList(14, 7, 20),
+					tree.stream(BALST.Traversal.LEVEL_ORDER).limit(3).collect(Collectors.toList()));
+			Assert.assertEquals(Integer.valueOf(18),
+					tree.stream(BALST.Traversal.IN_ORDER).filter(k -> k > 14).findFirst().get());
+			
+			Iterator<Integer> keys = tree.iterator(BALST.Traversal.IN_ORDER);
+			Assert.assertEquals(Integer.valueOf(1), keys.next());
+			tree.insert(2, "2");
+			try {
+				keys.next();
+				fail("ConcurrentModificationException not thrown");
+			} catch (ConcurrentModificationException e) {
+				// expected
+			}
+			try {
+				tree.iterator(null);
+				fail("IllegalArgumentException not thrown");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			try {
+				tree.stream(null);
+				fail("IllegalArgumentException not thrown");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * Cached height and black height on a known tree, as it grows and as it empties.
+	 */
+	@Test
+	void testBST_033_cached_height_and_black_height() {
+		try {
+			BALST<Integer, String> tree = (BALST<Integer, String>) bst;
+			Assert.assertEquals(0, tree.getHeight());
+			Assert.assertEquals(0, tree.getBlackHeight());
+			tree.insert(7, "7");
+			Assert.assertEquals(1, tree.getHeight());
+			Assert.assertEquals(1, tree.getBlackHeight());
+			tree.insert(14, "14");
+			tree.insert(18, "18"); // rotates 14 to the root, 7 and 18 red
+			Assert.assertEquals(2, tree.getHeight());
+			Assert.assertEquals(1, tree.getBlackHeight());
+			tree.insert(23, "23"); // recolors 7 and 18 black under the root
+			Assert.assertEquals(3, tree.getHeight());
+			Assert.assertEquals(2, tree.getBlackHeight());
+			for (int key : new int[] {1, 11, 20, 29}) {
+				tree.insert(key, "" + key);
+			}
+			Assert.assertEquals(4, tree.getHeight());
+			Assert.assertEquals(2, tree.getBlackHeight());
+			
+			for (int key : new int[] {29, 1, 14, 20, 7, 18, 11, 23}) {
+				Assert.assertTrue(tree.remove(key));
+				assertRedBlack(tree, tree.numKeys()); // checks both cached values
+			}
+			Assert.assertEquals(0, tree.getHeight());
+			Assert.assertEquals(0, tree.getBlackHeight());
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * rank, select and countInRange agree with a TreeSet through random churn, for keys
+	 * in and out of the tree.
+	 */
+	@Test
+	void testBST_034_rank_select_count_in_range() {
+		try {
+			BALST<Integer, String> tree = (BALST<Integer, String>) bst;
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			Random random = new Random(34);
+			for (int i = 0; i < 5000; i++) {
+				Integer key = random.nextInt(2000);
+				if (expected.add(key)) {
+					tree.insert(key, "" + key);
+				} else {
+					tree.remove(key);
+					expected.remove(key);
+				}
+				if (i % 100 == 0) {
+					assertRedBlack(tree, expected.size()); // checks the cached sizes
+				}
+			}
+			
+			List<Integer> sorted = new ArrayList<Integer>(expected);
+			for (int i = 0; i < sorted.size(); i++) {
+				Assert.assertEquals(sorted.get(i), tree.select(i));
+			}
+			for (int key = -1; key <= 2000; key++) {
+				Assert.assertEquals(expected.headSet(key).size(), tree.rank(key));
+			}
+			for (int i = 0; i < 1000; i++) {
+				int lo = random.nextInt(2100) - 50;
+				int hi = random.nextInt(2100) - 50;
+				int count = (lo < hi) ? expected.subSet(lo, hi).size() : 0;
+				Assert.assertEquals(count, tree.countInRange(lo, hi));
+			}
+			
+			try {
+				tree.select(sorted.size());
+				fail("IndexOutOfBoundsException not thrown");
+			} catch (IndexOutOfBoundsException e) {
+				// expected
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * floorKey, ceilingKey, lowerKey, higherKey and rangeIterator agree with a TreeSet,
+	 * for bounds in the tree, between its keys and beyond either end.
+	 */
+	@Test
+	void testBST_035_navigation_and_range_iteration() {
+		try {
+			BALST<Integer, String> tree = (BALST<Integer, String>) bst;
+			Assert.assertNull(tree.floorKey(5));
+			Assert.assertFalse(tree.rangeIterator(0, 10).hasNext());
+			
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			Random random = new Random(35);
+			while (expected.size() < 500) {
+				Integer key = 2 * random.nextInt(1000); // even keys, so odd ones fall between
+				if (expected.add(key)) {
+					tree.insert(key, "" + key);
+				}
+			}
+			for (int key = -3; key <= 2002; key++) {
+				Assert.assertEquals(expected.floor(key), tree.floorKey(key));
+				Assert.assertEquals(expected.ceiling(key), tree.ceilingKey(key));
+				Assert.assertEquals(expected.lower(key), tree.lowerKey(key));
+				Assert.assertEquals(expected.higher(key), tree.higherKey(key));
+			}
+			for (int i = 0; i < 500; i++) {
+				int lo = random.nextInt(2100) - 50;
+				int hi = lo + random.nextInt(200);
+				Assert.assertEquals(new ArrayList<Integer>(expected.subSet(lo, hi)),
+						toList(tree.rangeIterator(lo, hi)));
+			}
+			Assert.assertFalse(tree.rangeIterator(100, 100).hasNext());
+			Assert.assertFalse(tree.rangeIterator(100, 50).hasNext());
+			
+			Iterator<Integer> keys = tree.rangeIterator(expected.first(), expected.first() + 1);
+			keys.next();
+			try {
+				keys.next();
+				fail("NoSuchElementException not thrown");
+			} catch (NoSuchElementException e) {
+				// expected
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * fromSorted builds a valid red-black tree of minimum height for every size up to a
+	 * few levels, which then keeps working under inserts and removes.
+	 */
+	@Test
+	void testBST_036_from_sorted_builds_valid_tree() {
+		try {
+			for (int n = 0; n <= 300; n++) {
+				Map<Integer, String> entries = new TreeMap<Integer, String>();
+				for (int i = 0; i < n; i++) {
+					entries.put(3 * i, "" + (3 * i));
+				}
+				BALST<Integer, String> tree = BALST.fromSorted(entries.entrySet().iterator());
+				assertRedBlack(tree, n);
+				int minHeight = 32 - Integer.numberOfLeadingZeros(n); // ceil(log2(n + 1))
+				Assert.assertEquals(minHeight, tree.getHeight());
+				Assert.assertEquals(new ArrayList<Integer>(entries.keySet()), tree.getInOrderTraversal());
+				
+				if (n > 0) {
+					Assert.assertEquals("0", tree.get(0));
+					tree.insert(1, "1");
+					assertRedBlack(tree, n + 1);
+					Assert.assertTrue(tree.remove(3 * (n / 2)));
+					assertRedBlack(tree, n);
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * fromSorted rejects out of order, duplicate and null keys.
+	 */
+	@Test
+	void testBST_037_from_sorted_rejects_bad_input() {
+		List<Map.Entry<Integer, String>> entries = new ArrayList<Map.Entry<Integer, String>>();
+		entries.add(new AbstractMap.SimpleEntry<Integer, String>(1, "1"));
+		entries.add(new AbstractMap.SimpleEntry<Integer, String>(3, "3"));
+		entries.add(new AbstractMap.SimpleEntry<Integer, String>(2, "2"));
+		try {
+			BALST.fromSorted(entries.iterator());
+			fail("IllegalArgumentException not thrown for unsorted keys");
+		} catch (IllegalArgumentException e) {
+			// expected
+		} catch (Exception e) {
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+		
+		entries.set(2, new AbstractMap.SimpleEntry<Integer, String>(3, "three"));
+		try {
+			BALST.fromSorted(entries.iterator());
+			fail("DuplicateKeyException not thrown");
+		} catch (DuplicateKeyException e) {
+			// expected
+		} catch (Exception e) {
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+		
+		entries.set(2, new AbstractMap.SimpleEntry<Integer, String>(null, "null"));
+		try {
+			BALST.fromSorted(entries.iterator());
+			fail("IllegalNullKeyException not thrown");
+		} catch (IllegalNullKeyException e) {
+			// expected
+		} catch (Exception e) {
+			fail( "Unexpected exception: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * Recursive in-, pre- and post-order traversal through the child accessors
+	 */
+	private static void traverse(BALST<Integer, String> tree, Integer key, List<Integer> in,
+			List<Integer> pre, List<Integer> post) throws Exception {
+		if (key == null) {
+			return;
+		}
+		pre.add(key);
+		traverse(tree, tree.getKeyOfLeftChildOf(key), in, pre, post);
+		in.add(key);
+		traverse(tree, tree.getKeyOfRightChildOf(key), in, pre, post);
+		post.add(key);
+	}
+	
+	private static List<Integer> toList(Iterator<Integer> keys) {
+		List<Integer> list = new ArrayList<Integer>();
+		keys.forEachRemaining(list::add);
+		return list;
+	}
+	
+	/**
+	 * Fails unless tree holds size keys, satisfies the red-black invariants and has a
+	 * height of at most 2*log2(size+1).
+	 */
+	private static void assertRedBlack(BALST<Integer, String> tree, int size) {
+		Assert.assertEquals(size, tree.numKeys());
+		tree.checkRedBlack(); // throws if broken, including the cached heights
+		double bound = 2 * Math.log(size + 1) / Math.log(2);
+		if (tree.getHeight() > bound) {
+			fail("height " + tree.getHeight() + " exceeds 2*log2(n+1) for n = " + size);
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,694 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Wilson Tjoeng
+ * tjoeng@wisc.edu
+ * CS400 010
+ *
+ * Implementation of a balanced search tree whose versions never change, so any number of
+ * threads can read it without locks while a writer updates it. It is a left-leaning red-black
+ * tree (Sedgewick): a red node is always the left child of a black one, which halves the
+ * cases a functional insert and remove have to handle.
+ *
+ * Nodes are never changed once built. insert and remove copy the nodes on the path from the
+ * root to the key they change, O(log n) of them, and share every other node with the previous
+ * version. The newest version is published with a compare-and-set on an AtomicReference, so
+ * writers never lock either; a writer that loses the race to another writer rebuilds its path
+ * on top of the winner's version.
+ *
+ * Every read takes the current version once and works on it alone, so a traversal sees
+ * exactly the keys present when it started. snapshot() returns a read-only PersistentBALST
+ * holding on to the current version. A version no snapshot or reader refers to anymore is
+ * ordinary garbage, so old versions are reclaimed without any bookkeeping.
+ *
+ * @param <K> A Comparable type to be used as a key to an associated value.
+ * @param <V> A value associated with the given key.
+ */
+public class PersistentBALST<K extends Comparable<K>, V> implements BALSTADT<K, V> {
+
+	/**
+	 * Inner immutable node class
+	 *
+	 * @param <K> A unique key
+	 * @param <V> The key's associated value
+	 */
+	private static final class Node<K, V> {
+		private final K key;
+		private final V value;
+		private final Node<K, V> left;
+		private final Node<K, V> right;
+		private final boolean red; // color of the link from the parent
+		private final int height; // levels in the subtree rooted here, 1 for a leaf
+
+		/**
+		 * Node constructor
+		 *
+		 * @param key key
+		 * @param value value
+		 * @param left left child, may be null
+		 * @param right right child, may be null
+		 * @param red true if red, false if black
+		 */
+		private Node(K key, V value, Node<K, V> left, Node<K, V> right, boolean red) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+			this.red = red;
+			this.height = Math.max(heightOf(left), heightOf(right)) + 1;
+		}
+	}
+
+	// Inner class - one version of the tree
+	private static final class Version<K, V> {
+		private final Node<K, V> root;
+		private final int numKeys;
+
+		/**
+		 * Version constructor
+		 *
+		 * @param root root of the tree, null if empty
+		 * @param numKeys number of keys in the tree
+		 */
+		private Version(Node<K, V> root, int numKeys) {
+			this.root = root;
+			this.numKeys = numKeys;
+		}
+	}
+
+	// Private fields of the class
+	private final AtomicReference<Version<K, V>> current; // newest version
+	private final boolean readOnly; // true for snapshots
+
+	/**
+	 * Construct an empty tree
+	 */
+	public PersistentBALST() {
+		this(new Version<K, V>(null, 0), false);
+	}
+
+	/**
+	 * Construct a tree starting at a version
+	 *
+	 * @param version first version
+	 * @param readOnly whether insert and remove are rejected
+	 */
+	private PersistentBALST(Version<K, V> version, boolean readOnly) {
+		this.current = new AtomicReference<Version<K, V>>(version);
+		this.readOnly = readOnly;
+	}
+
+	/**
+	 * Returns the key that is in the root node of this ST.
+	 * If root is null, returns null.
+	 * @return key found at root node, or null
+	 */
+	public K getKeyAtRoot() {
+		Node<K, V> root = current.get().root;
+		return (root == null) ? null : root.key;
+	}
+
+	/**
+	 * Returns the key that is in the left child of the node with the specified key.
+	 *
+	 * @param key A key to search for
+	 * @return The key that is in the left child of the found key, or null if there is none
+	 *
+	 * @throws IllegalNullKeyException if key argument is null
+	 * @throws KeyNotFoundException if key is not found in this tree
+	 */
+	public K getKeyOfLeftChildOf(K key) throws IllegalNullKeyException, KeyNotFoundException {
+		Node<K, V> n = findOrThrow(current.get().root, key);
+		return (n.left == null) ? null : n.left.key;
+	}
+
+	/**
+	 * Returns the key that is in the right child of the node with the specified key.
+	 *
+	 * @param key A key to search for
+	 * @return The key that is in the right child of the found key, or null if there is none
+	 *
+	 * @throws IllegalNullKeyException if key argument is null
+	 * @throws KeyNotFoundException if key is not found in this tree
+	 */
+	public K getKeyOfRightChildOf(K key) throws IllegalNullKeyException, KeyNotFoundException {
+		Node<K, V> n = findOrThrow(current.get().root, key);
+		return (n.right == null) ? null : n.right.key;
+	}
+
+	/**
+	 * Returns the height of this tree, the number of levels that contain keys. Every node
+	 * stores the height of its subtree, so this is O(1).
+	 *
+	 * @return the number of levels, 0 if empty
+	 */
+	public int getHeight() {
+		return heightOf(current.get().root);
+	}
+
+	/**
+	 * Returns the keys in sorted order: L V R
+	 *
+	 * @return List of Keys in-order, empty if the tree is empty
+	 */
+	public List<K> getInOrderTraversal() {
+		List<K> list = new ArrayList<K>();
+		ArrayDeque<Node<K, V>> path = new ArrayDeque<Node<K, V>>();
+		Node<K, V> n = current.get().root;
+		while (n != null || !path.isEmpty()) {
+			if (n != null) {
+				path.push(n);
+				n = n.left;
+			} else {
+				n = path.pop();
+				list.add(n.key);
+				n = n.right;
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the keys in pre-order: V L R
+	 *
+	 * @return List of Keys in pre-order, empty if the tree is empty
+	 */
+	public List<K> getPreOrderTraversal() {
+		List<K> list = new ArrayList<K>();
+		ArrayDeque<Node<K, V>> stack = new ArrayDeque<Node<K, V>>();
+		Node<K, V> root = current.get().root;
+		if (root != null) {
+			stack.push(root);
+		}
+		while (!stack.isEmpty()) {
+			Node<K, V> n = stack.pop();
+			list.add(n.key);
+			if (n.right != null) {
+				stack.push(n.right);
+			}
+			if (n.left != null) {
+				stack.push(n.left);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the keys in post-order: L R V
+	 *
+	 * @return List of Keys in post-order, empty if the tree is empty
+	 */
+	public List<K> getPostOrderTraversal() {
+		List<K> list = new ArrayList<K>();
+		ArrayDeque<Node<K, V>> path = new ArrayDeque<Node<K, V>>();
+		pushFirstLeaf(path, current.get().root);
+		while (!path.isEmpty()) {
+			Node<K, V> n = path.pop();
+			list.add(n.key);
+			Node<K, V> parent = path.peek();
+			if (parent != null && parent.left == n) { // right subtree is next, if any
+				pushFirstLeaf(path, parent.right);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the keys level by level from the root, left to right within a level
+	 *
+	 * @return List of Keys in level-order, empty if the tree is empty
+	 */
+	public List<K> getLevelOrderTraversal() {
+		List<K> list = new ArrayList<K>();
+		ArrayDeque<Node<K, V>> queue = new ArrayDeque<Node<K, V>>();
+		Node<K, V> root = current.get().root;
+		if (root != null) {
+			queue.add(root);
+		}
+		while (!queue.isEmpty()) {
+			Node<K, V> n = queue.remove();
+			list.add(n.key);
+			if (n.left != null) {
+				queue.add(n.left);
+			}
+			if (n.right != null) {
+				queue.add(n.right);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Add the key,value pair to the tree and increase the number of keys.
+	 * Copies O(log n) nodes and publishes the new version atomically.
+	 *
+	 * @throws IllegalNullKeyException if key is null
+	 * @throws DuplicateKeyException if key is already in the tree
+	 * @throws UnsupportedOperationException if this is a snapshot
+	 */
+	public void insert(K key, V value) throws IllegalNullKeyException, DuplicateKeyException {
+		checkWritable();
+		if (key == null) {
+			throw new IllegalNullKeyException("Cannot handle null key");
+		}
+
+		while (true) {
+			Version<K, V> version = current.get();
+			Node<K, V> root = blacken(insert(version.root, key, value)); // throws on a duplicate
+			if (current.compareAndSet(version, new Version<K, V>(root, version.numKeys + 1))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * If key is found, remove the key,value pair from the tree, decrease the number of keys
+	 * and return true. Copies O(log n) nodes and publishes the new version atomically.
+	 * If key is not found, return false.
+	 *
+	 * @throws IllegalNullKeyException if key is null
+	 * @throws UnsupportedOperationException if this is a snapshot
+	 */
+	public boolean remove(K key) throws IllegalNullKeyException {
+		checkWritable();
+		if (key == null) {
+			throw new IllegalNullKeyException("Cannot handle null key");
+		}
+
+		while (true) {
+			Version<K, V> version = current.get();
+			Node<K, V> root = version.root;
+			if (find(root, key) == null) {
+				return false;
+			}
+
+			// Make the root red if both children are black, so remove can borrow from it
+			if (!isRed(root.left) && !isRed(root.right)) {
+				root = withColor(root, true);
+			}
+			root = blacken(remove(root, key));
+			if (current.compareAndSet(version, new Version<K, V>(root, version.numKeys - 1))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the value associated with the specified key.
+	 *
+	 * @throws IllegalNullKeyException if key is null
+	 * @throws KeyNotFoundException if key is not found
+	 */
+	public V get(K key) throws IllegalNullKeyException, KeyNotFoundException {
+		return findOrThrow(current.get().root, key).value;
+	}
+
+	/**
+	 * Returns true if the key is in the tree
+	 *
+	 * @throws IllegalNullKeyException if key is null
+	 */
+	public boolean contains(K key) throws IllegalNullKeyException {
+		if (key == null) {
+			throw new IllegalNullKeyException("Cannot handle null key");
+		}
+		return find(current.get().root, key) != null;
+	}
+
+	/**
+	 * Returns the number of key,value pairs in the tree
+	 */
+	public int numKeys() {
+		return current.get().numKeys;
+	}
+
+	/**
+	 * Returns an immutable view of every key present now. Taking a snapshot is O(1), the
+	 * view shares every node with this tree, and later writes to this tree don't show up in
+	 * it.
+	 *
+	 * @return a read-only PersistentBALST whose insert and remove throw
+	 *         UnsupportedOperationException
+	 */
+	public PersistentBALST<K, V> snapshot() {
+		return readOnly ? this : new PersistentBALST<K, V>(current.get(), true);
+	}
+
+	/**
+	 * Print the tree sideways, with the root on the left and right children above their
+	 * parents.
+	 */
+	public void print() {
+		print(current.get().root, 0);
+	}
+
+	/**
+	 * Checks the left-leaning red-black invariants of the current version, for tests: keys
+	 * are in BST order, the root is black, red nodes are left children of black nodes, every
+	 * path to a null leaf has the same number of black nodes, and cached heights are right.
+	 *
+	 * @return the black height of the tree, 0 if empty
+	 * @throws IllegalStateException if an invariant is broken
+	 */
+	int checkRedBlack() {
+		Node<K, V> root = current.get().root;
+		if (isRed(root)) {
+			throw new IllegalStateException("red root");
+		}
+		return checkRedBlack(root, null, null);
+	}
+
+	/////---- Private Helper Methods ----\\\\\
+
+	/**
+	 * @throws UnsupportedOperationException if this is a snapshot
+	 */
+	private void checkWritable() {
+		if (readOnly) {
+			throw new UnsupportedOperationException("snapshot");
+		}
+	}
+
+	/**
+	 * Finds the node with the specified key in one version
+	 *
+	 * @param n root of the version
+	 * @param key non-null key
+	 * @return the node holding key, or null if not present
+	 */
+	private static <K extends Comparable<K>, V> Node<K, V> find(Node<K, V> n, K key) {
+		while (n != null) {
+			int cmp = key.compareTo(n.key);
+			if (cmp < 0) {
+				n = n.left;
+			} else if (cmp > 0) {
+				n = n.right;
+			} else {
+				return n;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the node with the specified key in one version
+	 *
+	 * @param root root of the version
+	 * @param key key to search for
+	 * @return the node holding key
+	 * @throws IllegalNullKeyException if key is null
+	 * @throws KeyNotFoundException if key is not present
+	 */
+	private Node<K, V> findOrThrow(Node<K, V> root, K key)
+			throws IllegalNullKeyException, KeyNotFoundException {
+		if (key == null) {
+			throw new IllegalNullKeyException("Cannot handle null key");
+		}
+
+		Node<K, V> n = find(root, key);
+		if (n == null) {
+			throw new KeyNotFoundException("Key not found");
+		}
+		return n;
+	}
+
+	/**
+	 * Inserts below n, copying every node on the way down and fixing up on the way back.
+	 * Recursion depth is the height, O(log n).
+	 *
+	 * @param n root of the subtree, may be null
+	 * @param key key to insert
+	 * @param value value of key
+	 * @return root of the new subtree
+	 * @throws DuplicateKeyException if key is already in the subtree
+	 */
+	private Node<K, V> insert(Node<K, V> n, K key, V value) throws DuplicateKeyException {
+		if (n == null) {
+			return new Node<K, V>(key, value, null, null, true);
+		}
+
+		int cmp = key.compareTo(n.key);
+		if (cmp < 0) {
+			n = new Node<K, V>(n.key, n.value, insert(n.left, key, value), n.right, n.red);
+		} else if (cmp > 0) {
+			n = new Node<K, V>(n.key, n.value, n.left, insert(n.right, key, value), n.red);
+		} else {
+			throw new DuplicateKeyException("Cannot insert duplicate key");
+		}
+		return balance(n);
+	}
+
+	/**
+	 * Removes key from below n, which is red or has a red left child. On the way down
+	 * red links are pushed towards the key so it is never removed from a 2-node, and
+	 * balance fixes up the copied nodes on the way back.
+	 *
+	 * @param n root of the subtree, holds key somewhere
+	 * @param key key to remove
+	 * @return root of the new subtree, null if it is now empty
+	 */
+	private Node<K, V> remove(Node<K, V> n, K key) {
+		if (key.compareTo(n.key) < 0) {
+			if (!isRed(n.left) && !isRed(n.left.left)) {
+				n = moveRedLeft(n);
+			}
+			n = new Node<K, V>(n.key, n.value, remove(n.left, key), n.right, n.red);
+		} else {
+			if (isRed(n.left)) {
+				n = rotateRight(n);
+			}
+			if (key.compareTo(n.key) == 0 && n.right == null) {
+				return null;
+			}
+			if (!isRed(n.right) && !isRed(n.right.left)) {
+				n = moveRedRight(n);
+			}
+			if (key.compareTo(n.key) == 0) { // take the successor's pair, remove the successor
+				Node<K, V> successor = n.right;
+				while (successor.left != null) {
+					successor = successor.left;
+				}
+				n = new Node<K, V>(successor.key, successor.value, n.left, removeMin(n.right), n.red);
+			} else {
+				n = new Node<K, V>(n.key, n.value, n.left, remove(n.right, key), n.red);
+			}
+		}
+		return balance(n);
+	}
+
+	/**
+	 * Removes the smallest key below n, which is red or has a red left child
+	 *
+	 * @param n root of the subtree
+	 * @return root of the new subtree, null if it is now empty
+	 */
+	private Node<K, V> removeMin(Node<K, V> n) {
+		if (n.left == null) {
+			return null;
+		}
+		if (!isRed(n.left) && !isRed(n.left.left)) {
+			n = moveRedLeft(n);
+		}
+		return balance(new Node<K, V>(n.key, n.value, removeMin(n.left), n.right, n.red));
+	}
+
+	/**
+	 * Restores the left-leaning invariants at n after a child changed: a lone right red
+	 * link is rotated left, two left red links in a row are rotated right, and a node with
+	 * two red children splits by flipping colors.
+	 *
+	 * @param n a copied node
+	 * @return root of the fixed subtree
+	 */
+	private Node<K, V> balance(Node<K, V> n) {
+		if (isRed(n.right) && !isRed(n.left)) {
+			n = rotateLeft(n);
+		}
+		if (isRed(n.left) && isRed(n.left.left)) {
+			n = rotateRight(n);
+		}
+		if (isRed(n.left) && isRed(n.right)) {
+			n = flipColors(n);
+		}
+		return n;
+	}
+
+	/**
+	 * With n red and both its children black, makes n.left or one of its children red
+	 *
+	 * @param n node to borrow a red link from
+	 * @return root of the new subtree
+	 */
+	private Node<K, V> moveRedLeft(Node<K, V> n) {
+		n = flipColors(n);
+		if (isRed(n.right.left)) {
+			n = new Node<K, V>(n.key, n.value, n.left, rotateRight(n.right), n.red);
+			n = flipColors(rotateLeft(n));
+		}
+		return n;
+	}
+
+	/**
+	 * With n red and both n.right and n.right.left black, makes n.right or one of its
+	 * children red
+	 *
+	 * @param n node to borrow a red link from
+	 * @return root of the new subtree
+	 */
+	private Node<K, V> moveRedRight(Node<K, V> n) {
+		n = flipColors(n);
+		if (isRed(n.left.left)) {
+			n = flipColors(rotateRight(n));
+		}
+		return n;
+	}
+
+	/**
+	 * Copies n with its right child rotated above it
+	 *
+	 *     n              r
+	 *    / \            / \
+	 *       r    ->    n
+	 *      / \        / \
+	 *     m              m
+	 *
+	 * @param n node with a red right child
+	 * @return the new subtree root, with n's color
+	 */
+	private Node<K, V> rotateLeft(Node<K, V> n) {
+		Node<K, V> r = n.right;
+		Node<K, V> below = new Node<K, V>(n.key, n.value, n.left, r.left, true);
+		return new Node<K, V>(r.key, r.value, below, r.right, n.red);
+	}
+
+	/**
+	 * Copies n with its left child rotated above it
+	 *
+	 *       n          l
+	 *      / \        / \
+	 *     l    ->        n
+	 *    / \            / \
+	 *       m          m
+	 *
+	 * @param n node with a red left child
+	 * @return the new subtree root, with n's color
+	 */
+	private Node<K, V> rotateRight(Node<K, V> n) {
+		Node<K, V> l = n.left;
+		Node<K, V> below = new Node<K, V>(n.key, n.value, l.right, n.right, true);
+		return new Node<K, V>(l.key, l.value, l.left, below, n.red);
+	}
+
+	/**
+	 * Copies n and both its children with their colors flipped
+	 *
+	 * @param n node with two children
+	 * @return the copy of n
+	 */
+	private Node<K, V> flipColors(Node<K, V> n) {
+		return new Node<K, V>(n.key, n.value, withColor(n.left, !n.left.red),
+				withColor(n.right, !n.right.red), !n.red);
+	}
+
+	/**
+	 * @param n a node, may be null
+	 * @return n if it is null or black, otherwise a black copy
+	 */
+	private Node<K, V> blacken(Node<K, V> n) {
+		return isRed(n) ? withColor(n, false) : n;
+	}
+
+	/**
+	 * @param n a node
+	 * @param red color of the copy
+	 * @return a copy of n with the given color
+	 */
+	private Node<K, V> withColor(Node<K, V> n, boolean red) {
+		return new Node<K, V>(n.key, n.value, n.left, n.right, red);
+	}
+
+	/**
+	 * @param n a node, may be null
+	 * @return true if n is red, null leaves are black
+	 */
+	private static boolean isRed(Node<?, ?> n) {
+		return n != null && n.red;
+	}
+
+	/**
+	 * @param n a node, may be null
+	 * @return the height of n's subtree, 0 if n is null
+	 */
+	private static int heightOf(Node<?, ?> n) {
+		return (n == null) ? 0 : n.height;
+	}
+
+	/**
+	 * Pushes the path from n to the first leaf reached by going left where possible and
+	 * right otherwise, which is the first node of n's subtree in post-order
+	 *
+	 * @param path stack to push onto
+	 * @param n subtree root, may be null
+	 */
+	private static <K, V> void pushFirstLeaf(ArrayDeque<Node<K, V>> path, Node<K, V> n) {
+		while (n != null) {
+			path.push(n);
+			n = (n.left != null) ? n.left : n.right;
+		}
+	}
+
+	/**
+	 * Recursive helper for print
+	 *
+	 * @param n subtree to print
+	 * @param space indent of n
+	 */
+	private void print(Node<K, V> n, int space) {
+		if (n == null) {
+			return;
+		}
+
+		print(n.right, space + 5);
+		for (int i = 0; i < space; i++) {
+			System.out.print(' ');
+		}
+		System.out.println(n.key);
+		print(n.left, space + 5);
+	}
+
+	/**
+	 * Recursive helper for checkRedBlack
+	 *
+	 * @param n the subtree to check
+	 * @param lo keys must be greater than lo, or null for no bound
+	 * @param hi keys must be less than hi, or null for no bound
+	 * @return the black height of the subtree
+	 */
+	private int checkRedBlack(Node<K, V> n, K lo, K hi) {
+		if (n == null) {
+			return 0;
+		}
+		if ((lo != null && n.key.compareTo(lo) <= 0) || (hi != null && n.key.compareTo(hi) >= 0)) {
+			throw new IllegalStateException("key " + n.key + " out of order");
+		}
+		if (isRed(n.right)) {
+			throw new IllegalStateException("right-leaning red link below " + n.key);
+		}
+		if (n.red && isRed(n.left)) {
+			throw new IllegalStateException("red node " + n.key + " has a red child");
+		}
+		if (n.height != Math.max(heightOf(n.left), heightOf(n.right)) + 1) {
+			throw new IllegalStateException("wrong cached height at " + n.key);
+		}
+
+		int left = checkRedBlack(n.left, lo, n.key);
+		int right = checkRedBlack(n.right, n.key, hi);
+		if (left != right) {
+			throw new IllegalStateException("black heights differ below " + n.key);
+		}
+		return left + (n.red ? 0 : 1);
+	}
+}
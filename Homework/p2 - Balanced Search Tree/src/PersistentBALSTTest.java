@@ -0,0 +1,241 @@
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PersistentBALSTTest {
+
+    protected PersistentBALST<Integer, String> tree;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        tree = new PersistentBALST<Integer, String>();
+    }
+
+    /**
+     * Random inserts and removes with a TreeMap as reference. After every operation the
+     * left-leaning red-black invariants must hold and the height must be within
+     * 2*log2(n+1).
+     */
+    @Test
+    void test001_random_churn_keeps_invariants() {
+        try {
+            TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+            Random random = new Random(25);
+            for (int i = 0; i < 20000; i++) {
+                Integer key = random.nextInt(500);
+                if (random.nextInt(5) < 3) {
+                    if (!expected.containsKey(key)) {
+                        expected.put(key, "" + i);
+                        tree.insert(key, "" + i);
+                    }
+                } else {
+                    Assert.assertEquals(expected.remove(key) != null, tree.remove(key));
+                }
+                Assert.assertEquals(expected.size(), tree.numKeys());
+                tree.checkRedBlack(); // throws if broken
+                if (tree.getHeight() > 2 * Math.log(expected.size() + 1) / Math.log(2)) {
+                    fail("height " + tree.getHeight() + " for " + expected.size() + " keys");
+                }
+            }
+            Assert.assertEquals(new ArrayList<Integer>(expected.keySet()), tree.getInOrderTraversal());
+            for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+                Assert.assertEquals(entry.getValue(), tree.get(entry.getKey()));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail( "Unexpected exception: "+e.getMessage());
+        }
+    }
+
+    /**
+     * The four traversals match ones worked out recursively from the child accessors.
+     */
+    @Test
+    void test002_traversals_match_child_accessors() {
+        try {
+            Random random = new Random(2);
+            for (int i = 0; i < 300; i++) {
+                Integer key = random.nextInt(1000);
+                if (!tree.contains(key)) {
+                    tree.insert(key, "" + key);
+                }
+            }
+            List<Integer> in = new ArrayList<Integer>();
+            List<Integer> pre = new ArrayList<Integer>();
+            List<Integer> post = new ArrayList<Integer>();
+            traverse(tree.getKeyAtRoot(), in, pre, post);
+            List<Integer> level = new ArrayList<Integer>();
+            level.add(tree.getKeyAtRoot());
+            for (int i = 0; i < level.size(); i++) {
+                Integer left = tree.getKeyOfLeftChildOf(level.get(i));
+                Integer right = tree.getKeyOfRightChildOf(level.get(i));
+                if (left != null) level.add(left);
+                if (right != null) level.add(right);
+            }
+            Assert.assertEquals(in, tree.getInOrderTraversal());
+            Assert.assertEquals(pre, tree.getPreOrderTraversal());
+            Assert.assertEquals(post, tree.getPostOrderTraversal());
+            Assert.assertEquals(level, tree.getLevelOrderTraversal());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail( "Unexpected exception: "+e.getMessage());
+        }
+    }
+
+    /**
+     * Null keys, duplicates and missing keys throw the ADT's exceptions, and leave the
+     * tree unchanged.
+     */
+    @Test
+    void test003_exceptions() {
+        try {
+            tree.insert(10, "10");
+        } catch (Exception e) {
+            fail( "Unexpected exception: "+e.getMessage());
+        }
+        try {
+            tree.insert(null, "null");
+            fail("IllegalNullKeyException not thrown");
+        } catch (IllegalNullKeyException e) {
+            // expected
+        } catch (Exception e) {
+            fail( "Unexpected exception: "+e.getMessage());
+        }
+        try {
+            tree.insert(10, "ten");
+            fail("DuplicateKeyException not thrown");
+        } catch (DuplicateKeyException e) {
+            // expected
+        } catch (Exception e) {
+            fail( "Unexpected exception: "+e.getMessage());
+        }
+        try {
+            tree.get(20);
+            fail("KeyNotFoundException not thrown");
+        } catch (KeyNotFoundException e) {
+            // expected
+        } catch (Exception e) {
+            fail( "Unexpected exception: "+e.getMessage());
+        }
+        try {
+            Assert.assertFalse(tree.remove(20));
+            Assert.assertEquals(1, tree.numKeys());
+            Assert.assertEquals("10", tree.get(10));
+            Assert.assertTrue(tree.remove(10));
+            Assert.assertNull(tree.getKeyAtRoot());
+            Assert.assertEquals(0, tree.getHeight());
+        } catch (Exception e) {
+            fail( "Unexpected exception: "+e.getMessage());
+        }
+    }
+
+    /**
+     * A snapshot keeps the keys present when it was taken while the tree changes, and
+     * rejects writes.
+     */
+    @Test
+    void test004_snapshot_is_isolated_and_read_only() {
+        try {
+            for (int i = 0; i < 100; i++) {
+                tree.insert(i, "" + i);
+            }
+            PersistentBALST<Integer, String> snapshot = tree.snapshot();
+            List<Integer> levelOrder = tree.getLevelOrderTraversal();
+            for (int i = 0; i < 100; i += 2) {
+                tree.remove(i);
+            }
+            for (int i = 100; i < 200; i++) {
+                tree.insert(i, "" + i);
+            }
+
+            Assert.assertEquals(100, snapshot.numKeys());
+            Assert.assertEquals(levelOrder, snapshot.getLevelOrderTraversal());
+            Assert.assertEquals("0", snapshot.get(0));
+            Assert.assertFalse(snapshot.contains(150));
+            Assert.assertFalse(tree.contains(0));
+            Assert.assertEquals(150, tree.numKeys());
+            Assert.assertSame(snapshot, snapshot.snapshot());
+            try {
+                snapshot.insert(500, "500");
+                fail("UnsupportedOperationException not thrown");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail( "Unexpected exception: "+e.getMessage());
+        }
+    }
+
+    /**
+     * While a writer inserts keys 0, 1, 2, ... in order, readers without any lock must
+     * always see some version holding exactly 0 to k-1, never a tree in between.
+     */
+    @Test
+    void test005_readers_see_consistent_versions_during_writes() throws Exception {
+        int n = 20000;
+        AtomicReference<String> failure = new AtomicReference<String>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < n; i++) {
+                    tree.insert(i, "" + i);
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, e.toString());
+            }
+        });
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                while (writer.isAlive() && failure.get() == null) {
+                    List<Integer> keys = tree.snapshot().getInOrderTraversal();
+                    for (int i = 0; i < keys.size(); i++) {
+                        if (keys.get(i) != i) {
+                            failure.compareAndSet(null, "saw " + keys.get(i) + " at index " + i);
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+        writer.start();
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        Assert.assertNull(failure.get());
+        Assert.assertEquals(n, tree.numKeys());
+        tree.checkRedBlack();
+    }
+
+    /**
+     * Recursive in-, pre- and post-order traversal through the child accessors
+     */
+    private void traverse(Integer key, List<Integer> in, List<Integer> pre, List<Integer> post)
+            throws Exception {
+        if (key == null) {
+            return;
+        }
+        pre.add(key);
+        traverse(tree.getKeyOfLeftChildOf(key), in, pre, post);
+        in.add(key);
+        traverse(tree.getKeyOfRightChildOf(key), in, pre, post);
+        post.add(key);
+    }
+}
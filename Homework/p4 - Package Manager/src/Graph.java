@@ -1,7 +1,9 @@
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -11,12 +13,13 @@ import java.util.Set;
  * Course:	   CS400.010
  * Due:		   11/19/21
  * 
- * Directed and unweighted graph implementation
+ * Directed and unweighted graph implementation. Vertices are kept in a map from their
+ * data, so finding a vertex by name is O(1) expected instead of a scan of every vertex.
  */
 
 public class Graph implements GraphADT {
 	
-	private static Set<Vertex> vertices;
+	private Map<String, Vertex> vertices; // vertex data -> vertex
 	private int numVertices;
 	private int numEdges;
 	
@@ -24,7 +27,7 @@ public class Graph implements GraphADT {
 	 * Default no-argument constructor
 	 */ 
 	public Graph() {
-		vertices = new HashSet<Vertex>();
+		vertices = new HashMap<String, Vertex>();
 		numVertices = 0;
 		numEdges = 0;
 	}
@@ -67,7 +70,7 @@ public class Graph implements GraphADT {
 		}
 		
 		Vertex v = new Vertex(vertex);
-		vertices.add(v);
+		vertices.put(vertex, v);
 		numVertices++;
 	}
 
@@ -91,7 +94,7 @@ public class Graph implements GraphADT {
 		
 		Vertex v = getVertex(vertex);
 		removeAdjacentEdges(v);
-		vertices.remove(v);
+		vertices.remove(vertex);
 		numVertices--;
 	}
 
@@ -168,9 +171,7 @@ public class Graph implements GraphADT {
 	public Set<String> getAllVertices() {
 		Set<String> set = new HashSet<String>();
 		
-		for (Vertex v : vertices) {
-			set.add(v.data);
-		}
+		set.addAll(vertices.keySet());
 		
 		return set;
 	}
@@ -237,7 +238,7 @@ public class Graph implements GraphADT {
 	private void removeAdjacentEdges(Vertex v) {
 		
 		// Remove edges pointing to v
-		for (Vertex vertex : vertices) {
+		for (Vertex vertex : vertices.values()) {
 			removeEdge(vertex.data, v.data);
 		}
 		
@@ -254,14 +255,7 @@ public class Graph implements GraphADT {
 	 * @return true if graph has a vertex with the given string; false otherwise
 	 */
 	private boolean hasVertex(String data) {
-		
-		for (Vertex v : vertices) {
-			if (v.data.equals(data)) {
-				return true;
-			}
-		}
-		
-		return false;
+		return data != null && vertices.containsKey(data);
 	}
 	
 	/**
@@ -271,13 +265,7 @@ public class Graph implements GraphADT {
 	 * @return vertex object with the given string
 	 */
 	private Vertex getVertex(String data) {
-		for (Vertex v : vertices) {
-			if (v.data.equals(data)) {
-				return v;
-			}
-		}
-		
-		return null;
+		return data == null ? null : vertices.get(data);
 	}
 	
 	/**